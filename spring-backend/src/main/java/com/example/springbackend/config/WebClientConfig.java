@@ -1,25 +1,54 @@
 package com.example.springbackend.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
+    // Transport-level backstops so a hung upstream cannot hold Netty connections indefinitely;
+    // per-call timeouts for bus providers are tighter and adaptive (see ProviderCircuitBreakers)
+    private static final int CONNECT_TIMEOUT_MILLIS = 3_000;
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(10);
+
+    // The injected builders carry Boot's Jackson codecs, so every client decodes response bodies
+    // straight from the network buffers into the target types with the one shared ObjectMapper
     @Bean
-    public WebClient ltaWebClient(@Value("${api.lta.baseurl}") String baseUrl) {
-        return WebClient.builder().baseUrl(baseUrl).build();
+    public WebClient ltaWebClient(WebClient.Builder builder, @Value("${api.lta.baseurl}") String baseUrl) {
+        return builder.baseUrl(baseUrl).clientConnector(timeoutConnector()).build();
     }
 
     @Bean
-    public WebClient nusWebClient(@Value("${api.nus.baseurl}") String baseUrl) {
-        return WebClient.builder().baseUrl(baseUrl).build();
+    public WebClient nusWebClient(WebClient.Builder builder, ObjectMapper objectMapper,
+                                  @Value("${api.nus.baseurl}") String baseUrl) {
+        // NUS NextBus does not reliably label its JSON as application/json
+        Jackson2JsonDecoder decoder = new Jackson2JsonDecoder(objectMapper,
+                MediaType.APPLICATION_JSON, new MediaType("application", "*+json"), MediaType.TEXT_PLAIN);
+        return builder.baseUrl(baseUrl)
+                .clientConnector(timeoutConnector())
+                .codecs(codecs -> codecs.defaultCodecs().jackson2JsonDecoder(decoder))
+                .build();
     }
 
     @Bean
-    public WebClient oneMapWebClient(@Value("${onemap.base-url:https://www.onemap.gov.sg}") String baseUrl) {
-        return WebClient.builder().baseUrl(baseUrl).build();
+    public WebClient oneMapWebClient(WebClient.Builder builder,
+                                     @Value("${onemap.base-url:https://www.onemap.gov.sg}") String baseUrl) {
+        return builder.baseUrl(baseUrl).build();
+    }
+
+    private static ReactorClientHttpConnector timeoutConnector() {
+        return new ReactorClientHttpConnector(HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, CONNECT_TIMEOUT_MILLIS)
+                .responseTimeout(RESPONSE_TIMEOUT));
     }
-}
\ No newline at end of file
+}
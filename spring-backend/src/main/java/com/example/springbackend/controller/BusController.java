@@ -1,15 +1,24 @@
 package com.example.springbackend.controller;
 
 
+import com.example.springbackend.dto.request.BatchArrivalsRequest;
+import com.example.springbackend.dto.response.ArrivalStreamEvent;
+import com.example.springbackend.dto.response.BatchArrivalsResponse;
 import com.example.springbackend.model.BusArrival;
 import com.example.springbackend.model.BusStop;
+import com.example.springbackend.model.NearbyBusStop;
 import com.example.springbackend.model.RouteMongo;
 import com.example.springbackend.model.SavedLocationMongo;
+import com.example.springbackend.model.StopArrivals;
 import com.example.springbackend.repository.RouteMongoRepository;
 import com.example.springbackend.repository.SavedLocationMongoRepository;
+import com.example.springbackend.service.implementation.BusArrivalStreams;
+import com.example.springbackend.service.implementation.BusRouteIndexManager;
 import com.example.springbackend.service.implementation.BusService;
 import com.example.springbackend.service.implementation.NusService;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -17,6 +26,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
@@ -26,45 +38,81 @@ import reactor.core.publisher.Mono;
 @RequestMapping("/api/bus") // All endpoints in this controller will start with /api/bus
 public class BusController {
 
+    private static final Duration STREAM_HEARTBEAT_INTERVAL = Duration.ofSeconds(30);
+
     private final BusService busService;
+    private final BusArrivalStreams arrivalStreams;
+    private final BusRouteIndexManager routeIndexManager;
     private final NusService nusService;
     private final SavedLocationMongoRepository savedLocationRepository;
     private final RouteMongoRepository routeRepository;
 
     // Spring injects the single BusService bean here
-    public BusController(BusService busService, NusService nusService, 
+    public BusController(BusService busService, BusArrivalStreams arrivalStreams,
+            BusRouteIndexManager routeIndexManager, NusService nusService,
             SavedLocationMongoRepository savedLocationRepository,
             RouteMongoRepository routeRepository) {
 			this.busService = busService;
+			this.arrivalStreams = arrivalStreams;
+			this.routeIndexManager = routeIndexManager;
 			this.nusService = nusService;
 			this.savedLocationRepository = savedLocationRepository;
 			this.routeRepository = routeRepository;
 }
 
+    /**
+     * Gets arrivals at the stop best matching a query, optionally for one service.
+     * The Age header gives how many seconds old the arrival data is.
+     */
     @GetMapping("/arrivals")
-    public Flux<BusArrival> getArrivalsForStopAndService(
+    public Mono<ResponseEntity<List<BusArrival>>> getArrivalsForStopAndService(
             @RequestParam String busStopQuery,
             @RequestParam(required = false) String serviceNo) {
 
-        return busService.searchBusStops(busStopQuery)
-                .next()
-                .flatMapMany(busService::getArrivalsForStop)
-                .filter(arrival -> serviceNo == null || serviceNo.isBlank() ||
-                        arrival.serviceName().equalsIgnoreCase(serviceNo));
+        return busService.resolveStop(busStopQuery)
+                .flatMap(stop -> busService.getStopArrivals(stop, serviceNo))
+                .map(data -> withAge(data, data.arrivals()))
+                .defaultIfEmpty(ResponseEntity.ok(List.of()));
     }
 
 
     /**
      * Searches for bus stops across all available providers (LTA and NUS).
      *
-     * Example URL: GET /api/bus/stops/search?query=UTown
+     * Example URL: GET /api/bus/stops/search?query=UTown&limit=10
      *
-     * @param query The search text from the user.
-     * @return A Flux stream of matching BusStop objects.
+     * @param query The search text from the user. A blank query pages through the catalog.
+     * @param limit Maximum number of results to return.
+     * @param page Page number for blank queries.
+     * @return A Flux stream of matching BusStop objects, best match first.
      */
     @GetMapping("/stops/search")
-    public Flux<BusStop> searchBusStops(@RequestParam String query) {
-        return busService.searchBusStops(query);
+    public Flux<BusStop> searchBusStops(@RequestParam String query,
+                                        @RequestParam(defaultValue = "20") int limit,
+                                        @RequestParam(defaultValue = "0") int page) {
+        return busService.searchBusStops(query, limit, page);
+    }
+
+    /**
+     * Finds bus stops near a location, nearest first.
+     *
+     * Example URL: GET /api/bus/stops/nearby?lat=1.2966&lon=103.7764&radius=300&limit=10
+     *
+     * @param lat Latitude of the user's location.
+     * @param lon Longitude of the user's location.
+     * @param radius Search radius in metres.
+     * @param limit Maximum number of stops to return.
+     * @return Stops with their distance in metres, or 400 for invalid coordinates or radius.
+     */
+    @GetMapping("/stops/nearby")
+    public Mono<ResponseEntity<List<NearbyBusStop>>> getNearbyBusStops(@RequestParam double lat,
+                                                                       @RequestParam double lon,
+                                                                       @RequestParam(defaultValue = "300") double radius,
+                                                                       @RequestParam(defaultValue = "20") int limit) {
+        return busService.findStopsNearby(lat, lon, radius, limit)
+                .collectList()
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
     }
 
     /**
@@ -76,24 +124,74 @@ public class BusController {
      * Example Body: { "code": "UTOWN", "name": "University Town", ..., "sourceApi": "NUS" }
      *
      * @param busStop The BusStop object selected by the user.
-     * @return A Flux stream of BusArrival objects for that stop.
+     * @return The BusArrival objects for that stop, with an Age header giving the data's age in seconds.
      */
     @PostMapping("/arrivals")
-    public Flux<BusArrival> getBusArrivalsForStop(@RequestBody BusStop busStop) {
-        return busService.getArrivalsForStop(busStop);
+    public Mono<ResponseEntity<List<BusArrival>>> getBusArrivalsForStop(@RequestBody BusStop busStop) {
+        return busService.getStopArrivals(busStop)
+                .map(data -> withAge(data, data.arrivals()));
     }
     
     
     
+    /**
+     * Gets arrivals for several stops in one request, e.g. a user's favourites.
+     *
+     * Example URL: POST /api/bus/arrivals/batch
+     * Example Body: { "stops": [ { "sourceApi": "LTA", "code": "01012", "serviceNo": "12" },
+     *                            { "sourceApi": "NUS", "code": "UTOWN" } ] }
+     *
+     * @param request Up to {@link BusService#MAX_BATCH_STOPS} stops, each with an optional service filter.
+     * @return One result per stop in request order, each with its own status and data age.
+     */
+    @PostMapping("/arrivals/batch")
+    public Mono<ResponseEntity<BatchArrivalsResponse>> getBusArrivalsBatch(@RequestBody BatchArrivalsRequest request) {
+        if (request.stops() == null || request.stops().isEmpty()
+                || request.stops().size() > BusService.MAX_BATCH_STOPS) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return busService.getArrivalsBatch(request.stops())
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Streams live arrivals for a stop as Server-Sent Events: a "snapshot" event, then "delta"
+     * events carrying only the services whose ETAs changed. All subscribers to a stop share one upstream poller.
+     *
+     * Example URL: GET /api/bus/arrivals/stream?stop=01012&serviceNo=12
+     *
+     * @param stop Stop code or name, resolved like GET /api/bus/arrivals.
+     * @param serviceNo Optional service to restrict the stream to.
+     */
+    @GetMapping(value = "/arrivals/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ArrivalStreamEvent>> streamArrivals(
+            @RequestParam String stop,
+            @RequestParam(required = false) String serviceNo) {
+
+        // Comment-only keepalives stop proxies from closing quiet streams; an unknown stop ends the stream at once
+        return busService.resolveStop(stop)
+                .flatMapMany(busStop -> Flux.merge(
+                        arrivalStreams.stream(busStop, serviceNo)
+                                .map(event -> ServerSentEvent.builder(event).event(event.type()).build()),
+                        Flux.interval(STREAM_HEARTBEAT_INTERVAL)
+                                .map(tick -> ServerSentEvent.<ArrivalStreamEvent>builder().comment("keepalive").build())));
+    }
+
+    /**
+     * Lists the services calling at a stop. LTA stops are answered from the static route index, so
+     * services with no bus currently running are included; live arrivals are only used until the
+     * index has loaded.
+     */
     @GetMapping("/legacy/busServices")
     public Flux<Object> getBusServices(@RequestParam String busStopCode) {
-        return busService.searchBusStops(busStopCode)
-            .next()
+        return busService.resolveStop(busStopCode)
             .flatMapMany(busStop -> {
                 if ("LTA".equals(busStop.sourceApi())) {
-                   
-                    return busService.getArrivalsForStop(busStop)
-                        .map(arrival -> Map.of("serviceNo", arrival.serviceName()));
+                    List<String> scheduled = routeIndexManager.current().servicesAt(busStop.code());
+                    Flux<String> serviceNos = scheduled.isEmpty()
+                        ? busService.getArrivalsForStop(busStop).map(BusArrival::serviceName)
+                        : Flux.fromIterable(scheduled);
+                    return serviceNos.map(serviceNo -> Map.of("serviceNo", serviceNo));
                 } else if ("NUS".equals(busStop.sourceApi())) {
                     
                     return nusService.getServiceNamesForStop(busStop.code())
@@ -107,41 +205,39 @@ public class BusController {
 
 
     @GetMapping("/legacy/sgbus")
-    public Mono<Map<String, Object>> getSgBusArrival(
+    public Mono<ResponseEntity<Map<String, Object>>> getSgBusArrival(
             @RequestParam String busStopCode, 
             @RequestParam String busNumber) {
         
-        return busService.searchBusStops(busStopCode)
-            .filter(stop -> stop.code().equals(busStopCode) && "LTA".equals(stop.sourceApi()))
-            .next()
-            .flatMapMany(busService::getArrivalsForStop)
-            .filter(arrival -> arrival.serviceName().equals(busNumber))
-            .next()
+        return busService.findStop("LTA", busStopCode)
+            .flatMap(stop -> busService.getStopArrivals(stop, busNumber))
+            .flatMap(data -> Mono.justOrEmpty(data.arrivals().stream()
+                .filter(arrival -> arrival.serviceName().equals(busNumber))
+                .findFirst())
             .map(arrival -> {
                 List<String> estimatedArrivals = arrival.arrivals().stream()
                     .map(time -> time.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
                     .collect(Collectors.toList());
                 
-                return Map.of(
+                return withAge(data, Map.<String, Object>of(
                     "serviceNo", arrival.serviceName(),
                     "estimatedArrivals", estimatedArrivals
-                );
-            });
+                ));
+            }));
             
     }
 
 
     @GetMapping("/legacy/nusbus")
-    public Mono<Map<String, Object>> getNusBusArrival(
+    public Mono<ResponseEntity<Map<String, Object>>> getNusBusArrival(
             @RequestParam String busStopName, 
             @RequestParam String serviceName) {
         
-        return busService.searchBusStops(busStopName)
-            .filter(stop -> stop.code().equals(busStopName) && "NUS".equals(stop.sourceApi()))
-            .next()
-            .flatMapMany(busService::getArrivalsForStop)
-            .filter(arrival -> arrival.serviceName().equals(serviceName))
-            .next()
+        return busService.findStop("NUS", busStopName)
+            .flatMap(stop -> busService.getStopArrivals(stop, serviceName))
+            .flatMap(data -> Mono.justOrEmpty(data.arrivals().stream()
+                .filter(arrival -> arrival.serviceName().equals(serviceName))
+                .findFirst())
             .map(arrival -> {
                 List<ZonedDateTime> arrivals = arrival.arrivals();
                 String arrivalTime = arrivals.isEmpty() ? "" : 
@@ -149,12 +245,12 @@ public class BusController {
                 String nextArrivalTime = arrivals.size() < 2 ? "" : 
                     arrivals.get(1).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
                 
-                return Map.of(
+                return withAge(data, Map.<String, Object>of(
                     "serviceName", arrival.serviceName(),
                     "arrivalTime", arrivalTime,
                     "nextArrivalTime", nextArrivalTime
-                );
-            });
+                ));
+            }));
             
     }
     
@@ -246,4 +342,19 @@ public class BusController {
             .map(ResponseEntity::ok)
             .defaultIfEmpty(ResponseEntity.notFound().build());
     }
-}
\ No newline at end of file
+
+    // Standard HTTP Age header: seconds since the arrival data was fetched upstream.
+    // Data served while a refresh runs is marked with X-Arrivals-Stale (the Warning header is obsolete),
+    // and estimates from historical headways are marked with X-Arrivals-Predicted.
+    private static <T> ResponseEntity<T> withAge(StopArrivals data, T body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.AGE, String.valueOf(data.ageSeconds(Instant.now())));
+        if (data.stale()) {
+            response.header("X-Arrivals-Stale", "true");
+        }
+        if (data.predicted()) {
+            response.header("X-Arrivals-Predicted", "true");
+        }
+        return response.body(body);
+    }
+}
@@ -2,11 +2,24 @@ package com.example.springbackend.controller;
 
 import com.example.springbackend.dto.llm.DirectionsResponseDTO;
 import com.example.springbackend.dto.llm.RoutingIntentDTO;
+import com.example.springbackend.dto.request.RouteMatrixRequest;
+import com.example.springbackend.dto.response.IsochroneResponse;
+import com.example.springbackend.dto.response.RouteMatrixRow;
+import com.example.springbackend.dto.response.RouteShapeResponse;
 import com.example.springbackend.model.Coordinates;
+import com.example.springbackend.service.IsochroneService;
+import com.example.springbackend.service.RouteArrivalsEnricher;
+import com.example.springbackend.service.RouteMatrixService;
+import com.example.springbackend.service.RouteShapeService;
 import com.example.springbackend.service.RoutingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -14,20 +27,49 @@ import reactor.core.publisher.Mono;
 public class RoutingController {
 
     private final RoutingService routingService;
+    private final IsochroneService isochroneService;
+    private final RouteMatrixService routeMatrixService;
+    private final RouteArrivalsEnricher arrivalsEnricher;
+    private final RouteShapeService routeShapeService;
 
     @Autowired
-    public RoutingController(RoutingService routingService) {
+    public RoutingController(RoutingService routingService, IsochroneService isochroneService,
+                             RouteMatrixService routeMatrixService, RouteArrivalsEnricher arrivalsEnricher,
+                             RouteShapeService routeShapeService) {
         this.routingService = routingService;
+        this.isochroneService = isochroneService;
+        this.routeMatrixService = routeMatrixService;
+        this.arrivalsEnricher = arrivalsEnricher;
+        this.routeShapeService = routeShapeService;
     }
 
+    /**
+     * Bus routes between two points.
+     *
+     * Example URL: POST /api/routing?arrivals=true
+     *
+     * @param arrivals Whether to attach live arrivals at the boarding stop to each bus leg. Legs whose stop
+     *                 does not answer within routing.enrichment.deadline are returned without them.
+     * @param geometry "points" for route points as a coordinate list, or "polyline" for the much smaller
+     *                 encoded polyline in {@code encodedRoutePoints}.
+     * @return 400 for an unknown geometry.
+     */
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<DirectionsResponseDTO> getDirections(@RequestBody RoutingIntentDTO intent) {
+    public Mono<ResponseEntity<DirectionsResponseDTO>> getDirections(@RequestBody RoutingIntentDTO intent,
+                                                                     @RequestParam(defaultValue = "false") boolean arrivals,
+                                                                     @RequestParam(defaultValue = "points") String geometry) {
+        boolean polyline = "polyline".equalsIgnoreCase(geometry);
+        if (!polyline && !"points".equalsIgnoreCase(geometry)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
         return routingService.getBusRoutes(
                         intent.startCoordinates(),
                         intent.endCoordinates(),
                         intent.arrivalTime(),
                         intent.startTime()
                 )
+                .flatMap(routes -> arrivals ? arrivalsEnricher.withArrivals(routes) : Mono.just(routes))
+                .map(routes -> polyline ? routes.stream().map(DirectionsResponseDTO.RouteDTO::withEncodedRoutePoints).toList() : routes)
                 .map(routes -> new DirectionsResponseDTO(
                         intent.startLocation() != null && !intent.startLocation().isBlank()
                                 ? intent.startLocation()
@@ -38,7 +80,77 @@ public class RoutingController {
                         Coordinates.fromString(intent.startCoordinates()),
                         Coordinates.fromString(intent.endCoordinates()),
                         routes
-                ));
+                ))
+                .map(ResponseEntity::ok);
     }
 
+    /**
+     * Bus stops reachable from a point within a time budget, by walking and bus.
+     *
+     * Example URL: GET /api/routing/isochrone?lat=1.2966&lon=103.7764&minutes=20&polygon=true
+     *
+     * @param minutes Time budget, 1 to {@link IsochroneService#MAX_MINUTES}.
+     * @param polygon Whether to include the outline of the reachable area.
+     * @return 400 for invalid input, 503 while the bus network is still loading.
+     */
+    @GetMapping(value = "/isochrone", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<IsochroneResponse>> getIsochrone(@RequestParam double lat,
+                                                                @RequestParam double lon,
+                                                                @RequestParam int minutes,
+                                                                @RequestParam(defaultValue = "false") boolean polygon) {
+        return isochroneService.isochrone(lat, lon, minutes, polygon)
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(IllegalStateException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()));
+    }
+
+    /**
+     * Fastest route duration and summary between every origin and every destination.
+     *
+     * Rows are streamed as newline-delimited JSON as each pair completes, in no particular order;
+     * {@code origin} and {@code destination} index into the request lists.
+     *
+     * @return 400 if either list is empty or there are more than {@link RouteMatrixService#MAX_PAIRS} pairs.
+     */
+    @PostMapping(value = "/matrix", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Flux<RouteMatrixRow>>> getRouteMatrix(@RequestBody RouteMatrixRequest request) {
+        return Mono.fromCallable(() -> routeMatrixService.getRouteMatrix(
+                        request.origins(), request.destinations(), request.startTime()))
+                .map(rows -> ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(rows))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    /**
+     * A bus service or trip leg shape simplified for a map zoom level, as an encoded polyline.
+     *
+     * Example URL: GET /api/routing/shapes/bus-95-1?zoom=12
+     *
+     * @param id "bus-{serviceNo}-{direction}" or "trip-{tripId}-{legIndex}".
+     * @param zoom Map zoom level, 0 to {@link RouteShapeService#MAX_ZOOM}.
+     * @return The shape with an ETag and a long cache lifetime, 304 when the client's copy is current,
+     *         400 for a malformed id or zoom, 404 for an unknown shape, 503 while the bus network is loading.
+     */
+    @GetMapping(value = "/shapes/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<RouteShapeResponse>> getShape(@PathVariable String id,
+                                                             @RequestParam(defaultValue = "16") int zoom,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Bus shapes are the same for everyone; trip legs belong to one user
+        CacheControl cacheControl = id.startsWith("bus-")
+                ? CacheControl.maxAge(routeShapeService.maxAge()).cachePublic()
+                : CacheControl.maxAge(routeShapeService.maxAge()).cachePrivate();
+        return routeShapeService.shape(id, zoom)
+                .map(shape -> {
+                    String etag = "\"" + shape.etag() + "\"";
+                    boolean notModified = ifNoneMatch != null && ifNoneMatch.contains(etag);
+                    return ResponseEntity.status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                            .eTag(etag)
+                            .cacheControl(cacheControl)
+                            .body(notModified ? null : shape);
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(IllegalStateException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()));
+    }
 }
@@ -22,4 +22,36 @@ public final class LtaDtos {
                           @JsonProperty("NextBus2") NextBus nextBus2,
                           @JsonProperty("NextBus3") NextBus nextBus3) {} // NextBus3 might be null
     public record LtaArrivalsResponse(@JsonProperty("Services") List<Service> services) {}
+
+    // For https://datamall2.mytransport.sg/ltaodataservice/BusRoutes (one record per service, direction and stop)
+    // Distance is in km from the start of the route, null when LTA leaves it out
+    public record BusRoute(@JsonProperty("ServiceNo") String serviceNo,
+                           @JsonProperty("Direction") int direction,
+                           @JsonProperty("StopSequence") int stopSequence,
+                           @JsonProperty("BusStopCode") String busStopCode,
+                           @JsonProperty("Distance") Double distance) {
+        public BusRoute(String serviceNo, int direction, int stopSequence, String busStopCode) {
+            this(serviceNo, direction, stopSequence, busStopCode, null);
+        }
+    }
+    public record LtaBusRoutesResponse(@JsonProperty("value") List<BusRoute> value) {}
+
+    // For https://datamall2.mytransport.sg/ltaodataservice/BusServices (one record per service and direction)
+    // Frequencies are minutes between buses, e.g. "08-12", or "-" when the service does not run in that period
+    public record BusService(@JsonProperty("ServiceNo") String serviceNo,
+                             @JsonProperty("Operator") String operator,
+                             @JsonProperty("Direction") int direction,
+                             @JsonProperty("Category") String category,
+                             @JsonProperty("OriginCode") String originCode,
+                             @JsonProperty("DestinationCode") String destinationCode,
+                             @JsonProperty("AM_Peak_Freq") String amPeakFreq,
+                             @JsonProperty("AM_Offpeak_Freq") String amOffpeakFreq,
+                             @JsonProperty("PM_Peak_Freq") String pmPeakFreq,
+                             @JsonProperty("PM_Offpeak_Freq") String pmOffpeakFreq) {
+        public BusService(String serviceNo, String operator, int direction, String category,
+                          String originCode, String destinationCode) {
+            this(serviceNo, operator, direction, category, originCode, destinationCode, null, null, null, null);
+        }
+    }
+    public record LtaBusServicesResponse(@JsonProperty("value") List<BusService> value) {}
 }
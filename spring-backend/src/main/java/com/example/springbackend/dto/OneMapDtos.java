@@ -0,0 +1,33 @@
+package com.example.springbackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class OneMapDtos {
+
+    // For https://www.onemap.gov.sg/api/common/elastic/search
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record SearchResult(@JsonProperty("LATITUDE") String latitude,
+                               @JsonProperty("LONGITUDE") String longitude,
+                               @JsonProperty("SEARCHVAL") String searchVal,
+                               @JsonProperty("POSTAL") String postal,
+                               @JsonProperty("BLK_NO") String blockNo,
+                               @JsonProperty("ROAD_NAME") String roadName,
+                               @JsonProperty("BUILDING") String building) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record SearchResponse(@JsonProperty("results") List<SearchResult> results) {}
+
+    // For https://www.onemap.gov.sg/api/public/revgeocodexy
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record GeocodeInfo(@JsonProperty("BUILDINGNAME") String buildingName,
+                              @JsonProperty("BLOCK") String block,
+                              @JsonProperty("ROAD") String road,
+                              @JsonProperty("POSTALCODE") String postalCode) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record ReverseGeocodeResponse(@JsonProperty("GeocodeInfo") List<GeocodeInfo> geocodeInfo) {}
+}
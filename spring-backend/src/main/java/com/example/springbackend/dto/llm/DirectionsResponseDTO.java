@@ -1,6 +1,9 @@
 package com.example.springbackend.dto.llm;
 
+import com.example.springbackend.model.BusArrival;
 import com.example.springbackend.model.Coordinates;
+import com.example.springbackend.model.Polyline;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.util.List;
 
@@ -17,21 +20,101 @@ public record DirectionsResponseDTO(
         return "directions";
     }
 
+    /**
+     * @param departureTime When to leave (HH:mm) for arrive-by searches; absent otherwise.
+     */
     public record RouteDTO(
             int durationInMinutes,
             List<LegDTO> legs,
-            String summary
-    ) {}
+            String summary,
+            @JsonInclude(JsonInclude.Include.NON_NULL)
+            String departureTime
+    ) {
+        public RouteDTO(int durationInMinutes, List<LegDTO> legs, String summary) {
+            this(durationInMinutes, legs, summary, null);
+        }
+
+        public RouteDTO withDepartureTime(String departureTime) {
+            return new RouteDTO(durationInMinutes, legs, summary, departureTime);
+        }
+
+        /**
+         * Copy of this route with every leg's route points as an encoded polyline.
+         */
+        public RouteDTO withEncodedRoutePoints() {
+            return new RouteDTO(durationInMinutes, legs.stream().map(LegDTO::withEncodedRoutePoints).toList(),
+                    summary, departureTime);
+        }
+    }
+    /**
+     * Route points are sent either as {@code routePoints} or, when a client asks for compact geometry,
+     * as the encoded polyline {@code encodedRoutePoints}; never both.
+     *
+     * @param nextArrivals Live arrivals of {@code busServiceNumber} at the boarding stop, when requested and available.
+     */
     public record LegDTO(
             String type,
             int durationInMinutes,
             String busServiceNumber,
             String instruction,
             String legGeometry,
+            @JsonInclude(JsonInclude.Include.NON_NULL)
             List<Coordinates> routePoints,
             String fromStopName,
             String fromStopCode,
             String toStopName,
-            String toStopCode
-    ) {}
+            String toStopCode,
+            List<String> alternativeServices,
+            @JsonInclude(JsonInclude.Include.NON_NULL)
+            BusArrival nextArrivals,
+            @JsonInclude(JsonInclude.Include.NON_NULL)
+            String encodedRoutePoints
+    ) {
+        public LegDTO(String type, int durationInMinutes, String busServiceNumber, String instruction,
+                      String legGeometry, List<Coordinates> routePoints, String fromStopName,
+                      String fromStopCode, String toStopName, String toStopCode) {
+            this(type, durationInMinutes, busServiceNumber, instruction, legGeometry, routePoints,
+                    fromStopName, fromStopCode, toStopName, toStopCode, List.of(), null, null);
+        }
+
+        /**
+         * Route points in whichever form this leg carries them, or null when it has none.
+         */
+        public List<Coordinates> points() {
+            return routePoints != null || encodedRoutePoints == null ? routePoints : Polyline.decode(encodedRoutePoints);
+        }
+
+        /**
+         * Route points as an encoded polyline, or null when this leg has none.
+         */
+        public String encodedPoints() {
+            return encodedRoutePoints != null || routePoints == null ? encodedRoutePoints : Polyline.encode(routePoints);
+        }
+
+        /**
+         * Copy of this leg with its route points as an encoded polyline instead of a list.
+         */
+        public LegDTO withEncodedRoutePoints() {
+            return new LegDTO(type, durationInMinutes, busServiceNumber, instruction, legGeometry, null,
+                    fromStopName, fromStopCode, toStopName, toStopCode, alternativeServices, nextArrivals, encodedPoints());
+        }
+
+        /**
+         * Copy of this leg listing other services that also run from its boarding stop to its alighting stop.
+         */
+        public LegDTO withAlternativeServices(List<String> services) {
+            return new LegDTO(type, durationInMinutes, busServiceNumber, instruction, legGeometry, routePoints,
+                    fromStopName, fromStopCode, toStopName, toStopCode, List.copyOf(services), nextArrivals,
+                    encodedRoutePoints);
+        }
+
+        /**
+         * Copy of this leg with the live arrivals of its service at the boarding stop.
+         */
+        public LegDTO withNextArrivals(BusArrival arrivals) {
+            return new LegDTO(type, durationInMinutes, busServiceNumber, instruction, legGeometry, routePoints,
+                    fromStopName, fromStopCode, toStopName, toStopCode, alternativeServices, arrivals,
+                    encodedRoutePoints);
+        }
+    }
 }
@@ -0,0 +1,28 @@
+package com.example.springbackend.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * Stops to fetch arrivals for in one call to POST /api/bus/arrivals/batch.
+ *
+ * @param stops Stops in the order results should be returned.
+ */
+public record BatchArrivalsRequest(
+        List<StopRequest> stops
+) {
+    /**
+     * One stop, given as a provider and code pair. A full BusStop object also works; its other fields are ignored.
+     *
+     * @param sourceApi The stop's provider (e.g., "LTA", "NUS").
+     * @param code The stop code.
+     * @param serviceNo Optional service to filter the stop's arrivals to.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record StopRequest(
+            String sourceApi,
+            String code,
+            String serviceNo
+    ) {}
+}
@@ -0,0 +1,21 @@
+package com.example.springbackend.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Origins and destinations to route between in one call to POST /api/routing/matrix.
+ * Every origin is routed to every destination.
+ *
+ * @param origins Points as "lat,lon".
+ * @param destinations Points as "lat,lon".
+ * @param startTime Optional departure time (HH:mm), now when absent.
+ */
+public record RouteMatrixRequest(
+        List<String> origins,
+        List<String> destinations,
+        @JsonFormat(pattern = "HH:mm")
+        LocalTime startTime
+) {}
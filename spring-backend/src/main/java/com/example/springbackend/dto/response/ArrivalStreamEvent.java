@@ -0,0 +1,29 @@
+package com.example.springbackend.dto.response;
+
+import com.example.springbackend.model.BusArrival;
+
+import java.util.List;
+
+/**
+ * One message on the live arrivals stream for a stop.
+ *
+ * @param type "snapshot" for the first message on a subscription, then "delta".
+ * @param sourceApi The stop's provider.
+ * @param code The stop code.
+ * @param arrivals For a snapshot every service at the stop; for a delta only the services whose ETAs changed.
+ * @param removedServices Services no longer reported at the stop (deltas only).
+ * @param ageSeconds Seconds since the arrival data was fetched upstream.
+ * @param stale True when the data was served past its freshness window.
+ */
+public record ArrivalStreamEvent(
+        String type,
+        String sourceApi,
+        String code,
+        List<BusArrival> arrivals,
+        List<String> removedServices,
+        long ageSeconds,
+        boolean stale
+) {
+    public static final String SNAPSHOT = "snapshot";
+    public static final String DELTA = "delta";
+}
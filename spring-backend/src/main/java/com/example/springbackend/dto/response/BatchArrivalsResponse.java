@@ -0,0 +1,34 @@
+package com.example.springbackend.dto.response;
+
+import com.example.springbackend.model.BusArrival;
+
+import java.util.List;
+
+/**
+ * Arrivals for every stop in a batch request, in request order.
+ * Each stop carries its own status, so a slow or failing stop does not hide the others.
+ */
+public record BatchArrivalsResponse(
+        List<StopResult> results
+) {
+    public enum Status { OK, STALE, PREDICTED, TIMEOUT, UNAVAILABLE, INVALID, ERROR }
+
+    /**
+     * @param sourceApi The stop's provider.
+     * @param code The stop code.
+     * @param status Outcome for this stop; arrivals are only present for OK, STALE and PREDICTED.
+     * @param arrivals Arrivals at the stop, filtered to the requested service if one was given.
+     * @param ageSeconds Seconds since the arrival data was fetched upstream, or null without data.
+     */
+    public record StopResult(
+            String sourceApi,
+            String code,
+            Status status,
+            List<BusArrival> arrivals,
+            Long ageSeconds
+    ) {
+        public static StopResult failed(String sourceApi, String code, Status status) {
+            return new StopResult(sourceApi, code, status, List.of(), null);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.springbackend.dto.response;
+
+import com.example.springbackend.model.Coordinates;
+
+import java.util.List;
+
+/**
+ * Bus stops reachable from an origin within a time budget by walking and bus.
+ *
+ * @param origin Centre of the grid cell the requested origin was snapped to; all origins in a cell share one result.
+ * @param minutes The time budget.
+ * @param stops Reachable stops, soonest first.
+ * @param polygon Convex hull of the origin and the reachable stops, closed (first point repeated last);
+ *                empty unless requested.
+ */
+public record IsochroneResponse(
+        Coordinates origin,
+        int minutes,
+        List<ReachableStop> stops,
+        List<Coordinates> polygon
+) {
+    /**
+     * @param minutes Minutes needed to reach the stop, rounded up.
+     */
+    public record ReachableStop(String code, String name, double latitude, double longitude, int minutes) {}
+}
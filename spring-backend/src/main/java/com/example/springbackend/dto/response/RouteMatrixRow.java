@@ -0,0 +1,24 @@
+package com.example.springbackend.dto.response;
+
+/**
+ * One origin/destination pair of a routing matrix. Rows are streamed as they complete, not in request order.
+ *
+ * @param origin Index into the request's origins.
+ * @param destination Index into the request's destinations.
+ * @param status Outcome for this pair; duration and summary are only present for OK.
+ * @param durationInMinutes Duration of the fastest route.
+ * @param summary Summary of the fastest route, e.g. "Bus 95 → 151".
+ */
+public record RouteMatrixRow(
+        int origin,
+        int destination,
+        Status status,
+        Integer durationInMinutes,
+        String summary
+) {
+    public enum Status { OK, NO_ROUTE, INVALID, ERROR }
+
+    public static RouteMatrixRow failed(int origin, int destination, Status status) {
+        return new RouteMatrixRow(origin, destination, status, null, null);
+    }
+}
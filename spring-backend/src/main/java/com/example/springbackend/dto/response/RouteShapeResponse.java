@@ -0,0 +1,21 @@
+package com.example.springbackend.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * A route shape simplified for one map zoom level.
+ *
+ * @param id The shape requested, e.g. "bus-95-1" or "trip-{tripId}-{legIndex}".
+ * @param zoom The zoom level the shape was simplified for; the closest level not coarser than requested.
+ * @param points Number of points in the polyline.
+ * @param polyline The shape as an encoded polyline (precision 5).
+ * @param etag Hash of the polyline, sent as the ETag header.
+ */
+public record RouteShapeResponse(
+        String id,
+        int zoom,
+        int points,
+        String polyline,
+        @JsonIgnore
+        String etag
+) {}
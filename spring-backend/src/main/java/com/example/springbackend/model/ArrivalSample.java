@@ -0,0 +1,40 @@
+package com.example.springbackend.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+
+import java.time.Instant;
+
+/**
+ * One service's arrivals at a stop as observed at a point in time, kept in a Mongo time-series
+ * collection to learn typical headways. Samples expire after 28 days.
+ */
+@Document(collection = "arrival_samples")
+@TimeSeries(timeField = "observedAt", metaField = "stopKey", granularity = Granularity.MINUTES, expireAfter = "28d")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArrivalSample {
+    @Id
+    private String id;
+
+    private Instant observedAt;
+
+    // Provider and stop code, e.g. "LTA:01012"
+    private String stopKey;
+    private String serviceName;
+    private String operator;
+
+    // Quarter-hour of the day in Singapore time, 0 to 95
+    private int slot;
+
+    // Seconds from observedAt to the first bus
+    private Integer firstEtaSeconds;
+
+    // Seconds between the first and second bus; null when fewer than two were reported
+    private Integer headwaySeconds;
+}
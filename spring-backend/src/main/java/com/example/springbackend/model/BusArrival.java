@@ -1,20 +1,168 @@
 package com.example.springbackend.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A unified representation of bus arrival timings for a specific service at a stop.
  *
- * @param serviceName The bus service number (e.g., "12", "D1").
- * @param operator The bus operator (e.g., "GAS", "NUS").
- * @param arrivals A sorted list of estimated arrival times.
+ * Arrival times are held as epoch seconds and the service and operator names are interned, so the
+ * arrivals cached for thousands of stops stay small. {@link #arrivals()} builds {@link ZonedDateTime}s
+ * on demand; JSON is written straight from the epoch seconds in the same shape as before:
+ * {@code {"serviceName": "12", "operator": "SBST", "arrivals": ["2025-01-01T08:05:00+08:00"]}}.
+ * Estimates from historical headways add {@code "predicted": true}.
  */
 @JsonIgnoreProperties(ignoreUnknown = true)
-public record BusArrival(
-        String serviceName,
-        String operator,
-        List<ZonedDateTime> arrivals
-) {}
\ No newline at end of file
+@JsonSerialize(using = BusArrival.Serializer.class)
+public final class BusArrival {
+
+    private static final ZoneId SINGAPORE = ZoneId.of("Asia/Singapore");
+    private static final int SINGAPORE_OFFSET_SECONDS = 8 * 3600;
+
+    // Only a few hundred service numbers and a handful of operators exist
+    private static final Map<String, String> NAMES = new ConcurrentHashMap<>();
+
+    private final String serviceName;
+    private final String operator;
+    private final long[] etaEpochSeconds;
+    private final boolean predicted;
+
+    private BusArrival(String serviceName, String operator, long[] etaEpochSeconds, boolean predicted) {
+        this.serviceName = intern(serviceName);
+        this.operator = intern(operator);
+        this.etaEpochSeconds = etaEpochSeconds;
+        this.predicted = predicted;
+    }
+
+    /**
+     * @param serviceName The bus service number (e.g., "12", "D1").
+     * @param operator The bus operator (e.g., "GAS", "NUS").
+     * @param arrivals A sorted list of estimated arrival times; sub-second precision is dropped.
+     */
+    public BusArrival(String serviceName, String operator, List<ZonedDateTime> arrivals) {
+        this(serviceName, operator, arrivals, false);
+    }
+
+    @JsonCreator
+    public BusArrival(@JsonProperty("serviceName") String serviceName,
+                      @JsonProperty("operator") String operator,
+                      @JsonProperty("arrivals") List<ZonedDateTime> arrivals,
+                      @JsonProperty("predicted") boolean predicted) {
+        this(serviceName, operator, arrivals == null ? new long[0]
+                : arrivals.stream().mapToLong(ZonedDateTime::toEpochSecond).toArray(), predicted);
+    }
+
+    /**
+     * Creates an arrival from epoch-second ETAs. The array is owned by the new instance and must not be modified.
+     */
+    public static BusArrival ofEpochSeconds(String serviceName, String operator, long... etaEpochSeconds) {
+        return new BusArrival(serviceName, operator, etaEpochSeconds, false);
+    }
+
+    /**
+     * Creates an estimated arrival that did not come from a live upstream call.
+     */
+    public static BusArrival predicted(String serviceName, String operator, long... etaEpochSeconds) {
+        return new BusArrival(serviceName, operator, etaEpochSeconds, true);
+    }
+
+    public String serviceName() {
+        return serviceName;
+    }
+
+    public String operator() {
+        return operator;
+    }
+
+    /**
+     * Estimated arrival times in Singapore time, built on each call.
+     */
+    public List<ZonedDateTime> arrivals() {
+        return Arrays.stream(etaEpochSeconds)
+                .mapToObj(eta -> ZonedDateTime.ofInstant(Instant.ofEpochSecond(eta), SINGAPORE))
+                .toList();
+    }
+
+    public int etaCount() {
+        return etaEpochSeconds.length;
+    }
+
+    public long etaEpochSecond(int index) {
+        return etaEpochSeconds[index];
+    }
+
+    public boolean predicted() {
+        return predicted;
+    }
+
+    private static String intern(String name) {
+        if (name == null) {
+            return null;
+        }
+        String existing = NAMES.putIfAbsent(name, name);
+        return existing != null ? existing : name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof BusArrival other
+                && Objects.equals(serviceName, other.serviceName)
+                && Objects.equals(operator, other.operator)
+                && Arrays.equals(etaEpochSeconds, other.etaEpochSeconds)
+                && predicted == other.predicted);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(serviceName, operator, Arrays.hashCode(etaEpochSeconds), predicted);
+    }
+
+    @Override
+    public String toString() {
+        return "BusArrival[serviceName=" + serviceName + ", operator=" + operator + ", arrivals=" + arrivals()
+                + (predicted ? ", predicted" : "") + "]";
+    }
+
+    /**
+     * Writes arrival times as ISO-8601 strings at +08:00 without creating date-time objects.
+     */
+    static final class Serializer extends StdSerializer<BusArrival> {
+
+        Serializer() {
+            super(BusArrival.class);
+        }
+
+        @Override
+        public void serialize(BusArrival value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("serviceName", value.serviceName);
+            gen.writeStringField("operator", value.operator);
+            gen.writeArrayFieldStart("arrivals");
+            char[] buffer = new char[IsoTimestamps.FORMATTED_LENGTH];
+            for (long eta : value.etaEpochSeconds) {
+                IsoTimestamps.format(eta, SINGAPORE_OFFSET_SECONDS, buffer, 0);
+                gen.writeString(buffer, 0, buffer.length);
+            }
+            gen.writeEndArray();
+            if (value.predicted) {
+                gen.writeBooleanField("predicted", true);
+            }
+            gen.writeEndObject();
+        }
+    }
+}
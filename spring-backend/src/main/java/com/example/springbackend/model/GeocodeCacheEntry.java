@@ -0,0 +1,29 @@
+package com.example.springbackend.model;
+
+import com.example.springbackend.controller.GeocodeController;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * OneMap search results for a normalized query, shared by all replicas. Documents are removed by a
+ * TTL index on {@code expiresAt}; empty results get a shorter expiry than found ones.
+ */
+@Document(collection = "geocode_cache")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeocodeCacheEntry {
+    // Normalized query, e.g. "st josephs institution"
+    @Id
+    private String query;
+
+    private List<GeocodeController.GeocodeCandidate> candidates;
+
+    private Instant cachedAt;
+    private Instant expiresAt;
+}
@@ -0,0 +1,170 @@
+package com.example.springbackend.model;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Allocation-free conversion between ISO-8601 offset timestamps and epoch seconds.
+ *
+ * Handles the shapes upstream providers send ({@code 2025-01-01T08:05:00+08:00}, optionally with
+ * fractional seconds, {@code Z}, or a trailing {@code [Region/Zone]}) without building
+ * {@link ZonedDateTime}s. Anything else falls back to {@link ZonedDateTime#parse}.
+ * Fractional seconds are truncated.
+ */
+public final class IsoTimestamps {
+
+    /**
+     * Length of a timestamp written by {@link #format}, e.g. {@code 2025-01-01T08:05:00+08:00}.
+     */
+    public static final int FORMATTED_LENGTH = 25;
+
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private IsoTimestamps() {
+    }
+
+    /**
+     * Parses an ISO-8601 timestamp with an offset into epoch seconds.
+     *
+     * @throws java.time.format.DateTimeParseException if the text is not a valid timestamp
+     */
+    public static long parseEpochSecond(String text) {
+        long parsed = tryParse(text);
+        return parsed != Long.MIN_VALUE ? parsed : ZonedDateTime.parse(text).toEpochSecond();
+    }
+
+    /**
+     * Writes {@code epochSecond} as {@code yyyy-MM-ddTHH:mm:ss±HH:MM} at the given offset into
+     * {@code buffer}, which needs {@link #FORMATTED_LENGTH} chars from {@code start}. Years 0 to 9999 only.
+     */
+    public static void format(long epochSecond, int offsetSeconds, char[] buffer, int start) {
+        long local = epochSecond + offsetSeconds;
+        long epochDay = Math.floorDiv(local, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(local, SECONDS_PER_DAY);
+
+        // Days to civil date (Hinnant), with eras of 400 years starting on March 1st
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        int dayOfEra = (int) (z - era * 146_097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = (int) (yearOfEra + era * 400) + (month <= 2 ? 1 : 0);
+
+        int i = start;
+        i = digits(buffer, i, year / 100);
+        i = digits(buffer, i, year % 100);
+        buffer[i++] = '-';
+        i = digits(buffer, i, month);
+        buffer[i++] = '-';
+        i = digits(buffer, i, day);
+        buffer[i++] = 'T';
+        i = digits(buffer, i, secondOfDay / 3600);
+        buffer[i++] = ':';
+        i = digits(buffer, i, secondOfDay / 60 % 60);
+        buffer[i++] = ':';
+        i = digits(buffer, i, secondOfDay % 60);
+        int absOffset = Math.abs(offsetSeconds);
+        buffer[i++] = offsetSeconds < 0 ? '-' : '+';
+        i = digits(buffer, i, absOffset / 3600);
+        buffer[i++] = ':';
+        digits(buffer, i, absOffset / 60 % 60);
+    }
+
+    public static String format(long epochSecond, int offsetSeconds) {
+        char[] buffer = new char[FORMATTED_LENGTH];
+        format(epochSecond, offsetSeconds, buffer, 0);
+        return new String(buffer);
+    }
+
+    // Long.MIN_VALUE when the text is not in one of the expected shapes
+    private static long tryParse(String text) {
+        if (text == null || text.length() < 20
+                || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            return Long.MIN_VALUE;
+        }
+        int year = number(text, 0, 4);
+        int month = number(text, 5, 2);
+        int day = number(text, 8, 2);
+        int hour = number(text, 11, 2);
+        int minute = number(text, 14, 2);
+        int second = number(text, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return Long.MIN_VALUE;
+        }
+
+        int i = 19;
+        if (text.charAt(i) == '.') {
+            i++;
+            int fractionStart = i;
+            while (i < text.length() && Character.isDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i == fractionStart || i - fractionStart > 9 || i == text.length()) {
+                return Long.MIN_VALUE;
+            }
+        }
+
+        int offsetSeconds;
+        char sign = text.charAt(i);
+        if (sign == 'Z') {
+            offsetSeconds = 0;
+            i++;
+        } else if ((sign == '+' || sign == '-') && i + 6 <= text.length() && text.charAt(i + 3) == ':') {
+            int offsetHours = number(text, i + 1, 2);
+            int offsetMinutes = number(text, i + 4, 2);
+            if (offsetHours < 0 || offsetHours > 18 || offsetMinutes < 0 || offsetMinutes > 59) {
+                return Long.MIN_VALUE;
+            }
+            offsetSeconds = (offsetHours * 3600 + offsetMinutes * 60) * (sign == '-' ? -1 : 1);
+            i += 6;
+        } else {
+            return Long.MIN_VALUE;
+        }
+        // A region suffix such as [Asia/Singapore] must agree with the offset; leave checking it to the JDK
+        if (i != text.length()) {
+            return Long.MIN_VALUE;
+        }
+
+        long epochDay = epochDay(year, month, day);
+        return epochDay * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second - offsetSeconds;
+    }
+
+    // Civil date to days since 1970-01-01 (Hinnant)
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        return month == 2 && leap ? 29 : DAYS_IN_MONTH[month - 1];
+    }
+
+    // -1 when any char is not a digit
+    private static int number(String text, int start, int length) {
+        int value = 0;
+        for (int i = start; i < start + length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int digits(char[] buffer, int i, int twoDigits) {
+        buffer[i] = (char) ('0' + twoDigits / 10);
+        buffer[i + 1] = (char) ('0' + twoDigits % 10);
+        return i + 2;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.springbackend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * A bus stop returned by a location query, with its distance from the query point.
+ * The stop fields are flattened so the object can be posted back to /api/bus/arrivals as a BusStop.
+ *
+ * @param distanceMeters Straight-line distance from the query point, rounded to the metre.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record NearbyBusStop(
+        String code,
+        String name,
+        double latitude,
+        double longitude,
+        String sourceApi,
+        long distanceMeters
+) {
+    public static NearbyBusStop of(BusStop stop, double distanceMeters) {
+        return new NearbyBusStop(stop.code(), stop.name(), stop.latitude(), stop.longitude(),
+                stop.sourceApi(), Math.round(distanceMeters));
+    }
+
+    public BusStop toBusStop() {
+        return new BusStop(code, name, latitude, longitude, sourceApi);
+    }
+}
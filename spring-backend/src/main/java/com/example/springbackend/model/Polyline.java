@@ -0,0 +1,77 @@
+package com.example.springbackend.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encoded polyline format (precision 5, about a metre), the same encoding OneMap uses for leg geometry.
+ *
+ * Route points stored this way take a few bytes per point instead of a boxed {@link Coordinates}
+ * in memory and a two-field sub-document in Mongo.
+ */
+public final class Polyline {
+
+    private static final double SCALE = 1e5;
+
+    private Polyline() {
+    }
+
+    public static String encode(List<Coordinates> points) {
+        StringBuilder encoded = new StringBuilder(points.size() * 8);
+        long previousLat = 0;
+        long previousLon = 0;
+        for (Coordinates point : points) {
+            long lat = Math.round(point.latitude() * SCALE);
+            long lon = Math.round(point.longitude() * SCALE);
+            writeSigned(encoded, lat - previousLat);
+            writeSigned(encoded, lon - previousLon);
+            previousLat = lat;
+            previousLon = lon;
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is not a valid encoded polyline
+     */
+    public static List<Coordinates> decode(String encoded) {
+        List<Coordinates> points = new ArrayList<>(encoded.length() / 6 + 1);
+        int[] position = {0};
+        long lat = 0;
+        long lon = 0;
+        while (position[0] < encoded.length()) {
+            lat += readSigned(encoded, position);
+            lon += readSigned(encoded, position);
+            points.add(new Coordinates(lat / SCALE, lon / SCALE));
+        }
+        return points;
+    }
+
+    // Zig-zag, then 5-bit groups low first, each offset by 63 and flagged 0x20 when more follow
+    private static void writeSigned(StringBuilder out, long value) {
+        long unsigned = value < 0 ? ~(value << 1) : value << 1;
+        while (unsigned >= 0x20) {
+            out.append((char) ((0x20 | (unsigned & 0x1f)) + 63));
+            unsigned >>= 5;
+        }
+        out.append((char) (unsigned + 63));
+    }
+
+    private static long readSigned(String encoded, int[] position) {
+        long result = 0;
+        int shift = 0;
+        int chunk;
+        do {
+            if (position[0] >= encoded.length() || shift > 60) {
+                throw new IllegalArgumentException("Truncated polyline");
+            }
+            chunk = encoded.charAt(position[0]++) - 63;
+            if (chunk < 0 || chunk > 0x3f) {
+                throw new IllegalArgumentException("Invalid polyline character at " + (position[0] - 1));
+            }
+            result |= (long) (chunk & 0x1f) << shift;
+            shift += 5;
+        } while (chunk >= 0x20);
+        return (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+    }
+}
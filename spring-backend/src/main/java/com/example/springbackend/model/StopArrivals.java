@@ -0,0 +1,56 @@
+package com.example.springbackend.model;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * All arrivals at one stop as returned by a single upstream call.
+ *
+ * @param sourceApi The provider the stop belongs to (e.g., "LTA", "NUS").
+ * @param stopCode The stop code.
+ * @param arrivals One entry per service at the stop.
+ * @param fetchedAt When the data was received from upstream.
+ * @param stale True when served past its freshness window while a refresh runs.
+ * @param predicted True when estimated from historical headways because the live call was too slow or failed.
+ */
+public record StopArrivals(
+        String sourceApi,
+        String stopCode,
+        List<BusArrival> arrivals,
+        Instant fetchedAt,
+        boolean stale,
+        boolean predicted
+) {
+    public StopArrivals {
+        arrivals = List.copyOf(arrivals);
+    }
+
+    public StopArrivals(String sourceApi, String stopCode, List<BusArrival> arrivals, Instant fetchedAt) {
+        this(sourceApi, stopCode, arrivals, fetchedAt, false, false);
+    }
+
+    public static StopArrivals predicted(String sourceApi, String stopCode, List<BusArrival> arrivals, Instant now) {
+        return new StopArrivals(sourceApi, stopCode, arrivals, now, false, true);
+    }
+
+    public StopArrivals asStale() {
+        return stale ? this : new StopArrivals(sourceApi, stopCode, arrivals, fetchedAt, true, predicted);
+    }
+
+    /**
+     * The same data narrowed to one service, matched case-insensitively.
+     */
+    public StopArrivals forService(String serviceNo) {
+        return new StopArrivals(sourceApi, stopCode, arrivals.stream()
+                .filter(arrival -> serviceNo.equalsIgnoreCase(arrival.serviceName()))
+                .toList(), fetchedAt, stale, predicted);
+    }
+
+    /**
+     * Whole seconds since the data was fetched, never negative.
+     */
+    public long ageSeconds(Instant now) {
+        return Math.max(0, Duration.between(fetchedAt, now).toSeconds());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.springbackend.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
@@ -68,10 +69,28 @@ public class Trip {
         private String busServiceNumber;
         private String instruction;
         private String legGeometry;
+        // Stored as an encoded polyline; read and written as a list through getRoutePoints/setRoutePoints
+        @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+        private String encodedRoutePoints;
+        // Only set on documents saved before route points were encoded
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
         private List<Coordinates> routePoints;
         private String fromStopName;
         private String fromStopCode;
         private String toStopName;
         private String toStopCode;
+
+        /**
+         * Route points, decoded on each call.
+         */
+        public List<Coordinates> getRoutePoints() {
+            return routePoints != null || encodedRoutePoints == null ? routePoints : Polyline.decode(encodedRoutePoints);
+        }
+
+        public void setRoutePoints(List<Coordinates> points) {
+            this.routePoints = null;
+            this.encodedRoutePoints = points == null ? null : Polyline.encode(points);
+        }
     }
 }
\ No newline at end of file
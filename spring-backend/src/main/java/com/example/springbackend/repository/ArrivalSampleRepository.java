@@ -0,0 +1,10 @@
+package com.example.springbackend.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.springbackend.model.ArrivalSample;
+
+@Repository
+public interface ArrivalSampleRepository extends ReactiveMongoRepository<ArrivalSample, String> {
+}
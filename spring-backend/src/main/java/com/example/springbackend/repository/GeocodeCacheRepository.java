@@ -0,0 +1,10 @@
+package com.example.springbackend.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.springbackend.model.GeocodeCacheEntry;
+
+@Repository
+public interface GeocodeCacheRepository extends ReactiveMongoRepository<GeocodeCacheEntry, String> {
+}
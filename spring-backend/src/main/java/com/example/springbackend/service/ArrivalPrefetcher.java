@@ -0,0 +1,144 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.model.CommutePlan;
+import com.example.springbackend.model.Coordinates;
+import com.example.springbackend.model.Trip;
+import com.example.springbackend.repository.CommutePlanRepository;
+import com.example.springbackend.repository.SavedTripRouteRepository;
+import com.example.springbackend.repository.TripRepository;
+import com.example.springbackend.service.implementation.BusService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps arrivals warm for stops users are about to ask about: the next boarding stop of every
+ * ON_TRIP trip, and of every commute plan due to start within the lookahead window.
+ *
+ * Each run refreshes only stops whose cached arrivals would expire before the next run, spaced out to
+ * at most {@code maxPerSecond} upstream calls. Hit ratio and wasted fetches are reported by the
+ * arrivals cache as bus.arrivals.prefetch{result=fetched|used|wasted}.
+ */
+@Slf4j
+@Service
+public class ArrivalPrefetcher {
+
+    private static final int PREFETCH_CONCURRENCY = 4;
+
+    private final TripRepository tripRepository;
+    private final CommutePlanRepository commutePlanRepository;
+    private final SavedTripRouteRepository savedTripRouteRepository;
+    private final BusService busService;
+    private final Duration interval;
+    private final Duration lookahead;
+    private final Duration spacing;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ArrivalPrefetcher(TripRepository tripRepository,
+                             CommutePlanRepository commutePlanRepository,
+                             SavedTripRouteRepository savedTripRouteRepository,
+                             BusService busService,
+                             @Value("${bus.arrivals.prefetch.interval-ms:10000}") long intervalMillis,
+                             @Value("${bus.arrivals.prefetch.lookahead:PT30M}") Duration lookahead,
+                             @Value("${bus.arrivals.prefetch.max-per-second:5}") int maxPerSecond) {
+        this.tripRepository = tripRepository;
+        this.commutePlanRepository = commutePlanRepository;
+        this.savedTripRouteRepository = savedTripRouteRepository;
+        this.busService = busService;
+        this.interval = Duration.ofMillis(intervalMillis);
+        this.lookahead = lookahead;
+        this.spacing = Duration.ofMillis(1000L / Math.max(1, maxPerSecond));
+    }
+
+    @Scheduled(fixedDelayString = "${bus.arrivals.prefetch.interval-ms:10000}",
+            initialDelayString = "${bus.arrivals.prefetch.interval-ms:10000}")
+    public void prefetchUpcomingStops() {
+        // A slow run must not overlap the next one
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        prefetch(LocalDateTime.now())
+                .doFinally(signal -> running.set(false))
+                .subscribe(
+                        fetched -> log.debug("Prefetched arrivals for {} stop(s)", fetched),
+                        error -> log.warn("Arrivals prefetch failed: {}", error.getMessage()));
+    }
+
+    /**
+     * Runs one prefetch pass.
+     * @return Number of stops refreshed from upstream.
+     */
+    public Mono<Long> prefetch(LocalDateTime now) {
+        Flux<Trip.TripLeg> activeTrips = tripRepository.findByStatus(Trip.TripStatus.ON_TRIP)
+                .flatMapIterable(trip -> nextBusLeg(trip.getRoute(), trip.getCurrentLegIndex()).stream().toList());
+
+        Flux<Trip.TripLeg> upcomingPlans = plansDueWithinLookahead(now)
+                .flatMap(plan -> savedTripRouteRepository.findById(plan.getSavedTripRouteId()))
+                .flatMapIterable(route -> nextBusLeg(route.getRouteData(), 0).stream().toList());
+
+        return Flux.merge(activeTrips, upcomingPlans)
+                .concatMap(leg -> busService.resolveBoardingStop(leg.getFromStopCode(), leg.getFromStopName(), firstPoint(leg)))
+                .distinct(stop -> stop.sourceApi() + ":" + stop.code())
+                .delayElements(spacing)
+                .flatMap(stop -> busService.prefetchArrivals(stop, interval)
+                        .onErrorResume(error -> {
+                            log.debug("Prefetch for {} stop {} failed: {}", stop.sourceApi(), stop.code(), error.getMessage());
+                            return Mono.just(false);
+                        }), PREFETCH_CONCURRENCY)
+                .filter(Boolean::booleanValue)
+                .count();
+    }
+
+    // Each day the window touches is matched against that day's plans, so a plan due just after midnight
+    // is looked up under the next day's code
+    private Flux<CommutePlan> plansDueWithinLookahead(LocalDateTime now) {
+        LocalDateTime until = now.plus(lookahead);
+        return Flux.fromStream(now.toLocalDate().datesUntil(until.toLocalDate().plusDays(1)))
+                .concatMap(date -> commutePlanRepository
+                        .findByCommuteRecurrenceDayIdsContaining(CommuteScheduler.getDayCode(date.getDayOfWeek()))
+                        .filter(plan -> plan.getSavedTripRouteId() != null && isDueBetween(plan, date, now, until)));
+    }
+
+    private static boolean isDueBetween(CommutePlan plan, LocalDate date, LocalDateTime from, LocalDateTime until) {
+        if (plan.getNotifyAt() == null || plan.getNotifyAt().isEmpty()) {
+            return false;
+        }
+        Optional<LocalTime> notifyAt = CommuteScheduler.tryParseNotifyAtTime(plan.getNotifyAt());
+        if (notifyAt.isEmpty()) {
+            // Checked every run, so kept out of the error log
+            log.debug("Skipping plan {} with unparseable notifyAt '{}'", plan.getId(), plan.getNotifyAt());
+            return false;
+        }
+        LocalDateTime dueAt = date.atTime(notifyAt.get());
+        return !dueAt.isBefore(from) && !dueAt.isAfter(until);
+    }
+
+    private static Optional<Trip.TripLeg> nextBusLeg(Trip.TripRoute route, Integer fromIndex) {
+        if (route == null || route.getLegs() == null) {
+            return Optional.empty();
+        }
+        List<Trip.TripLeg> legs = route.getLegs();
+        for (int i = fromIndex == null ? 0 : Math.max(0, fromIndex); i < legs.size(); i++) {
+            if ("BUS".equalsIgnoreCase(legs.get(i).getType())) {
+                return Optional.of(legs.get(i));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Coordinates firstPoint(Trip.TripLeg leg) {
+        List<Coordinates> points = leg.getRoutePoints();
+        return points == null || points.isEmpty() ? null : points.get(0);
+    }
+}
@@ -19,4 +19,22 @@ public interface BusServiceProvider {
      * Gets arrival timings for a given bus stop code.
      */
     Flux<BusArrival> getBusArrivals(String busStopCode);
-}
\ No newline at end of file
+
+    /**
+     * Gets arrival timings for one service at a bus stop.
+     * The default filters the whole stop's arrivals; providers whose API can filter by service override
+     * this together with {@link #filtersServicesUpstream()}.
+     */
+    default Flux<BusArrival> getBusArrivals(String busStopCode, String serviceNo) {
+        return getBusArrivals(busStopCode)
+                .filter(arrival -> serviceNo.equalsIgnoreCase(arrival.serviceName()));
+    }
+
+    /**
+     * Whether {@link #getBusArrivals(String, String)} asks upstream for the one service only,
+     * making it cheaper than fetching the whole stop.
+     */
+    default boolean filtersServicesUpstream() {
+        return false;
+    }
+}
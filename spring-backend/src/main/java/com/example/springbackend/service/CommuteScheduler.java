@@ -11,6 +11,7 @@ import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.Locale;
+import java.util.Optional;
 
 @Slf4j
 @Service
@@ -73,24 +74,33 @@ public class CommuteScheduler {
                 }, () -> log.info("No commute plans found for today ({})", todayCode));
     }
 
-    private LocalTime parseNotifyAtTime(String notifyAtString) {
+    static LocalTime parseNotifyAtTime(String notifyAtString) {
+        return tryParseNotifyAtTime(notifyAtString).orElseThrow(() -> {
+            log.error("Could not parse notifyAt time: {}", notifyAtString);
+            return new IllegalArgumentException("Cannot parse notifyAt time: " + notifyAtString);
+        });
+    }
+
+    /**
+     * Like {@link #parseNotifyAtTime} but empty instead of logging and throwing, for callers that check often.
+     */
+    static Optional<LocalTime> tryParseNotifyAtTime(String notifyAtString) {
         try {
             // Try parsing as simple time format first (HH:mm)
-            return LocalTime.parse(notifyAtString);
+            return Optional.of(LocalTime.parse(notifyAtString));
         } catch (Exception e1) {
             try {
                 // Try parsing as full date-time format like "Tue Aug 12 07:30:00 SGT 2025"
                 DateTimeFormatter formatter = DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss zzz yyyy", Locale.ENGLISH);
                 ZonedDateTime zonedDateTime = ZonedDateTime.parse(notifyAtString, formatter);
-                return zonedDateTime.toLocalTime();
+                return Optional.of(zonedDateTime.toLocalTime());
             } catch (Exception e2) {
-                log.error("Could not parse notifyAt time: {}", notifyAtString);
-                throw new IllegalArgumentException("Cannot parse notifyAt time: " + notifyAtString, e2);
+                return Optional.empty();
             }
         }
     }
 
-    private String getDayCode(DayOfWeek dayOfWeek) {
+    static String getDayCode(DayOfWeek dayOfWeek) {
         return switch (dayOfWeek) {
             case MONDAY -> "mon";
             case TUESDAY -> "tue";
@@ -1,8 +1,9 @@
 package com.example.springbackend.service;
 
 import com.example.springbackend.controller.GeocodeController;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.springbackend.dto.OneMapDtos;
+import com.example.springbackend.service.implementation.GeocodeCache;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
@@ -15,7 +16,7 @@ import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
 import java.util.List;
-import java.util.stream.StreamSupport;
+import java.util.Objects;
 
 /**
  * Service to convert a location name (e.g., "Orchard") to
@@ -28,18 +29,25 @@ public class GeocodingService {
     private static final Duration TIMEOUT = Duration.ofSeconds(10);
 
     private final WebClient webClient;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GeocodeCache cache;
 
     @Value("${onemap.token}")
     private String oneMapToken;
 
 
     public GeocodingService(@Qualifier("oneMapWebClient") WebClient webClient) {
+        this(webClient, null);
+    }
+
+    @Autowired
+    public GeocodingService(@Qualifier("oneMapWebClient") WebClient webClient, GeocodeCache cache) {
         this.webClient = webClient;
+        this.cache = cache;
     }
 
     /**
      * Returns a list of candidates for the location name (not just first result).
+     * OneMap results are cached by normalized name; failed searches are not.
      */
     public Mono<List<GeocodeController.GeocodeCandidate>> getCandidates(String locationName) {
         if (locationName == null || locationName.isBlank()) {
@@ -51,6 +59,15 @@ public class GeocodingService {
             return getFallbackCandidates(locationName);
         }
 
+        Mono<List<GeocodeController.GeocodeCandidate>> candidates = cache == null
+                ? search(locationName)
+                : cache.get(locationName, () -> search(locationName));
+        return candidates
+                .doOnError(e -> log.warn("Error during geocoding for '{}': {}", locationName, e.getMessage()))
+                .onErrorResume(e -> Mono.just(List.of())); // return empty list on error
+    }
+
+    private Mono<List<GeocodeController.GeocodeCandidate>> search(String locationName) {
         return webClient.get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/api/common/elastic/search")
@@ -64,34 +81,31 @@ public class GeocodingService {
                         resp -> Mono.error(new RuntimeException("Geocoding API client error: " + resp.statusCode())))
                 .onStatus(HttpStatusCode::is5xxServerError,
                         resp -> Mono.error(new RuntimeException("Geocoding API server error: " + resp.statusCode())))
-                .bodyToMono(String.class)
+                .bodyToMono(OneMapDtos.SearchResponse.class)
                 .timeout(TIMEOUT)
-                .map(this::parseGeocodeCandidates)
-                .doOnError(e -> log.warn("Error during geocoding for '{}': {}", locationName, e.getMessage()))
-                .onErrorResume(e -> Mono.just(List.of())); // return empty list on error
+                .map(this::toGeocodeCandidates);
     }
 
-    private List<GeocodeController.GeocodeCandidate> parseGeocodeCandidates(String jsonResponse) {
-        try {
-            JsonNode root = objectMapper.readTree(jsonResponse);
-            JsonNode results = root.path("results");
-            if (results.isArray() && !results.isEmpty()) {
-                return StreamSupport.stream(results.spliterator(), false)
-                        .map(node -> new GeocodeController.GeocodeCandidate(
-                                node.path("LATITUDE").asText(""),
-                                node.path("LONGITUDE").asText(""),
-                                node.path("SEARCHVAL").asText(""),
-                                node.path("POSTAL").asText(""),
-                                node.path("BLK_NO").asText(""),
-                                node.path("ROAD_NAME").asText(""),
-                                node.path("BUILDING").asText("")
-                        ))
-                        .toList();
-            }
-        } catch (Exception e) {
-            log.error("Failed to parse geocode candidates", e);
+    private List<GeocodeController.GeocodeCandidate> toGeocodeCandidates(OneMapDtos.SearchResponse response) {
+        if (response.results() == null) {
+            return List.of();
         }
-        return List.of();
+        return response.results().stream()
+                .filter(Objects::nonNull)
+                .map(result -> new GeocodeController.GeocodeCandidate(
+                        orEmpty(result.latitude()),
+                        orEmpty(result.longitude()),
+                        orEmpty(result.searchVal()),
+                        orEmpty(result.postal()),
+                        orEmpty(result.blockNo()),
+                        orEmpty(result.roadName()),
+                        orEmpty(result.building())
+                ))
+                .toList();
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
     }
     
     /**
@@ -0,0 +1,151 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.dto.response.IsochroneResponse;
+import com.example.springbackend.model.Coordinates;
+import com.example.springbackend.service.implementation.BusRouteIndexManager;
+import com.example.springbackend.service.implementation.Geohash;
+import com.example.springbackend.service.implementation.LocalTransitRouter;
+import com.example.springbackend.service.implementation.TransitNetwork;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Answers "which stops can I reach from here within N minutes" from the local routing network,
+ * without calling OneMap.
+ *
+ * Origins are snapped to the centre of their geohash cell, so every origin in a cell gets the same
+ * result, and results are cached per cell, budget and LTA frequency period until the network is rebuilt.
+ */
+@Service
+public class IsochroneService {
+
+    public static final int MAX_MINUTES = 90;
+
+    private static final ZoneId SINGAPORE = ZoneId.of("Asia/Singapore");
+
+    private final BusRouteIndexManager routeIndexManager;
+    private final int precision;
+    private final Map<String, IsochroneResponse> cache;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public IsochroneService(BusRouteIndexManager routeIndexManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${routing.isochrone.geohash-precision:7}") int precision,
+                            @Value("${routing.isochrone.cache-size:500}") int cacheSize) {
+        this.routeIndexManager = routeIndexManager;
+        this.precision = precision;
+        this.cache = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IsochroneResponse> eldest) {
+                return size() > cacheSize;
+            }
+        };
+
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+    }
+
+    /**
+     * @param minutes Time budget, 1 to {@link #MAX_MINUTES}.
+     * @param withPolygon Whether to include the outline of the reachable area.
+     */
+    public Mono<IsochroneResponse> isochrone(double latitude, double longitude, int minutes, boolean withPolygon) {
+        if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            return Mono.error(new IllegalArgumentException("Invalid coordinates: " + latitude + "," + longitude));
+        }
+        if (minutes < 1 || minutes > MAX_MINUTES) {
+            return Mono.error(new IllegalArgumentException("minutes must be between 1 and " + MAX_MINUTES));
+        }
+        return Mono.fromCallable(() -> {
+            TransitNetwork network = routeIndexManager.network();
+            if (network.isEmpty()) {
+                throw new IllegalStateException("Bus network not loaded yet");
+            }
+            LocalTime now = LocalTime.now(SINGAPORE);
+            String cell = Geohash.encode(latitude, longitude, precision);
+            String key = cell + "/" + minutes + "/" + TransitNetwork.periodOf(now) + "/" + network.loadedAt();
+
+            IsochroneResponse cached;
+            synchronized (cache) {
+                cached = cache.get(key);
+            }
+            if (cached != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+                cached = compute(network, Geohash.center(cell), minutes, now);
+                synchronized (cache) {
+                    cache.put(key, cached);
+                }
+            }
+            return withPolygon ? cached
+                    : new IsochroneResponse(cached.origin(), cached.minutes(), cached.stops(), List.of());
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static IsochroneResponse compute(TransitNetwork network, Coordinates origin, int minutes, LocalTime departure) {
+        List<IsochroneResponse.ReachableStop> stops = LocalTransitRouter
+                .reachable(network, origin, departure, minutes * 60).stream()
+                .map(reached -> new IsochroneResponse.ReachableStop(
+                        reached.stopCode(),
+                        reached.stopName(),
+                        reached.location().latitude(),
+                        reached.location().longitude(),
+                        (reached.seconds() + 59) / 60))
+                .toList();
+
+        List<Coordinates> points = new ArrayList<>(stops.size() + 1);
+        points.add(origin);
+        stops.forEach(stop -> points.add(new Coordinates(stop.latitude(), stop.longitude())));
+        return new IsochroneResponse(origin, minutes, stops, convexHull(points));
+    }
+
+    // Andrew's monotone chain, counter-clockwise; fewer than three distinct points give no area
+    static List<Coordinates> convexHull(List<Coordinates> points) {
+        List<Coordinates> sorted = points.stream()
+                .distinct()
+                .sorted(Comparator.comparingDouble(Coordinates::longitude).thenComparingDouble(Coordinates::latitude))
+                .toList();
+        if (sorted.size() < 3) {
+            return List.of();
+        }
+        Coordinates[] hull = new Coordinates[2 * sorted.size()];
+        int size = 0;
+        for (Coordinates point : sorted) {
+            while (size >= 2 && cross(hull[size - 2], hull[size - 1], point) <= 0) {
+                size--;
+            }
+            hull[size++] = point;
+        }
+        for (int i = sorted.size() - 2, lower = size + 1; i >= 0; i--) {
+            Coordinates point = sorted.get(i);
+            while (size >= lower && cross(hull[size - 2], hull[size - 1], point) <= 0) {
+                size--;
+            }
+            hull[size++] = point;
+        }
+        return size < 4 ? List.of() : List.of(Arrays.copyOf(hull, size));
+    }
+
+    private static double cross(Coordinates o, Coordinates a, Coordinates b) {
+        return (a.longitude() - o.longitude()) * (b.latitude() - o.latitude())
+                - (a.latitude() - o.latitude()) * (b.longitude() - o.longitude());
+    }
+
+    private static Counter lookupCounter(MeterRegistry registry, String result) {
+        return Counter.builder("routing.isochrone")
+                .description("Isochrone lookups by cache outcome")
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -1,8 +1,7 @@
 package com.example.springbackend.service;
 
 import com.example.springbackend.controller.GeocodeController;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.springbackend.dto.OneMapDtos;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -15,7 +14,7 @@ import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.List;
-import java.util.stream.StreamSupport;
+import java.util.Objects;
 
 @Service
 public class ReverseGeocodeService {
@@ -24,7 +23,6 @@ public class ReverseGeocodeService {
     private static final Duration TIMEOUT = Duration.ofSeconds(10);
 
     private final WebClient webClient;
-    private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Value("${onemap.token}")
     private String oneMapToken;
@@ -60,37 +58,32 @@ public class ReverseGeocodeService {
                         resp -> Mono.error(new RuntimeException("Reverse geocoding API client error: " + resp.statusCode())))
                 .onStatus(HttpStatusCode::is5xxServerError,
                         resp -> Mono.error(new RuntimeException("Reverse geocoding API server error: " + resp.statusCode())))
-                .bodyToMono(String.class)
+                .bodyToMono(OneMapDtos.ReverseGeocodeResponse.class)
                 .timeout(TIMEOUT)
-                .map(this::parseReverseGeocodeCandidates)
+                .map(this::toReverseGeocodeCandidates)
                 .doOnError(e -> log.warn("Error during reverse geocoding for coords {}, {}: {}", x, y, e.getMessage()))
                 .onErrorResume(e -> Mono.just(List.of())); // empty list on error
     }
 
-    private List<GeocodeController.ReverseGeocodeCandidate> parseReverseGeocodeCandidates(String jsonResponse) {
-        try {
-            JsonNode root = objectMapper.readTree(jsonResponse);
-            JsonNode geocodeInfo = root.path("GeocodeInfo");
-            if (geocodeInfo.isArray() && !geocodeInfo.isEmpty()) {
-                return StreamSupport.stream(geocodeInfo.spliterator(), false)
-                        .map(node -> {
-                            String building = node.path("BUILDINGNAME").asText("");
-                            String block = node.path("BLOCK").asText("");
-                            String road = node.path("ROAD").asText("");
-                            String postalCode = node.path("POSTALCODE").asText("");
-                            StringBuilder address = new StringBuilder();
-                            if (!building.isBlank()) address.append(building).append(", ");
-                            if (!block.isBlank()) address.append("Block ").append(block).append(", ");
-                            if (!road.isBlank()) address.append(road).append(", ");
-                            if (!postalCode.isBlank()) address.append("Singapore ").append(postalCode);
-                            String formatted = address.toString().replaceAll(", $", "");
-                            return new GeocodeController.ReverseGeocodeCandidate(formatted);
-                        })
-                        .toList();
-            }
-        } catch (Exception e) {
-            log.error("Failed to parse reverse geocode candidates", e);
+    private List<GeocodeController.ReverseGeocodeCandidate> toReverseGeocodeCandidates(OneMapDtos.ReverseGeocodeResponse response) {
+        if (response.geocodeInfo() == null) {
+            return List.of();
         }
-        return List.of();
+        return response.geocodeInfo().stream()
+                .filter(Objects::nonNull)
+                .map(info -> {
+                    StringBuilder address = new StringBuilder();
+                    if (!isBlank(info.buildingName())) address.append(info.buildingName()).append(", ");
+                    if (!isBlank(info.block())) address.append("Block ").append(info.block()).append(", ");
+                    if (!isBlank(info.road())) address.append(info.road()).append(", ");
+                    if (!isBlank(info.postalCode())) address.append("Singapore ").append(info.postalCode());
+                    String formatted = address.toString().replaceAll(", $", "");
+                    return new GeocodeController.ReverseGeocodeCandidate(formatted);
+                })
+                .toList();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
 }
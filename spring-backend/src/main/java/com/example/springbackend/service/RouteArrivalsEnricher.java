@@ -0,0 +1,122 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.dto.llm.DirectionsResponseDTO;
+import com.example.springbackend.model.BusArrival;
+import com.example.springbackend.model.BusStop;
+import com.example.springbackend.model.Coordinates;
+import com.example.springbackend.model.StopArrivals;
+import com.example.springbackend.service.implementation.BusService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Attaches live arrivals to the bus legs of planned routes, so clients need not look up each boarding stop.
+ *
+ * The boarding stops of all legs are resolved and their arrivals fetched in parallel, each stop once,
+ * under one deadline for the whole response. Legs whose stop has not answered by then are returned
+ * without arrivals. Runs after the routing cache, so cached routes never carry old arrivals.
+ * Outcomes are counted as routing.enrichment{result=complete|partial}.
+ */
+@Slf4j
+@Service
+public class RouteArrivalsEnricher {
+
+    private static final int ENRICHMENT_CONCURRENCY = 6;
+
+    private final BusService busService;
+    private final Duration deadline;
+    private final Counter complete;
+    private final Counter partial;
+
+    public RouteArrivalsEnricher(BusService busService, MeterRegistry meterRegistry,
+                                 @Value("${routing.enrichment.deadline:PT2S}") Duration deadline) {
+        this.busService = busService;
+        this.deadline = deadline;
+        this.complete = counter(meterRegistry, "complete");
+        this.partial = counter(meterRegistry, "partial");
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("routing.enrichment")
+                .description("Route responses annotated with live arrivals")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public Mono<List<DirectionsResponseDTO.RouteDTO>> withArrivals(List<DirectionsResponseDTO.RouteDTO> routes) {
+        Set<Boarding> boardings = new LinkedHashSet<>();
+        for (DirectionsResponseDTO.RouteDTO route : routes) {
+            for (DirectionsResponseDTO.LegDTO leg : route.legs()) {
+                if (isBusLeg(leg)) {
+                    boardings.add(Boarding.of(leg));
+                }
+            }
+        }
+        if (boardings.isEmpty()) {
+            return Mono.just(routes);
+        }
+
+        return Mono.defer(() -> {
+            // Distinct boardings can resolve to the same stop; each stop is fetched once
+            Map<String, Mono<StopArrivals>> byStop = new ConcurrentHashMap<>();
+            Map<Boarding, StopArrivals> found = new ConcurrentHashMap<>();
+            return Flux.fromIterable(boardings)
+                    .flatMap(boarding -> busService.resolveBoardingStop(boarding.code(), boarding.name(), boarding.location())
+                                    .flatMap(stop -> byStop.computeIfAbsent(stop.sourceApi() + ":" + stop.code(),
+                                            key -> busService.getStopArrivals(stop).cache()))
+                                    .doOnNext(arrivals -> found.put(boarding, arrivals))
+                                    .onErrorResume(error -> {
+                                        log.debug("No arrivals for boarding stop {}: {}", boarding, error.toString());
+                                        return Mono.empty();
+                                    }),
+                            ENRICHMENT_CONCURRENCY)
+                    .take(deadline)
+                    .then(Mono.fromSupplier(() -> {
+                        (found.size() == boardings.size() ? complete : partial).increment();
+                        return annotate(routes, Map.copyOf(found));
+                    }));
+        });
+    }
+
+    private static List<DirectionsResponseDTO.RouteDTO> annotate(List<DirectionsResponseDTO.RouteDTO> routes,
+                                                                 Map<Boarding, StopArrivals> found) {
+        return routes.stream()
+                .map(route -> new DirectionsResponseDTO.RouteDTO(
+                        route.durationInMinutes(),
+                        route.legs().stream()
+                                .map(leg -> {
+                                    StopArrivals arrivals = isBusLeg(leg) ? found.get(Boarding.of(leg)) : null;
+                                    BusArrival next = arrivals == null ? null : arrivals.arrivals().stream()
+                                            .filter(arrival -> leg.busServiceNumber().trim().equalsIgnoreCase(arrival.serviceName()))
+                                            .findFirst()
+                                            .orElse(null);
+                                    return next == null ? leg : leg.withNextArrivals(next);
+                                })
+                                .toList(),
+                        route.summary(),
+                        route.departureTime()))
+                .toList();
+    }
+
+    private static boolean isBusLeg(DirectionsResponseDTO.LegDTO leg) {
+        return "BUS".equalsIgnoreCase(leg.type()) && leg.busServiceNumber() != null && !leg.busServiceNumber().isBlank();
+    }
+
+    private record Boarding(String code, String name, Coordinates location) {
+
+        static Boarding of(DirectionsResponseDTO.LegDTO leg) {
+            List<Coordinates> points = leg.points();
+            return new Boarding(leg.fromStopCode(), leg.fromStopName(),
+                    points == null || points.isEmpty() ? null : points.get(0));
+        }
+    }
+}
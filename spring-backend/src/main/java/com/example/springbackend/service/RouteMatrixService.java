@@ -0,0 +1,108 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.dto.llm.DirectionsResponseDTO;
+import com.example.springbackend.dto.response.RouteMatrixRow;
+import com.example.springbackend.dto.response.RouteMatrixRow.Status;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routes every origin to every destination of a matrix request.
+ *
+ * Repeated pairs are routed once. Distinct pairs go through {@link RoutingService#getBusRoutes}, and so
+ * through the routing cache, with bounded concurrency. Pairs that need a OneMap call are spaced out so
+ * all matrix requests together make at most {@code maxPerSecond} of them; cached and locally routed
+ * pairs are not held back. Rows are emitted as each pair completes.
+ */
+@Slf4j
+@Service
+public class RouteMatrixService {
+
+    public static final int MAX_PAIRS = 400;
+
+    private static final int MATRIX_CONCURRENCY = 4;
+
+    private final RoutingService routingService;
+    private final long spacingNanos;
+    private final AtomicLong nextSlotNanos = new AtomicLong(Long.MIN_VALUE);
+
+    public RouteMatrixService(RoutingService routingService,
+                              @Value("${routing.matrix.max-per-second:5}") int maxPerSecond) {
+        this.routingService = routingService;
+        this.spacingNanos = Duration.ofSeconds(1).toNanos() / Math.max(1, maxPerSecond);
+    }
+
+    /**
+     * Validates the request up front so callers can reject it before any row is streamed.
+     *
+     * @throws IllegalArgumentException if either list is empty or there are more than {@link #MAX_PAIRS} pairs.
+     */
+    public Flux<RouteMatrixRow> getRouteMatrix(List<String> origins, List<String> destinations, LocalTime startTime) {
+        if (origins == null || destinations == null || origins.isEmpty() || destinations.isEmpty()) {
+            throw new IllegalArgumentException("origins and destinations are required");
+        }
+        if ((long) origins.size() * destinations.size() > MAX_PAIRS) {
+            throw new IllegalArgumentException("At most " + MAX_PAIRS + " origin/destination pairs");
+        }
+
+        // Distinct (origin, destination) -> every index pair asking for it
+        Map<List<String>, List<int[]>> pairs = new LinkedHashMap<>();
+        for (int o = 0; o < origins.size(); o++) {
+            for (int d = 0; d < destinations.size(); d++) {
+                pairs.computeIfAbsent(List.of(normalize(origins.get(o)), normalize(destinations.get(d))),
+                        k -> new ArrayList<>()).add(new int[]{o, d});
+            }
+        }
+
+        return Flux.fromIterable(pairs.entrySet())
+                .flatMap(pair -> route(pair.getKey().get(0), pair.getKey().get(1), startTime)
+                                .flatMapIterable(result -> pair.getValue().stream()
+                                        .map(indexes -> result.at(indexes[0], indexes[1]))
+                                        .toList()),
+                        MATRIX_CONCURRENCY);
+    }
+
+    private Mono<PairResult> route(String origin, String destination, LocalTime startTime) {
+        if (origin.isEmpty() || destination.isEmpty()) {
+            return Mono.just(new PairResult(Status.INVALID, null));
+        }
+        return routingService.getBusRoutes(origin, destination, null, startTime, this::nextSlot)
+                .map(routes -> routes.stream()
+                        .min(Comparator.comparingInt(DirectionsResponseDTO.RouteDTO::durationInMinutes))
+                        .map(fastest -> new PairResult(Status.OK, fastest))
+                        .orElse(new PairResult(Status.NO_ROUTE, null)))
+                .onErrorResume(error -> {
+                    log.debug("Matrix route {} -> {} failed: {}", origin, destination, error.toString());
+                    return Mono.just(new PairResult(
+                            error instanceof IllegalArgumentException ? Status.INVALID : Status.ERROR, null));
+                });
+    }
+
+    // Reserves the next free slot on the schedule shared by all matrix requests
+    private Duration nextSlot() {
+        long now = System.nanoTime();
+        long slot = nextSlotNanos.getAndUpdate(next -> Math.max(next, now) + spacingNanos);
+        return Duration.ofNanos(Math.max(slot, now) - now);
+    }
+
+    private static String normalize(String point) {
+        return point == null ? "" : point.trim();
+    }
+
+    private record PairResult(Status status, DirectionsResponseDTO.RouteDTO fastest) {
+
+        RouteMatrixRow at(int origin, int destination) {
+            return fastest == null
+                    ? RouteMatrixRow.failed(origin, destination, status)
+                    : new RouteMatrixRow(origin, destination, status, fastest.durationInMinutes(), fastest.summary());
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.dto.response.RouteShapeResponse;
+import com.example.springbackend.model.Coordinates;
+import com.example.springbackend.model.Polyline;
+import com.example.springbackend.model.Trip;
+import com.example.springbackend.repository.TripRepository;
+import com.example.springbackend.service.implementation.BusRouteIndexManager;
+import com.example.springbackend.service.implementation.TransitNetwork;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Route shapes for map rendering, simplified with Douglas-Peucker for a few zoom levels so that
+ * zoomed-out maps transfer and draw a fraction of the points.
+ *
+ * Shapes are either a bus service in one direction ("bus-95-1"), drawn through its stops from LTA route
+ * sequences, or a leg of a trip ("trip-{tripId}-{legIndex}"), drawn from OneMap's leg geometry when the
+ * leg has it. Every level of a shape is computed on first request and cached; bus shapes until the
+ * network is rebuilt.
+ */
+@Slf4j
+@Service
+public class RouteShapeService {
+
+    public static final int MAX_ZOOM = 22;
+
+    // Zoom levels shapes are simplified for; the last keeps every point
+    static final int[] LEVELS = {10, 12, 14, 16, 18};
+
+    // Web Mercator metres per pixel at zoom 0 on the equator, which Singapore is close enough to
+    private static final double METERS_PER_PIXEL_AT_ZOOM_0 = 156_543.03;
+    private static final double METERS_PER_DEGREE = 111_320;
+
+    private final BusRouteIndexManager routeIndexManager;
+    private final TripRepository tripRepository;
+    private final Duration maxAge;
+    private final Map<String, RouteShapeResponse[]> cache;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public RouteShapeService(BusRouteIndexManager routeIndexManager,
+                             TripRepository tripRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${routing.shapes.cache-size:2000}") int cacheSize,
+                             @Value("${routing.shapes.max-age:PT24H}") Duration maxAge) {
+        this.routeIndexManager = routeIndexManager;
+        this.tripRepository = tripRepository;
+        this.maxAge = maxAge;
+        this.cache = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RouteShapeResponse[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+    }
+
+    /**
+     * How long clients may cache a shape before revalidating it.
+     */
+    public Duration maxAge() {
+        return maxAge;
+    }
+
+    /**
+     * @param zoom Map zoom level, 0 to {@link #MAX_ZOOM}.
+     * @return Empty if there is no such shape; an IllegalArgumentException for a malformed id or zoom,
+     *         an IllegalStateException for bus shapes while the network is still loading.
+     */
+    public Mono<RouteShapeResponse> shape(String id, int zoom) {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            return Mono.error(new IllegalArgumentException("zoom must be between 0 and " + MAX_ZOOM));
+        }
+        int level = levelFor(zoom);
+        return Mono.defer(() -> {
+            String[] parts = id == null ? new String[0] : id.split("-");
+            if (parts.length == 3 && parts[0].equals("bus")) {
+                return busShape(id, parts[1], parseIndex(parts[2]), level);
+            }
+            if (parts.length == 3 && parts[0].equals("trip")) {
+                return tripShape(id, parts[1], parseIndex(parts[2]), level);
+            }
+            return Mono.error(new IllegalArgumentException("Unknown shape id: " + id));
+        });
+    }
+
+    private Mono<RouteShapeResponse> busShape(String id, String serviceNo, int direction, int level) {
+        return Mono.fromCallable(() -> {
+            TransitNetwork network = routeIndexManager.network();
+            if (network.isEmpty()) {
+                throw new IllegalStateException("Bus network not loaded yet");
+            }
+            RouteShapeResponse[] levels = cached(id + "@" + network.loadedAt(),
+                    () -> network.routeShape(serviceNo, direction), id);
+            return levels == null ? null : levels[level];
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<RouteShapeResponse> tripShape(String id, String tripId, int legIndex, int level) {
+        RouteShapeResponse[] known;
+        synchronized (cache) {
+            known = cache.get(id);
+        }
+        if (known != null) {
+            hits.increment();
+            return Mono.just(known[level]);
+        }
+        return tripRepository.findById(tripId)
+                .mapNotNull(trip -> {
+                    List<Trip.TripLeg> legs = trip.getRoute() == null ? null : trip.getRoute().getLegs();
+                    if (legs == null || legIndex >= legs.size()) {
+                        return null;
+                    }
+                    RouteShapeResponse[] levels = cached(id, () -> legPoints(legs.get(legIndex)), id);
+                    return levels == null ? null : levels[level];
+                });
+    }
+
+    // Every level of a shape, or null when it has fewer than two points
+    private RouteShapeResponse[] cached(String key, Supplier<List<Coordinates>> points, String id) {
+        synchronized (cache) {
+            RouteShapeResponse[] levels = cache.get(key);
+            if (levels != null) {
+                hits.increment();
+                return levels;
+            }
+        }
+        misses.increment();
+        List<Coordinates> shape = points.get();
+        if (shape == null || shape.size() < 2) {
+            return null;
+        }
+        RouteShapeResponse[] levels = new RouteShapeResponse[LEVELS.length];
+        for (int i = 0; i < LEVELS.length; i++) {
+            List<Coordinates> simplified = i == LEVELS.length - 1 ? shape : simplify(shape, toleranceMeters(LEVELS[i]));
+            String polyline = Polyline.encode(simplified);
+            String etag = DigestUtils.md5DigestAsHex(polyline.getBytes(StandardCharsets.US_ASCII));
+            levels[i] = new RouteShapeResponse(id, LEVELS[i], simplified.size(), polyline, etag);
+        }
+        synchronized (cache) {
+            cache.put(key, levels);
+        }
+        return levels;
+    }
+
+    // OneMap's road-following geometry when the leg has it, otherwise its stops
+    private static List<Coordinates> legPoints(Trip.TripLeg leg) {
+        if (leg.getLegGeometry() != null && !leg.getLegGeometry().isBlank()) {
+            try {
+                return Polyline.decode(leg.getLegGeometry());
+            } catch (IllegalArgumentException e) {
+                log.debug("Unreadable leg geometry, using route points: {}", e.getMessage());
+            }
+        }
+        return leg.getRoutePoints();
+    }
+
+    // Index into LEVELS of the closest level at least as detailed as the zoom
+    static int levelFor(int zoom) {
+        for (int i = 0; i < LEVELS.length; i++) {
+            if (zoom <= LEVELS[i]) {
+                return i;
+            }
+        }
+        return LEVELS.length - 1;
+    }
+
+    // One pixel at the zoom level
+    static double toleranceMeters(int zoom) {
+        return METERS_PER_PIXEL_AT_ZOOM_0 / (1 << zoom);
+    }
+
+    /**
+     * Douglas-Peucker: keeps the end points and, recursively, any point further than the tolerance
+     * from the line through the points kept either side of it. Distances are in local metres.
+     */
+    static List<Coordinates> simplify(List<Coordinates> points, double toleranceMeters) {
+        int n = points.size();
+        if (n < 3) {
+            return points;
+        }
+        double cosLat = Math.cos(Math.toRadians(points.get(0).latitude()));
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = points.get(i).longitude() * METERS_PER_DEGREE * cosLat;
+            y[i] = points.get(i).latitude() * METERS_PER_DEGREE;
+        }
+
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+        Deque<int[]> spans = new ArrayDeque<>();
+        spans.push(new int[]{0, n - 1});
+        while (!spans.isEmpty()) {
+            int[] span = spans.pop();
+            int first = span[0];
+            int last = span[1];
+            double farthest = 0;
+            int index = -1;
+            for (int i = first + 1; i < last; i++) {
+                double distance = distanceToSegment(x[i], y[i], x[first], y[first], x[last], y[last]);
+                if (distance > farthest) {
+                    farthest = distance;
+                    index = i;
+                }
+            }
+            if (index >= 0 && farthest > toleranceMeters) {
+                keep[index] = true;
+                spans.push(new int[]{first, index});
+                spans.push(new int[]{index, last});
+            }
+        }
+
+        List<Coordinates> simplified = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                simplified.add(points.get(i));
+            }
+        }
+        return simplified;
+    }
+
+    private static double distanceToSegment(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        return Math.hypot(px - (ax + t * dx), py - (ay + t * dy));
+    }
+
+    private static int parseIndex(String text) {
+        try {
+            int index = Integer.parseInt(text);
+            if (index >= 0) {
+                return index;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid shape id part: " + text);
+    }
+
+    private static Counter lookupCounter(MeterRegistry registry, String result) {
+        return Counter.builder("routing.shapes")
+                .description("Route shape lookups by cache outcome")
+                .tag("result", result)
+                .register(registry);
+    }
+}
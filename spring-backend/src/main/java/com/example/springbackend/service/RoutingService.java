@@ -2,20 +2,28 @@ package com.example.springbackend.service;
 
 import com.example.springbackend.dto.llm.DirectionsResponseDTO;
 import com.example.springbackend.model.Coordinates;
+import com.example.springbackend.service.implementation.BusRouteIndex;
+import com.example.springbackend.service.implementation.BusRouteIndexManager;
+import com.example.springbackend.service.implementation.LocalTransitRouter;
+import com.example.springbackend.service.implementation.RoutingCache;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.*;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 @Service
 public class RoutingService {
@@ -27,70 +35,267 @@ public class RoutingService {
     private static final DateTimeFormatter TIME_FMT = DateTimeFormatter.ofPattern("HH:mm:ss");
 
     private static final int MAX_ITINERARIES = 3;
+    private static final int ARRIVE_BY_CONCURRENCY = 3;
+    private static final DateTimeFormatter DEPARTURE_FMT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final Supplier<Duration> NO_DELAY = () -> Duration.ZERO;
+
+    // Latest departure first, then the shorter trip
+    private static final Comparator<Map.Entry<LocalDateTime, DirectionsResponseDTO.RouteDTO>> LATEST_DEPARTURE =
+            Comparator.<Map.Entry<LocalDateTime, DirectionsResponseDTO.RouteDTO>, LocalDateTime>comparing(Map.Entry::getKey)
+                    .reversed()
+                    .thenComparingInt(option -> option.getValue().durationInMinutes());
 
     private final WebClient webClient;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BusRouteIndexManager routeIndexManager;
+    private final RoutingCache routingCache;
+    private final LocalTransitRouter localRouter;
+    private final Strategy strategy;
 
     @Value("${onemap.token}")
     private String oneMapToken;
 
-    public RoutingService(@Qualifier("oneMapWebClient") WebClient webClient) {
+    @Value("${routing.onemap.timeout:PT10S}")
+    private Duration oneMapTimeout = Duration.ofSeconds(10);
+
+    @Value("${routing.arrive-by.probes:4}")
+    private int arriveByProbes = 4;
+
+    @Value("${routing.arrive-by.probe-spacing:PT15M}")
+    private Duration arriveByProbeSpacing = Duration.ofMinutes(15);
+
+    /**
+     * Which engine plans routes: OneMap, the in-process router over LTA data, or the in-process router
+     * with OneMap used when it has no network loaded or finds no route.
+     */
+    public enum Strategy {
+        ONEMAP, LOCAL, LOCAL_WITH_ONEMAP_FALLBACK;
+
+        public static Strategy fromProperty(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    public RoutingService(WebClient webClient) {
+        this(webClient, null, null, null, "onemap");
+    }
+
+    @Autowired
+    public RoutingService(@Qualifier("oneMapWebClient") WebClient webClient, BusRouteIndexManager routeIndexManager,
+                          RoutingCache routingCache, LocalTransitRouter localRouter,
+                          @Value("${routing.strategy:onemap}") String strategy) {
         this.webClient = webClient;
+        this.routeIndexManager = routeIndexManager;
+        this.routingCache = routingCache;
+        this.localRouter = localRouter;
+        this.strategy = Strategy.fromProperty(strategy);
+        log.info("Routing strategy: {}", this.strategy);
     }
 
+    /**
+     * Bus routes between two points, served from the routing cache when a nearby trip at about the same
+     * departure time was planned recently.
+     *
+     * With an {@code arrivalTime} this is an arrive-by search: see {@link #getArriveByRoutes}.
+     */
     public Mono<List<DirectionsResponseDTO.RouteDTO>> getBusRoutes(String start, String end, LocalTime arrivalTime, LocalTime startTime) {
+        return getBusRoutes(start, end, arrivalTime, startTime, NO_DELAY);
+    }
+
+    /**
+     * As {@link #getBusRoutes(String, String, LocalTime, LocalTime)}, but each OneMap call first waits for
+     * {@code oneMapDelay}, asked just before the call. Answers from the routing cache or the local router
+     * are not delayed.
+     */
+    public Mono<List<DirectionsResponseDTO.RouteDTO>> getBusRoutes(String start, String end, LocalTime arrivalTime,
+                                                                   LocalTime startTime, Supplier<Duration> oneMapDelay) {
         return validateCoordinates(start, end)
-                .then(
-                        webClient.get()
-                                .uri(uriBuilder -> {
-                                    LocalDate today = LocalDate.now(SINGAPORE);
-                                    LocalTime timeParam = startTime != null ? startTime : LocalTime.now(SINGAPORE);
-                                    String dateParam = today.format(DATE_FMT);
-                                    String timeStr = timeParam.format(TIME_FMT);
-                                    return uriBuilder
-                                            .path("/api/public/routingsvc/route")
-                                            .queryParam("start", start)
-                                            .queryParam("end", end)
-                                            .queryParam("routeType", "pt")
-                                            .queryParam("mode", "BUS")
-                                            .queryParam("date", dateParam)
-                                            .queryParam("time", timeStr)
-                                            .queryParam("numItineraries", MAX_ITINERARIES)
-                                            .build();
-                                })
-                                .header(HttpHeaders.AUTHORIZATION, oneMapToken)
-                                .retrieve()
-                                .bodyToMono(String.class)
-                                .doOnNext(response -> log.debug("Raw routing response: {}", response))
-                                .doOnError(e -> log.error("Error fetching routing data", e))
-                )
-                .map(this::parseRoutesOnly)
-                .map(routes -> {
-                    if (arrivalTime == null) return routes;
-
-                    LocalDateTime nowDateTime = LocalDateTime.of(LocalDate.now(SINGAPORE), LocalTime.now(SINGAPORE));
-                    LocalDateTime deadline = LocalDateTime.of(LocalDate.now(SINGAPORE), arrivalTime);
-
-                    // Filter routes that arrive before the deadline
-                    List<DirectionsResponseDTO.RouteDTO> filteredRoutes = routes.stream()
-                            .filter(route -> {
-                                LocalDateTime arrivalDateTime = nowDateTime.plusMinutes(route.durationInMinutes());
-                                return !arrivalDateTime.isAfter(deadline);
-                            })
-                            .collect(Collectors.toList());
-                    
-                    // Log for debugging
-                    log.debug("Original routes: {}, Filtered routes: {}, Deadline: {}", 
-                             routes.size(), filteredRoutes.size(), deadline);
-                    
-                    // If no routes meet the deadline, return all routes anyway
-                    return filteredRoutes.isEmpty() ? routes : filteredRoutes;
+                .then(Mono.defer(() -> {
+                    LocalDateTime departure = LocalDateTime.of(LocalDate.now(SINGAPORE),
+                            startTime != null ? startTime : LocalTime.now(SINGAPORE));
+                    if (arrivalTime == null) {
+                        return cachedRoutes(start, end, departure, oneMapDelay)
+                                .doOnError(e -> log.error("Error fetching routing data", e));
+                    }
+                    // An arrival time earlier than the departure is on the next day, e.g. leave 23:30, arrive by 00:30
+                    LocalDateTime deadline = LocalDateTime.of(departure.toLocalDate(), arrivalTime);
+                    if (deadline.isBefore(departure)) {
+                        deadline = deadline.plusDays(1);
+                    }
+                    // Optional probes handle their own failures, so only a failure the caller sees is logged here
+                    return getArriveByRoutes(start, end, departure, deadline, oneMapDelay)
+                            .doOnError(e -> log.error("Error fetching routing data", e));
+                }));
+    }
+
+    /**
+     * Routes leaving as late as possible while still arriving by {@code deadline}, each with its departure time.
+     *
+     * Besides {@code earliest}, up to {@code routing.arrive-by.probes} departures are probed, working back
+     * from the deadline on a fixed grid of {@code routing.arrive-by.probe-spacing}. Grid times are shared by
+     * every search, so they hit the routing cache for repeated and nearby trips. Itineraries found by several
+     * probes keep their latest departure that makes the deadline. When nothing arrives in time, the routes
+     * leaving at {@code earliest} are returned as before.
+     */
+    private Mono<List<DirectionsResponseDTO.RouteDTO>> getArriveByRoutes(String start, String end,
+                                                                         LocalDateTime earliest, LocalDateTime deadline,
+                                                                         Supplier<Duration> oneMapDelay) {
+        List<LocalDateTime> departures = probeDepartures(earliest, deadline, arriveByProbeSpacing, arriveByProbes);
+        return Flux.fromIterable(departures)
+                .flatMap(departure -> cachedRoutes(start, end, departure, oneMapDelay)
+                                .map(routes -> Map.entry(departure, routes))
+                                // Only the earliest probe is essential; the rest just improve on it
+                                .onErrorResume(e -> !departure.equals(earliest), e -> {
+                                    log.debug("Arrive-by probe at {} failed: {}", departure, e.toString());
+                                    return Mono.empty();
+                                }),
+                        ARRIVE_BY_CONCURRENCY)
+                .collectList()
+                .map(probes -> {
+                    List<DirectionsResponseDTO.RouteDTO> onTime = latestOnTime(probes, deadline);
+                    log.debug("Arrive-by {} probes, {} routes on time, deadline {}", probes.size(), onTime.size(), deadline);
+                    if (!onTime.isEmpty()) {
+                        return onTime;
+                    }
+                    return probes.stream()
+                            .filter(probe -> probe.getKey().equals(earliest))
+                            .flatMap(probe -> probe.getValue().stream()
+                                    .map(route -> route.withDepartureTime(probe.getKey().format(DEPARTURE_FMT))))
+                            .toList();
                 });
     }
 
-    private List<DirectionsResponseDTO.RouteDTO> parseRoutesOnly(String jsonResponse) {
+    /**
+     * {@code earliest} followed by up to {@code probes} grid departures before {@code deadline}, latest first.
+     */
+    static List<LocalDateTime> probeDepartures(LocalDateTime earliest, LocalDateTime deadline, Duration spacing, int probes) {
+        List<LocalDateTime> departures = new ArrayList<>();
+        departures.add(earliest);
+        long spacingMinutes = Math.max(1, spacing.toMinutes());
+        // Latest grid minute strictly before the deadline
+        LocalDateTime grid = deadline.truncatedTo(ChronoUnit.DAYS)
+                .plusMinutes((deadline.toLocalTime().toSecondOfDay() / 60 - 1) / spacingMinutes * spacingMinutes);
+        for (int i = 0; i < probes && grid.isAfter(earliest); i++, grid = grid.minusMinutes(spacingMinutes)) {
+            departures.add(grid);
+        }
+        return departures;
+    }
+
+    /**
+     * Routes from all probes that arrive by the deadline, one per itinerary at its latest departure,
+     * latest-departing first.
+     */
+    static List<DirectionsResponseDTO.RouteDTO> latestOnTime(List<Map.Entry<LocalDateTime, List<DirectionsResponseDTO.RouteDTO>>> probes,
+                                                             LocalDateTime deadline) {
+        Map<List<Object>, Map.Entry<LocalDateTime, DirectionsResponseDTO.RouteDTO>> best = new HashMap<>();
+        for (Map.Entry<LocalDateTime, List<DirectionsResponseDTO.RouteDTO>> probe : probes) {
+            for (DirectionsResponseDTO.RouteDTO route : probe.getValue()) {
+                if (probe.getKey().plusMinutes(route.durationInMinutes()).isAfter(deadline)) {
+                    continue;
+                }
+                best.merge(itineraryKey(route), Map.entry(probe.getKey(), route),
+                        (current, candidate) -> LATEST_DEPARTURE.compare(candidate, current) < 0 ? candidate : current);
+            }
+        }
+        return best.values().stream()
+                .sorted(LATEST_DEPARTURE)
+                .limit(MAX_ITINERARIES)
+                .map(option -> option.getValue().withDepartureTime(option.getKey().format(DEPARTURE_FMT)))
+                .toList();
+    }
+
+    // Same services between the same stops, whenever it leaves
+    private static List<Object> itineraryKey(DirectionsResponseDTO.RouteDTO route) {
+        List<Object> key = new ArrayList<>();
+        key.add(route.summary());
+        for (DirectionsResponseDTO.LegDTO leg : route.legs()) {
+            key.add(List.of(String.valueOf(leg.type()), String.valueOf(leg.busServiceNumber()),
+                    String.valueOf(leg.fromStopCode()), String.valueOf(leg.toStopCode())));
+        }
+        return key;
+    }
+
+    private Mono<List<DirectionsResponseDTO.RouteDTO>> cachedRoutes(String start, String end, LocalDateTime departure,
+                                                                     Supplier<Duration> oneMapDelay) {
+        return routingCache == null
+                ? fetchRoutes(start, end, departure, oneMapDelay)
+                : routingCache.get(start, end, departure, () -> fetchRoutes(start, end, departure, oneMapDelay));
+    }
+
+    private Mono<List<DirectionsResponseDTO.RouteDTO>> fetchRoutes(String start, String end, LocalDateTime departure,
+                                                                    Supplier<Duration> oneMapDelay) {
+        return switch (strategy) {
+            case ONEMAP -> delayed(fetchOneMapRoutes(start, end, departure), oneMapDelay);
+            case LOCAL -> fetchLocalRoutes(start, end, departure);
+            case LOCAL_WITH_ONEMAP_FALLBACK -> fetchLocalRoutes(start, end, departure)
+                    .filter(routes -> !routes.isEmpty())
+                    .switchIfEmpty(Mono.defer(() -> delayed(fetchOneMapRoutes(start, end, departure), oneMapDelay)));
+        };
+    }
+
+    private static <T> Mono<T> delayed(Mono<T> call, Supplier<Duration> delay) {
+        return Mono.defer(() -> {
+            Duration wait = delay.get();
+            return wait.isZero() ? call : Mono.delay(wait).then(call);
+        });
+    }
+
+    private Mono<List<DirectionsResponseDTO.RouteDTO>> fetchLocalRoutes(String start, String end, LocalDateTime departure) {
+        if (localRouter == null) {
+            return Mono.just(List.of());
+        }
+        return Mono.fromCallable(() -> localRouter.route(
+                        Coordinates.fromString(start), Coordinates.fromString(end), departure.toLocalTime()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(this::addAlternativeServices);
+    }
+
+    private Mono<List<DirectionsResponseDTO.RouteDTO>> fetchOneMapRoutes(String start, String end, LocalDateTime departure) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/public/routingsvc/route")
+                        .queryParam("start", start)
+                        .queryParam("end", end)
+                        .queryParam("routeType", "pt")
+                        .queryParam("mode", "BUS")
+                        .queryParam("date", departure.format(DATE_FMT))
+                        .queryParam("time", departure.format(TIME_FMT))
+                        .queryParam("numItineraries", MAX_ITINERARIES)
+                        .build())
+                .header(HttpHeaders.AUTHORIZATION, oneMapToken)
+                .retrieve()
+                // Decoded from the network buffers; only the tree is built, never the raw body text
+                .bodyToMono(JsonNode.class)
+                .timeout(oneMapTimeout)
+                .map(this::parseRoutesOnly)
+                .map(this::addAlternativeServices);
+    }
+
+    /**
+     * Lists, on each bus leg, the other services that serve the same boarding and alighting stops,
+     * so riders can take whichever comes first.
+     */
+    private List<DirectionsResponseDTO.RouteDTO> addAlternativeServices(List<DirectionsResponseDTO.RouteDTO> routes) {
+        BusRouteIndex index = routeIndexManager == null ? BusRouteIndex.EMPTY : routeIndexManager.current();
+        if (index.isEmpty()) {
+            return routes;
+        }
+        return routes.stream()
+                .map(route -> new DirectionsResponseDTO.RouteDTO(
+                        route.durationInMinutes(),
+                        route.legs().stream()
+                                .map(leg -> "BUS".equals(leg.type())
+                                        ? leg.withAlternativeServices(index.servicesBetween(leg.fromStopCode(), leg.toStopCode())
+                                                .stream()
+                                                .filter(serviceNo -> !serviceNo.equals(leg.busServiceNumber()))
+                                                .toList())
+                                        : leg)
+                                .toList(),
+                        route.summary()))
+                .toList();
+    }
+
+    private List<DirectionsResponseDTO.RouteDTO> parseRoutesOnly(JsonNode root) {
         try {
-            JsonNode root = objectMapper.readTree(jsonResponse);
             JsonNode planNode = root.path("plan");
 
             if (planNode.isMissingNode() || planNode.isNull()) {
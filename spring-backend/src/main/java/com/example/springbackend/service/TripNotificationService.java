@@ -1,6 +1,7 @@
 package com.example.springbackend.service;
 
 import com.example.springbackend.model.BusArrival;
+import com.example.springbackend.model.Coordinates;
 import com.example.springbackend.model.Trip;
 import com.example.springbackend.service.implementation.BusService;
 import lombok.RequiredArgsConstructor;
@@ -84,7 +85,7 @@ public class TripNotificationService {
         return getBusServiceNumberForNextLeg(trip)
                 .flatMap(busInfo -> {
                     if (busInfo.busStopName() != null && busInfo.serviceNumber() != null) {
-                        return getBusArrivalTimes(busInfo.busStopName(), busInfo.serviceNumber())
+                        return getBusArrivalTimes(busInfo)
                                 .flatMap(arrivalTimes -> {
                                     if (!arrivalTimes.isEmpty()) {
                                         String nextArrival = formatArrivalTime(arrivalTimes.get(0));
@@ -142,14 +143,14 @@ public class TripNotificationService {
         for (int i = currentLegIndex; i < legs.size(); i++) {
             Trip.TripLeg leg = legs.get(i);
             if ("BUS".equalsIgnoreCase(leg.getType())) {
-                return Mono.just(new BusInfo(leg.getFromStopName(), leg.getBusServiceNumber()));
+                return Mono.just(new BusInfo(leg.getFromStopName(), leg.getFromStopCode(), leg.getBusServiceNumber(), firstPoint(leg)));
             }
 
             // If current leg is WALK, check if it leads to a bus stop
             if ("WALK".equalsIgnoreCase(leg.getType()) && i + 1 < legs.size()) {
                 Trip.TripLeg nextLeg = legs.get(i + 1);
                 if ("BUS".equalsIgnoreCase(nextLeg.getType())) {
-                    return Mono.just(new BusInfo(leg.getToStopName(), nextLeg.getBusServiceNumber()));
+                    return Mono.just(new BusInfo(leg.getToStopName(), nextLeg.getFromStopCode(), nextLeg.getBusServiceNumber(), firstPoint(nextLeg)));
                 }
             }
         }
@@ -158,22 +159,28 @@ public class TripNotificationService {
     }
 
     /**
-     * Gets bus arrival times using the existing bus service
+     * Gets bus arrival times using the existing bus service.
+     * The boarding stop is resolved by its LTA code, then by location, falling back to name search.
      */
-    private Mono<List<ZonedDateTime>> getBusArrivalTimes(String busStopName, String serviceNumber) {
+    private Mono<List<ZonedDateTime>> getBusArrivalTimes(BusInfo busInfo) {
+        String busStopName = busInfo.busStopName();
+        String serviceNumber = busInfo.serviceNumber();
         if (busStopName == null || serviceNumber == null) {
             return Mono.empty();
         }
 
-        return busService.searchBusStops(busStopName)
-                .next() // Get first matching bus stop
-                .flatMapMany(busService::getArrivalsForStop)
-                .filter(arrival -> serviceNumber.equalsIgnoreCase(arrival.serviceName()))
+        return busService.resolveBoardingStop(busInfo.busStopCode(), busStopName, busInfo.location())
+                .flatMapMany(stop -> busService.getArrivalsForStop(stop, serviceNumber))
                 .next() // Get first matching service
                 .map(BusArrival::arrivals)
                 .onErrorReturn(List.of()); // Return empty list on error
     }
 
+    private static Coordinates firstPoint(Trip.TripLeg leg) {
+        List<Coordinates> points = leg.getRoutePoints();
+        return points == null || points.isEmpty() ? null : points.get(0);
+    }
+
     /**
      * Formats arrival time for display
      */
@@ -206,5 +213,5 @@ public class TripNotificationService {
     /**
      * Helper record to store bus information
      */
-    private record BusInfo(String busStopName, String serviceNumber) {}
+    private record BusInfo(String busStopName, String busStopCode, String serviceNumber, Coordinates location) {}
 }
\ No newline at end of file
@@ -234,7 +234,7 @@ public class TripService {
                         .busServiceNumber(leg.busServiceNumber())
                         .instruction(leg.instruction())
                         .legGeometry(leg.legGeometry())
-                        .routePoints(leg.routePoints())
+                        .encodedRoutePoints(leg.encodedPoints())
                         .fromStopName(leg.fromStopName())
                         .fromStopCode(leg.fromStopCode())
                         .toStopName(leg.toStopName())
@@ -0,0 +1,248 @@
+package com.example.springbackend.service.implementation;
+
+import com.example.springbackend.model.ArrivalSample;
+import com.example.springbackend.model.BusArrival;
+import com.example.springbackend.model.StopArrivals;
+import com.example.springbackend.repository.ArrivalSampleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Samples live arrivals into the arrival_samples time-series collection and keeps the
+ * {@link HeadwayModel} trained on them.
+ *
+ * Each stop is sampled at most once per {@code sampleInterval}, however often it is read, and samples
+ * are written in batches on a schedule. Raw samples expire after 28 days; the model is rebuilt daily
+ * from that window, which is the downsampled form kept for the long run: one mean headway per stop,
+ * service and quarter-hour of the day. Samples are best effort and are dropped rather than queued
+ * without bound when Mongo falls behind.
+ */
+@Component
+public class ArrivalHistoryStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ArrivalHistoryStore.class);
+
+    private static final int MAX_QUEUED = 20_000;
+    private static final int BATCH_SIZE = 500;
+    private static final Duration MODEL_WINDOW = Duration.ofDays(28);
+
+    private final ArrivalSampleRepository repository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final HeadwayModel headwayModel;
+    private final Duration sampleInterval;
+    private final Clock clock;
+
+    private final Queue<ArrivalSample> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Map<String, Instant> lastSampled = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    private final Counter written;
+    private final Counter dropped;
+
+    @Autowired
+    public ArrivalHistoryStore(ArrivalSampleRepository repository,
+                               ReactiveMongoTemplate mongoTemplate,
+                               HeadwayModel headwayModel,
+                               MeterRegistry meterRegistry,
+                               @Value("${bus.arrivals.history.sample-interval:PT2M}") Duration sampleInterval) {
+        this(repository, mongoTemplate, headwayModel, meterRegistry, sampleInterval, Clock.systemUTC());
+    }
+
+    public ArrivalHistoryStore(ArrivalSampleRepository repository, ReactiveMongoTemplate mongoTemplate,
+                               HeadwayModel headwayModel, MeterRegistry meterRegistry,
+                               Duration sampleInterval, Clock clock) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.headwayModel = headwayModel;
+        this.sampleInterval = sampleInterval;
+        this.clock = clock;
+
+        this.written = sampleCounter(meterRegistry, "written");
+        this.dropped = sampleCounter(meterRegistry, "dropped");
+    }
+
+    /**
+     * Samples a live result if the stop has not been sampled within the interval.
+     * Stale and predicted results are ignored.
+     */
+    public void record(StopArrivals data) {
+        if (data.stale() || data.predicted()) {
+            return;
+        }
+        String stopKey = HeadwayModel.stopKey(data.sourceApi(), data.stopCode());
+        Instant observedAt = data.fetchedAt();
+        boolean[] due = {false};
+        lastSampled.compute(stopKey, (key, previous) -> {
+            if (previous != null && observedAt.isBefore(previous.plus(sampleInterval))) {
+                return previous;
+            }
+            due[0] = true;
+            return observedAt;
+        });
+        if (!due[0]) {
+            return;
+        }
+
+        int slot = HeadwayModel.slotOf(observedAt);
+        for (BusArrival arrival : data.arrivals()) {
+            if (arrival.etaCount() == 0) {
+                continue;
+            }
+            Integer headway = arrival.etaCount() < 2
+                    ? null : (int) (arrival.etaEpochSecond(1) - arrival.etaEpochSecond(0));
+            if (headway != null) {
+                headwayModel.observe(stopKey, arrival.serviceName(), arrival.operator(), slot, headway);
+            }
+            if (pendingCount.incrementAndGet() > MAX_QUEUED) {
+                pendingCount.decrementAndGet();
+                dropped.increment();
+                continue;
+            }
+            pending.add(ArrivalSample.builder()
+                    .observedAt(observedAt)
+                    .stopKey(stopKey)
+                    .serviceName(arrival.serviceName())
+                    .operator(arrival.operator())
+                    .slot(slot)
+                    .firstEtaSeconds((int) (arrival.etaEpochSecond(0) - observedAt.getEpochSecond()))
+                    .headwaySeconds(headway)
+                    .build());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bus.arrivals.history.flush-interval-ms:30000}",
+            initialDelayString = "${bus.arrivals.history.flush-interval-ms:30000}")
+    public void flushPending() {
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        flush()
+                .doFinally(signal -> flushing.set(false))
+                .subscribe(
+                        count -> log.debug("Wrote {} arrival sample(s)", count),
+                        error -> log.warn("Writing arrival samples failed: {}", error.getMessage()));
+    }
+
+    /**
+     * Writes everything queued so far in batches.
+     * @return Number of samples written.
+     */
+    public Mono<Long> flush() {
+        return Flux.defer(() -> Flux.fromIterable(drain()))
+                .buffer(BATCH_SIZE)
+                .concatMap(batch -> repository.saveAll(batch)
+                        .count()
+                        .onErrorResume(error -> {
+                            dropped.increment(batch.size());
+                            log.warn("Dropped {} arrival sample(s): {}", batch.size(), error.getMessage());
+                            return Mono.just(0L);
+                        }))
+                .reduce(0L, Long::sum)
+                .doOnNext(written::increment);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        ensureCollection()
+                .then(rebuildModel())
+                .subscribe(
+                        headways -> log.info("Headway model loaded with {} stop/service/slot entries", headways),
+                        error -> log.warn("Arrival history unavailable, predictions start from scratch: {}",
+                                error.getMessage()));
+    }
+
+    @Scheduled(cron = "${bus.arrivals.history.rebuild-cron:0 30 3 * * *}", zone = "Asia/Singapore")
+    public void rebuildDaily() {
+        rebuildModel().subscribe(
+                headways -> log.info("Headway model rebuilt with {} stop/service/slot entries", headways),
+                error -> log.warn("Headway model rebuild failed, keeping the current model: {}", error.getMessage()));
+    }
+
+    /**
+     * Retrains the headway model on the stored window of samples. An empty history keeps the current model.
+     * @return Number of stop, service and slot entries loaded.
+     */
+    public Mono<Integer> rebuildModel() {
+        return Mono.defer(() -> {
+            Aggregation aggregation = Aggregation.newAggregation(
+                    Aggregation.match(Criteria.where("observedAt").gte(clock.instant().minus(MODEL_WINDOW))
+                            .and("headwaySeconds").gte(HeadwayModel.MIN_HEADWAY_SECONDS)
+                            .lte(HeadwayModel.MAX_HEADWAY_SECONDS)),
+                    Aggregation.group("stopKey", "serviceName", "slot")
+                            .first("operator").as("operator")
+                            .avg("headwaySeconds").as("meanSeconds")
+                            .count().as("samples"));
+            return mongoTemplate.aggregate(aggregation, ArrivalSample.class, Document.class)
+                    .map(ArrivalHistoryStore::toHeadway)
+                    .collectList()
+                    .doOnNext(headways -> {
+                        if (!headways.isEmpty()) {
+                            headwayModel.replaceAll(headways);
+                        }
+                    })
+                    .map(List::size);
+        });
+    }
+
+    // Inserting into a missing collection would create a plain one, so create the time-series collection first
+    private Mono<Void> ensureCollection() {
+        return mongoTemplate.collectionExists(ArrivalSample.class)
+                .flatMap(exists -> exists ? Mono.empty() : mongoTemplate.createCollection(ArrivalSample.class))
+                .then();
+    }
+
+    private List<ArrivalSample> drain() {
+        List<ArrivalSample> drained = new ArrayList<>();
+        ArrivalSample sample;
+        while ((sample = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            drained.add(sample);
+        }
+        return drained;
+    }
+
+    private static HeadwayModel.Headway toHeadway(Document row) {
+        Document id = row.get("_id", Document.class);
+        return new HeadwayModel.Headway(
+                id.getString("stopKey"),
+                id.getString("serviceName"),
+                row.getString("operator"),
+                ((Number) id.get("slot")).intValue(),
+                ((Number) row.get("meanSeconds")).doubleValue(),
+                ((Number) row.get("samples")).longValue());
+    }
+
+    private static Counter sampleCounter(MeterRegistry registry, String result) {
+        return Counter.builder("bus.arrivals.history.samples")
+                .description("Arrival samples by outcome")
+                .tag("result", result)
+                .register(registry);
+    }
+}
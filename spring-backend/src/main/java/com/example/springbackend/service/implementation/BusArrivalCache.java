@@ -0,0 +1,249 @@
+package com.example.springbackend.service.implementation;
+
+import com.example.springbackend.model.BusArrival;
+import com.example.springbackend.model.StopArrivals;
+import com.example.springbackend.service.BusServiceProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of arrivals per stop.
+ *
+ * A stop's arrivals are reused for {@code ttl}. After that, and up to {@code maxStale}, they are still
+ * served at once, flagged stale, while a background call refreshes them (stale-while-revalidate).
+ * Only callers with no usable data wait on upstream, and every concurrent caller for the same stop
+ * shares that one call. Upstream traffic therefore scales with the number of distinct stops being
+ * watched rather than with the number of users, and a slow provider does not hold up requests for
+ * stops it has recently answered. Upstream calls go through the provider's circuit breaker.
+ */
+@Component
+public class BusArrivalCache {
+
+    private static final Logger log = LoggerFactory.getLogger(BusArrivalCache.class);
+
+    private static final Duration IDLE_EVICTION = Duration.ofMinutes(5);
+
+    private final Duration ttl;
+    private final Duration maxStale;
+    private final ProviderCircuitBreakers circuitBreakers;
+    private final Clock clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter prefetchFetched;
+    private final Counter prefetchUsed;
+    private final Counter prefetchWasted;
+
+    @Autowired
+    public BusArrivalCache(MeterRegistry meterRegistry,
+                           ProviderCircuitBreakers circuitBreakers,
+                           @Value("${bus.arrivals.cache-ttl:PT15S}") Duration ttl,
+                           @Value("${bus.arrivals.max-stale:PT2M}") Duration maxStale) {
+        this(meterRegistry, circuitBreakers, ttl, maxStale, Clock.systemUTC());
+    }
+
+    public BusArrivalCache(MeterRegistry meterRegistry, ProviderCircuitBreakers circuitBreakers,
+                           Duration ttl, Duration maxStale, Clock clock) {
+        this.ttl = ttl;
+        this.maxStale = maxStale;
+        this.circuitBreakers = circuitBreakers;
+        this.clock = clock;
+
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.staleHits = lookupCounter(meterRegistry, "stale");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        this.coalesced = lookupCounter(meterRegistry, "coalesced");
+        this.prefetchFetched = prefetchCounter(meterRegistry, "fetched");
+        this.prefetchUsed = prefetchCounter(meterRegistry, "used");
+        this.prefetchWasted = prefetchCounter(meterRegistry, "wasted");
+        Gauge.builder("bus.arrivals.cache.size", entries, Map::size)
+                .description("Number of stops and single-service lookups with cached arrivals")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the stop's arrivals: fresh from the cache, stale from the cache while refreshing in the
+     * background, or from upstream when nothing usable is cached. Failed upstream calls are not cached.
+     */
+    public Mono<StopArrivals> get(BusServiceProvider provider, String stopCode) {
+        return lookup(key(provider.getApiName(), stopCode), provider, stopCode,
+                () -> provider.getBusArrivals(stopCode));
+    }
+
+    /**
+     * Returns one service's arrivals at a stop, or all of them when {@code serviceNo} is blank.
+     * Fresh whole-stop data answers without an upstream call. Otherwise providers that filter upstream
+     * are asked for the one service, cached under its own entry; for the rest the whole stop is fetched
+     * and cached, then filtered.
+     */
+    public Mono<StopArrivals> get(BusServiceProvider provider, String stopCode, String serviceNo) {
+        if (serviceNo == null || serviceNo.isBlank()) {
+            return get(provider, stopCode);
+        }
+        return Mono.defer(() -> {
+            Instant now = clock.instant();
+            Entry stopEntry = entries.get(key(provider.getApiName(), stopCode));
+            StopArrivals stop = stopEntry == null ? null : stopEntry.value;
+            if (stop != null && stop.fetchedAt().plus(ttl).isAfter(now)) {
+                stopEntry.lastAccess = now;
+                hits.increment();
+                markRead(stopEntry);
+                return Mono.just(stop.forService(serviceNo));
+            }
+            if (!provider.filtersServicesUpstream()) {
+                return get(provider, stopCode).map(data -> data.forService(serviceNo));
+            }
+            // Only the key is case-folded: LTA express services such as "12e" must be sent as published
+            String service = serviceNo.trim();
+            return lookup(key(provider.getApiName(), stopCode) + "#" + service.toUpperCase(Locale.ROOT),
+                    provider, stopCode, () -> provider.getBusArrivals(stopCode, service));
+        });
+    }
+
+    private Mono<StopArrivals> lookup(String key, BusServiceProvider provider, String stopCode,
+                                      Supplier<Flux<BusArrival>> fetch) {
+        return Mono.defer(() -> {
+            Instant now = clock.instant();
+            Entry entry = entries.computeIfAbsent(key, k -> new Entry(now));
+            entry.lastAccess = now;
+
+            StopArrivals cached = entry.value;
+            if (cached != null && cached.fetchedAt().plus(ttl).isAfter(now)) {
+                hits.increment();
+                markRead(entry);
+                return Mono.just(cached);
+            }
+            if (cached != null && cached.fetchedAt().plus(maxStale).isAfter(now)) {
+                staleHits.increment();
+                markRead(entry);
+                load(entry, provider, stopCode, fetch, false).subscribe(
+                        refreshed -> { },
+                        error -> log.debug("Background arrivals refresh for {} stop {} failed: {}",
+                                provider.getApiName(), stopCode, error.getMessage()));
+                return Mono.just(cached.asStale());
+            }
+            (entry.inFlight.get() == null ? misses : coalesced).increment();
+            entry.awaitedByCaller = true;
+            return load(entry, provider, stopCode, fetch, false);
+        });
+    }
+
+    /**
+     * Refreshes a stop ahead of demand unless its cached arrivals stay fresh for at least {@code horizon}.
+     * Emits whether an upstream call was made. Prefetching is not a read: prefetched data that is
+     * replaced or evicted before anyone reads it is counted as wasted.
+     */
+    public Mono<Boolean> prefetch(BusServiceProvider provider, String stopCode, Duration horizon) {
+        return Mono.defer(() -> {
+            Instant now = clock.instant();
+            Entry entry = entries.computeIfAbsent(key(provider.getApiName(), stopCode), k -> new Entry(now));
+            StopArrivals cached = entry.value;
+            if (entry.inFlight.get() != null
+                    || (cached != null && cached.fetchedAt().plus(ttl).isAfter(now.plus(horizon)))) {
+                return Mono.just(false);
+            }
+            prefetchFetched.increment();
+            return load(entry, provider, stopCode, () -> provider.getBusArrivals(stopCode), true).thenReturn(true);
+        });
+    }
+
+    /**
+     * Drops stops nobody has asked about recently, so the cache only holds stops being watched.
+     */
+    @Scheduled(fixedDelayString = "${bus.arrivals.cache-sweep-interval-ms:60000}")
+    public void evictIdle() {
+        Instant cutoff = clock.instant().minus(IDLE_EVICTION);
+        entries.values().removeIf(entry -> {
+            boolean idle = entry.inFlight.get() == null && entry.lastAccess.isBefore(cutoff);
+            if (idle && entry.prefetchedUnread) {
+                prefetchWasted.increment();
+            }
+            return idle;
+        });
+    }
+
+    private void markRead(Entry entry) {
+        if (entry.prefetchedUnread) {
+            entry.prefetchedUnread = false;
+            prefetchUsed.increment();
+        }
+    }
+
+    // Single-flight: concurrent callers for one stop share the in-flight upstream call
+    private Mono<StopArrivals> load(Entry entry, BusServiceProvider provider, String stopCode,
+                                    Supplier<Flux<BusArrival>> fetch, boolean prefetch) {
+        Mono<StopArrivals> running = entry.inFlight.get();
+        if (running != null) {
+            return running;
+        }
+        String sourceApi = provider.getApiName();
+        // Cleared before the result reaches callers, so a lookup they start next loads afresh
+        Mono<StopArrivals> load = circuitBreakers
+                .protect(sourceApi, fetch.get().collectList())
+                .map(arrivals -> new StopArrivals(sourceApi, stopCode, arrivals, clock.instant()))
+                .doOnNext(arrivals -> {
+                    if (entry.prefetchedUnread) {
+                        prefetchWasted.increment();
+                    }
+                    // A caller waiting on this load reads it straight away, so it is not unread prefetched data
+                    entry.prefetchedUnread = prefetch && !entry.awaitedByCaller;
+                    entry.awaitedByCaller = false;
+                    entry.value = arrivals;
+                })
+                .doOnTerminate(() -> entry.inFlight.set(null))
+                .cache();
+        Mono<StopArrivals> winner = entry.inFlight.compareAndExchange(null, load);
+        return winner != null ? winner : load;
+    }
+
+    private static String key(String sourceApi, String stopCode) {
+        return sourceApi + ":" + stopCode;
+    }
+
+    private static Counter lookupCounter(MeterRegistry registry, String result) {
+        return Counter.builder("bus.arrivals.cache")
+                .description("Arrival lookups by cache outcome")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static Counter prefetchCounter(MeterRegistry registry, String result) {
+        return Counter.builder("bus.arrivals.prefetch")
+                .description("Prefetched stop arrivals by outcome")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static final class Entry {
+        private final AtomicReference<Mono<StopArrivals>> inFlight = new AtomicReference<>();
+        private volatile StopArrivals value;
+        private volatile Instant lastAccess;
+        private volatile boolean prefetchedUnread;
+        private volatile boolean awaitedByCaller;
+
+        private Entry(Instant lastAccess) {
+            this.lastAccess = lastAccess;
+        }
+    }
+}
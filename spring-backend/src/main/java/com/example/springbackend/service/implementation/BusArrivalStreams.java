@@ -0,0 +1,148 @@
+package com.example.springbackend.service.implementation;
+
+import com.example.springbackend.dto.response.ArrivalStreamEvent;
+import com.example.springbackend.model.BusArrival;
+import com.example.springbackend.model.BusStop;
+import com.example.springbackend.model.StopArrivals;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Live arrivals per stop, pushed to any number of subscribers from one shared poller.
+ *
+ * The poller for a stop starts with its first subscriber and is cancelled and forgotten when the last one leaves.
+ * It reads through the arrivals cache and only publishes when some service's ETAs changed.
+ * A new subscriber first gets the latest full snapshot, then only the services that changed.
+ * ETAs are compared to the minute, which is what the app displays; NUS ETAs are whole minutes anyway.
+ */
+@Component
+public class BusArrivalStreams {
+
+    private static final Logger log = LoggerFactory.getLogger(BusArrivalStreams.class);
+
+    private final BusService busService;
+    private final Duration pollInterval;
+    private final Map<String, Flux<StopUpdate>> pollers = new ConcurrentHashMap<>();
+
+    public BusArrivalStreams(BusService busService,
+                             MeterRegistry meterRegistry,
+                             @Value("${bus.arrivals.stream.poll-interval:PT15S}") Duration pollInterval) {
+        this.busService = busService;
+        this.pollInterval = pollInterval;
+        Gauge.builder("bus.arrivals.stream.pollers", pollers, Map::size)
+                .description("Stops with an active shared arrivals poller")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Streams a stop's arrivals: one snapshot, then deltas as ETAs change.
+     * @param stop The stop to watch.
+     * @param serviceNo Optional service to restrict the stream to.
+     */
+    public Flux<ArrivalStreamEvent> stream(BusStop stop, String serviceNo) {
+        Flux<StopUpdate> shared = pollers.computeIfAbsent(stop.sourceApi() + ":" + stop.code(), key -> poll(key, stop));
+        return shared.index()
+                .map(indexed -> indexed.getT1() == 0
+                        ? snapshotEvent(indexed.getT2().current(), serviceNo)
+                        : deltaEvent(indexed.getT2(), serviceNo))
+                .filter(event -> event.type().equals(ArrivalStreamEvent.SNAPSHOT)
+                        || !event.arrivals().isEmpty() || !event.removedServices().isEmpty());
+    }
+
+    private Flux<StopUpdate> poll(String key, BusStop stop) {
+        AtomicReference<Flux<StopUpdate>> self = new AtomicReference<>();
+        Flux<StopUpdate> shared = Flux.interval(Duration.ZERO, pollInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> busService.getStopArrivals(stop)
+                        .onErrorResume(error -> {
+                            log.debug("Arrivals poll for {} stop {} failed: {}",
+                                    stop.sourceApi(), stop.code(), error.getMessage());
+                            return Mono.empty();
+                        }), 0)
+                .scan(StopUpdate.NONE, StopUpdate::next)
+                .filter(update -> update.current() != null && (update.first() || update.hasChanges()))
+                // Runs when the last subscriber leaves; a newer poller for the stop is left in place
+                .doFinally(signal -> pollers.remove(key, self.get()))
+                .replay(1)
+                .refCount();
+        self.set(shared);
+        return shared;
+    }
+
+    private static ArrivalStreamEvent snapshotEvent(StopArrivals data, String serviceNo) {
+        return new ArrivalStreamEvent(ArrivalStreamEvent.SNAPSHOT, data.sourceApi(), data.stopCode(),
+                filter(data.arrivals(), serviceNo), List.of(), data.ageSeconds(Instant.now()), data.stale());
+    }
+
+    private static ArrivalStreamEvent deltaEvent(StopUpdate update, String serviceNo) {
+        StopArrivals data = update.current();
+        return new ArrivalStreamEvent(ArrivalStreamEvent.DELTA, data.sourceApi(), data.stopCode(),
+                filter(update.changed(), serviceNo),
+                update.removed().stream().filter(service -> matches(service, serviceNo)).toList(),
+                data.ageSeconds(Instant.now()), data.stale());
+    }
+
+    private static List<BusArrival> filter(List<BusArrival> arrivals, String serviceNo) {
+        return arrivals.stream().filter(arrival -> matches(arrival.serviceName(), serviceNo)).toList();
+    }
+
+    private static boolean matches(String service, String serviceNo) {
+        return serviceNo == null || serviceNo.isBlank() || serviceNo.equalsIgnoreCase(service);
+    }
+
+    /**
+     * A poll result together with how it differs from the previous one.
+     */
+    record StopUpdate(StopArrivals current, List<BusArrival> changed, List<String> removed, boolean first) {
+
+        static final StopUpdate NONE = new StopUpdate(null, List.of(), List.of(), false);
+
+        boolean hasChanges() {
+            return !changed.isEmpty() || !removed.isEmpty();
+        }
+
+        StopUpdate next(StopArrivals polled) {
+            Map<String, BusArrival> before = new HashMap<>();
+            if (current != null) {
+                current.arrivals().forEach(arrival -> before.put(arrival.serviceName(), arrival));
+            }
+            List<BusArrival> changedServices = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (BusArrival arrival : polled.arrivals()) {
+                seen.add(arrival.serviceName());
+                if (!sameMinutes(arrival, before.get(arrival.serviceName()))) {
+                    changedServices.add(arrival);
+                }
+            }
+            List<String> removedServices = before.keySet().stream()
+                    .filter(service -> !seen.contains(service))
+                    .sorted()
+                    .toList();
+            return new StopUpdate(polled, changedServices, removedServices, current == null);
+        }
+
+        private static boolean sameMinutes(BusArrival a, BusArrival b) {
+            if (b == null || a.etaCount() != b.etaCount()) {
+                return false;
+            }
+            for (int i = 0; i < a.etaCount(); i++) {
+                if (Math.floorDiv(a.etaEpochSecond(i), 60) != Math.floorDiv(b.etaEpochSecond(i), 60)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
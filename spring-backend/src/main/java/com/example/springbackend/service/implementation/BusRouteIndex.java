@@ -0,0 +1,149 @@
+package com.example.springbackend.service.implementation;
+
+import com.example.springbackend.dto.LtaDtos;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable index over the LTA BusRoutes and BusServices datasets: which services call at a stop,
+ * and the ordered stops of each service direction.
+ *
+ * Unlike live arrivals, this lists every scheduled service, including night and peak-only services
+ * that have no bus arriving at the moment.
+ */
+public class BusRouteIndex {
+
+    public static final BusRouteIndex EMPTY = new BusRouteIndex(Map.of(), Map.of(), Instant.EPOCH);
+
+    /**
+     * Orders service numbers the way they appear on stop signage: by number, then suffix ("2", "10", "10e", "NR1").
+     */
+    public static final Comparator<String> SERVICE_ORDER = Comparator
+            .comparingInt(BusRouteIndex::leadingNumber)
+            .thenComparing(Comparator.naturalOrder());
+
+    private final Map<String, List<String>> servicesByStop;
+    private final Map<String, List<Route>> routesByService;
+    private final Instant loadedAt;
+
+    private BusRouteIndex(Map<String, List<String>> servicesByStop, Map<String, List<Route>> routesByService,
+                          Instant loadedAt) {
+        this.servicesByStop = servicesByStop;
+        this.routesByService = routesByService;
+        this.loadedAt = loadedAt;
+    }
+
+    public static BusRouteIndex build(Collection<LtaDtos.BusRoute> routeStops,
+                                      Collection<LtaDtos.BusService> services,
+                                      Instant loadedAt) {
+        Map<String, LtaDtos.BusService> serviceInfo = new HashMap<>();
+        for (LtaDtos.BusService service : services) {
+            if (service.serviceNo() != null) {
+                serviceInfo.put(routeKey(service.serviceNo(), service.direction()), service);
+            }
+        }
+
+        Map<String, List<LtaDtos.BusRoute>> stopsByRoute = routeStops.stream()
+                .filter(stop -> stop.serviceNo() != null && stop.busStopCode() != null)
+                .collect(Collectors.groupingBy(stop -> routeKey(stop.serviceNo(), stop.direction())));
+
+        Map<String, Set<String>> servicesByStop = new HashMap<>();
+        Map<String, List<Route>> routesByService = new HashMap<>();
+        for (List<LtaDtos.BusRoute> routeStopsOfOne : stopsByRoute.values()) {
+            routeStopsOfOne.sort(Comparator.comparingInt(LtaDtos.BusRoute::stopSequence));
+            LtaDtos.BusRoute first = routeStopsOfOne.get(0);
+            List<String> stopCodes = routeStopsOfOne.stream().map(LtaDtos.BusRoute::busStopCode).toList();
+            LtaDtos.BusService info = serviceInfo.get(routeKey(first.serviceNo(), first.direction()));
+
+            routesByService.computeIfAbsent(first.serviceNo(), k -> new ArrayList<>()).add(new Route(
+                    first.serviceNo(),
+                    first.direction(),
+                    info == null ? null : info.operator(),
+                    info == null ? null : info.category(),
+                    stopCodes));
+            for (String stopCode : stopCodes) {
+                servicesByStop.computeIfAbsent(stopCode, k -> new HashSet<>()).add(first.serviceNo());
+            }
+        }
+
+        Map<String, List<String>> sortedServicesByStop = new HashMap<>();
+        servicesByStop.forEach((stop, serviceNos) ->
+                sortedServicesByStop.put(stop, serviceNos.stream().sorted(SERVICE_ORDER).toList()));
+        routesByService.values().forEach(routes -> routes.sort(Comparator.comparingInt(Route::direction)));
+
+        return new BusRouteIndex(Map.copyOf(sortedServicesByStop), Map.copyOf(routesByService), loadedAt);
+    }
+
+    public Instant loadedAt() {
+        return loadedAt;
+    }
+
+    public boolean isEmpty() {
+        return routesByService.isEmpty();
+    }
+
+    public int serviceCount() {
+        return routesByService.size();
+    }
+
+    public int stopCount() {
+        return servicesByStop.size();
+    }
+
+    /**
+     * Every service scheduled to call at a stop, in signage order.
+     */
+    public List<String> servicesAt(String stopCode) {
+        return stopCode == null ? List.of() : servicesByStop.getOrDefault(stopCode.trim(), List.of());
+    }
+
+    /**
+     * Both directions of a service (one for loop services), each with its stops in calling order.
+     */
+    public List<Route> routesOf(String serviceNo) {
+        return serviceNo == null ? List.of() : List.copyOf(routesByService.getOrDefault(serviceNo, List.of()));
+    }
+
+    /**
+     * Services that call at {@code fromStop} and later, in the same direction, at {@code toStop}.
+     */
+    public List<String> servicesBetween(String fromStop, String toStop) {
+        if (fromStop == null || toStop == null) {
+            return List.of();
+        }
+        return servicesAt(fromStop).stream()
+                .filter(serviceNo -> routesByService.getOrDefault(serviceNo, List.of()).stream()
+                        .anyMatch(route -> route.callsAtInOrder(fromStop, toStop)))
+                .toList();
+    }
+
+    private static String routeKey(String serviceNo, int direction) {
+        return serviceNo + "/" + direction;
+    }
+
+    private static int leadingNumber(String serviceNo) {
+        int value = 0;
+        int i = 0;
+        while (i < serviceNo.length() && i < 9 && Character.isDigit(serviceNo.charAt(i))) {
+            value = value * 10 + (serviceNo.charAt(i) - '0');
+            i++;
+        }
+        return i == 0 ? Integer.MAX_VALUE : value;
+    }
+
+    /**
+     * One direction of a service.
+     *
+     * @param category LTA category, e.g. "TRUNK", "EXPRESS", "NIGHT SERVICE"; null when BusServices lacks the route.
+     * @param stopCodes Stops in calling order.
+     */
+    public record Route(String serviceNo, int direction, String operator, String category, List<String> stopCodes) {
+
+        boolean callsAtInOrder(String fromStop, String toStop) {
+            int from = stopCodes.indexOf(fromStop);
+            return from >= 0 && stopCodes.subList(from + 1, stopCodes.size()).contains(toStop);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.springbackend.service.implementation;
+
+import com.example.springbackend.model.BusStop;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owns the static stop-to-service index and the local routing network built from LTA BusRoutes
+ * and BusServices, placed on the LTA stops of the {@link BusStopCatalogManager} catalog.
+ *
+ * The datasets change at most a few times a month, so both are loaded at startup and rebuilt
+ * once a day off-peak. A failed or empty rebuild keeps the index and network already being served;
+ * without catalog stops only the index is rebuilt. While either is still empty, loading is retried
+ * with backoff instead of waiting for the daily rebuild.
+ */
+@Component
+public class BusRouteIndexManager {
+
+    private static final Logger log = LoggerFactory.getLogger(BusRouteIndexManager.class);
+
+    private static final Duration MIN_RETRY_DELAY = Duration.ofMinutes(1);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+
+    private final LtaBusServiceProvider ltaProvider;
+    private final BusStopCatalogManager catalogManager;
+    private final AtomicReference<BusRouteIndex> current = new AtomicReference<>(BusRouteIndex.EMPTY);
+    private final AtomicReference<TransitNetwork> network = new AtomicReference<>(TransitNetwork.EMPTY);
+    private final AtomicReference<Mono<BusRouteIndex>> inFlight = new AtomicReference<>();
+
+    private volatile Instant nextRetryAt = Instant.MIN;
+    private volatile Duration retryDelay = MIN_RETRY_DELAY;
+
+    public BusRouteIndexManager(LtaBusServiceProvider ltaProvider, BusStopCatalogManager catalogManager,
+                                MeterRegistry meterRegistry) {
+        this.ltaProvider = ltaProvider;
+        this.catalogManager = catalogManager;
+
+        Gauge.builder("bus.routes.services", this, m -> m.current().serviceCount())
+                .description("Number of services in the route index")
+                .register(meterRegistry);
+        Gauge.builder("bus.routes.age", this, m -> m.current().isEmpty()
+                        ? -1 : Duration.between(m.current().loadedAt(), Instant.now()).toSeconds())
+                .description("Seconds since the route index was built")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("bus.routes.network.stops", this, m -> m.network().stopCount())
+                .description("Number of stops in the local routing network")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The index being served; {@link BusRouteIndex#EMPTY} until the first load succeeds.
+     */
+    public BusRouteIndex current() {
+        return current.get();
+    }
+
+    /**
+     * The network for local routing; {@link TransitNetwork#EMPTY} until the first load succeeds.
+     */
+    public TransitNetwork network() {
+        return network.get();
+    }
+
+    /**
+     * Rebuilds the index and network from upstream. Concurrent callers share one in-flight load.
+     */
+    public Mono<BusRouteIndex> refresh() {
+        Mono<BusRouteIndex> running = inFlight.get();
+        if (running != null) {
+            return running;
+        }
+        // Cleared before the result reaches callers, so a refresh they start next loads afresh
+        Mono<BusRouteIndex> load = Mono.zip(
+                        ltaProvider.getAllBusRoutes().collectList(),
+                        ltaProvider.getAllBusServices().collectList(),
+                        ltaStops())
+                .publishOn(Schedulers.boundedElastic())
+                .flatMap(data -> {
+                    Instant loadedAt = Instant.now();
+                    BusRouteIndex index = BusRouteIndex.build(data.getT1(), data.getT2(), loadedAt);
+                    if (index.isEmpty()) {
+                        return Mono.error(new IllegalStateException("empty bus route list"));
+                    }
+                    TransitNetwork built = TransitNetwork.build(data.getT3(), data.getT1(), data.getT2(), loadedAt);
+                    current.set(index);
+                    if (!built.isEmpty()) {
+                        network.set(built);
+                    }
+                    return Mono.just(index);
+                })
+                .doOnTerminate(() -> inFlight.set(null))
+                .cache();
+        Mono<BusRouteIndex> winner = inFlight.compareAndExchange(null, load);
+        return winner != null ? winner : load;
+    }
+
+    // The catalog already holds every LTA stop; a catalog failure should not fail the route index
+    private Mono<List<BusStop>> ltaStops() {
+        return catalogManager.catalog()
+                .map(catalog -> catalog.stopsFrom(ltaProvider.getApiName()))
+                .onErrorResume(error -> {
+                    log.warn("No stop catalog for the routing network: {}", error.getMessage());
+                    return Mono.just(List.of());
+                });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshOnStartup() {
+        subscribeToRefresh();
+    }
+
+    /**
+     * Ticks frequently but only goes upstream while the index or network is still empty, backing off
+     * from {@link #MIN_RETRY_DELAY} to {@link #MAX_RETRY_DELAY} between attempts.
+     */
+    @Scheduled(fixedDelayString = "${bus.routes.check-interval-ms:60000}", initialDelayString = "${bus.routes.check-interval-ms:60000}")
+    public void refreshIfDue() {
+        if (!current().isEmpty() && !network().isEmpty()) {
+            retryDelay = MIN_RETRY_DELAY;
+            return;
+        }
+        Instant now = Instant.now();
+        if (now.isBefore(nextRetryAt)) {
+            return;
+        }
+        nextRetryAt = now.plus(retryDelay);
+        Duration doubled = retryDelay.multipliedBy(2);
+        retryDelay = doubled.compareTo(MAX_RETRY_DELAY) > 0 ? MAX_RETRY_DELAY : doubled;
+        subscribeToRefresh();
+    }
+
+    @Scheduled(cron = "${bus.routes.refresh-cron:0 0 4 * * *}", zone = "Asia/Singapore")
+    public void refreshDaily() {
+        subscribeToRefresh();
+    }
+
+    private void subscribeToRefresh() {
+        refresh().subscribe(
+                index -> log.info("Bus route index built with {} services at {} stops",
+                        index.serviceCount(), index.stopCount()),
+                error -> log.warn("Bus route index refresh failed, keeping the current index: {}", error.getMessage()));
+    }
+}
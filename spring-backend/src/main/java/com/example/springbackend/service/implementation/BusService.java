@@ -1,23 +1,61 @@
 package com.example.springbackend.service.implementation;
 
+import com.example.springbackend.dto.request.BatchArrivalsRequest.StopRequest;
+import com.example.springbackend.dto.response.BatchArrivalsResponse;
+import com.example.springbackend.dto.response.BatchArrivalsResponse.Status;
+import com.example.springbackend.dto.response.BatchArrivalsResponse.StopResult;
 import com.example.springbackend.model.BusArrival;
 import com.example.springbackend.model.BusStop;
+import com.example.springbackend.model.Coordinates;
+import com.example.springbackend.model.NearbyBusStop;
+import com.example.springbackend.model.StopArrivals;
 import com.example.springbackend.service.BusServiceProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class BusService {
 
+    public static final double MAX_NEARBY_RADIUS_METERS = 2_000;
+    public static final int MAX_BATCH_STOPS = 30;
+    public static final double BOARDING_STOP_MAX_DISTANCE_METERS = 50;
+
+    private static final int BATCH_CONCURRENCY = 8;
+    private static final Duration BATCH_DEADLINE = Duration.ofSeconds(3);
+
+    private static final Logger log = LoggerFactory.getLogger(BusService.class);
+
     private final Map<String, BusServiceProvider> providerMap;
-    private final Flux<BusStop> allBusStopsCache;
+    private final BusStopCatalogManager catalogManager;
+    private final BusArrivalCache arrivalCache;
+    private final ArrivalHistoryStore history;
+    private final HeadwayModel headwayModel;
+    private final Duration latencyBudget;
 
     // Spring injects all beans that implement BusServiceProvider into the list
-    public BusService(List<BusServiceProvider> providers) {
+    @Autowired
+    public BusService(List<BusServiceProvider> providers, BusStopCatalogManager catalogManager,
+                      BusArrivalCache arrivalCache, ArrivalHistoryStore history, HeadwayModel headwayModel,
+                      @Value("${bus.arrivals.latency-budget:PT1.5S}") Duration latencyBudget) {
+        this.catalogManager = catalogManager;
+        this.arrivalCache = arrivalCache;
+        this.history = history;
+        this.headwayModel = headwayModel;
+        this.latencyBudget = latencyBudget;
+
         // Map provider API name -> provider instance
         this.providerMap = providers.stream()
                 .collect(Collectors.toMap(
@@ -25,43 +63,115 @@ public class BusService {
                         Function.identity()
                 ));
 
-        // Log available providers
-        System.out.println("Registered BusServiceProviders: " + providerMap.keySet());
-
-        // Merge all bus stops Flux from all providers
-        List<Flux<BusStop>> providerFluxes = providers.stream()
-                .map(provider -> {
-                    System.out.println("Fetching bus stops from provider: " + provider.getApiName());
-                    return provider.getAllBusStops()
-                            .doOnNext(stop -> System.out.printf("[%s] Loaded stop: %s (%s)%n",
-                                    provider.getApiName(), stop.name(), stop.code()));
-                })
-                .toList();
-
-        // Merge all streams into one and cache them for re-use
-        this.allBusStopsCache = Flux.merge(providerFluxes)
-                .cache(); // without a TTL means forever until process restart
+        log.info("Registered BusServiceProviders: {}", providerMap.keySet());
     }
 
+    // Each request reads one catalog version; refreshes swap whole versions in the manager
+    private Mono<BusStopCatalog> catalog() {
+        return catalogManager.catalog();
+    }
 
     /**
-     * Searches for bus stops across ALL providers.
+     * Searches for bus stops across ALL providers, returning every match in rank order.
+     * A blank query returns the whole catalog. Use {@link #searchBusStops(String, int, int)} to limit results.
      * @param query The user's search text.
      */
     public Flux<BusStop> searchBusStops(String query) {
-        if (query == null || query.isBlank()) {
-            // Return all stops or empty - choose your preference:
-            return allBusStopsCache; // or Flux.empty();
+        return catalog().map(BusStopCatalog::searchIndex)
+                .flatMapIterable(index -> query == null || query.isBlank()
+                        ? index.stops()
+                        : index.search(query, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Ranked search for bus stops across ALL providers.
+     * A blank query pages through the catalog instead of streaming all of it.
+     * @param query The user's search text.
+     * @param limit Maximum number of results (capped at {@link BusStopSearchIndex#MAX_LIMIT}).
+     * @param page Page number, only used when the query is blank.
+     */
+    public Flux<BusStop> searchBusStops(String query, int limit, int page) {
+        int cappedLimit = Math.min(Math.max(limit, 1), BusStopSearchIndex.MAX_LIMIT);
+        return catalog().map(BusStopCatalog::searchIndex)
+                .flatMapIterable(index -> query == null || query.isBlank()
+                        ? index.page(page, cappedLimit)
+                        : index.search(query, cappedLimit));
+    }
+
+    /**
+     * Exact O(1) lookup of a stop by provider and code.
+     * @param sourceApi The provider's API name (e.g. "LTA", "NUS").
+     * @param code The stop code.
+     */
+    public Mono<BusStop> findStop(String sourceApi, String code) {
+        return catalog().flatMap(c -> Mono.justOrEmpty(c.find(sourceApi, code)));
+    }
+
+    /**
+     * Resolves free text to a single stop: an exact code in any provider wins,
+     * otherwise the best-ranked search result.
+     */
+    public Mono<BusStop> resolveStop(String query) {
+        return catalog().flatMap(c -> Mono.justOrEmpty(c.findByCode(query)))
+                .switchIfEmpty(Mono.defer(() -> searchBusStops(query, 1, 0).next()));
+    }
+
+    /**
+     * Resolves the boarding stop of a route leg: by its LTA stop code, then by the leg's first point,
+     * falling back to searching the stop name.
+     * @param stopCode LTA stop code from the routing engine, may be null.
+     * @param stopName Stop name from the routing engine, may be null.
+     * @param location First point of the leg, may be null.
+     */
+    public Mono<BusStop> resolveBoardingStop(String stopCode, String stopName, Coordinates location) {
+        Mono<BusStop> byName = stopName == null || stopName.isBlank()
+                ? Mono.empty()
+                : Mono.defer(() -> searchBusStops(stopName, 1, 0).next());
+        Mono<BusStop> byLocation = location == null
+                ? byName
+                : findNearestStop(location.latitude(), location.longitude(), BOARDING_STOP_MAX_DISTANCE_METERS)
+                .switchIfEmpty(byName);
+        return stopCode == null || stopCode.isBlank()
+                ? byLocation
+                : findStop("LTA", stopCode).switchIfEmpty(byLocation);
+    }
+
+    /**
+     * Finds stops within a radius of a location, nearest first.
+     * @param latitude Latitude of the query point.
+     * @param longitude Longitude of the query point.
+     * @param radiusMeters Search radius (capped at {@link #MAX_NEARBY_RADIUS_METERS}).
+     * @param limit Maximum number of results (capped at {@link BusStopSearchIndex#MAX_LIMIT}).
+     */
+    public Flux<NearbyBusStop> findStopsNearby(double latitude, double longitude, double radiusMeters, int limit) {
+        if (!isValidLocation(latitude, longitude)) {
+            return Flux.error(new IllegalArgumentException("Invalid coordinates: " + latitude + "," + longitude));
         }
+        if (!(radiusMeters > 0)) {
+            return Flux.error(new IllegalArgumentException("Radius must be positive: " + radiusMeters));
+        }
+        double cappedRadius = Math.min(radiusMeters, MAX_NEARBY_RADIUS_METERS);
+        int cappedLimit = Math.min(Math.max(limit, 1), BusStopSearchIndex.MAX_LIMIT);
+        return catalog().flatMapIterable(c -> c.spatialIndex()
+                        .withinRadius(latitude, longitude, cappedRadius, cappedLimit))
+                .map(neighbour -> NearbyBusStop.of(neighbour.stop(), neighbour.distanceMeters()));
+    }
 
-        String normalizedQuery = query.trim().toLowerCase();
+    /**
+     * Finds the stop closest to a location, if it lies within {@code maxDistanceMeters}.
+     */
+    public Mono<BusStop> findNearestStop(double latitude, double longitude, double maxDistanceMeters) {
+        if (!isValidLocation(latitude, longitude)) {
+            return Mono.empty();
+        }
+        return catalog().flatMap(c -> Mono.justOrEmpty(c.spatialIndex().nearest(latitude, longitude)))
+                .filter(neighbour -> neighbour.distanceMeters() <= maxDistanceMeters)
+                .map(BusStopSpatialIndex.Neighbour::stop);
+    }
 
-        return allBusStopsCache
-                .filter(stop -> {
-                    String code = stop.code() != null ? stop.code().toLowerCase() : "";
-                    String name = stop.name() != null ? stop.name().toLowerCase() : "";
-                    return code.contains(normalizedQuery) || name.contains(normalizedQuery);
-                });
+    private static boolean isValidLocation(double latitude, double longitude) {
+        return Math.abs(latitude) <= 90 && Math.abs(longitude) <= 180
+                && !(latitude == 0.0 && longitude == 0.0);
     }
 
     /**
@@ -69,10 +179,130 @@ public class BusService {
      * @param busStop The unified bus stop model, which contains the source API.
      */
     public Flux<BusArrival> getArrivalsForStop(BusStop busStop) {
+        return getArrivalsForStop(busStop, null);
+    }
+
+    /**
+     * Gets arrivals at a stop for one service, or for all services when {@code serviceNo} is blank.
+     */
+    public Flux<BusArrival> getArrivalsForStop(BusStop busStop, String serviceNo) {
+        return getStopArrivals(busStop, serviceNo).flatMapIterable(StopArrivals::arrivals);
+    }
+
+    /**
+     * Gets all arrivals at a stop together with when they were fetched.
+     * Served from the short-lived arrivals cache; concurrent misses for one stop share one upstream call,
+     * and recently expired data is served flagged stale while it refreshes.
+     * If upstream does not answer within the latency budget, or fails, arrivals estimated from historical
+     * headways are served flagged predicted, when there is enough history for the stop. Without history
+     * a slow upstream fails with a {@link TimeoutException} at the budget; its call carries on and fills
+     * the cache for the next request.
+     * @param busStop The unified bus stop model, which contains the source API.
+     */
+    public Mono<StopArrivals> getStopArrivals(BusStop busStop) {
+        return getStopArrivals(busStop, null);
+    }
+
+    /**
+     * As {@link #getStopArrivals(BusStop)}, narrowed to one service. The filter is pushed down to
+     * providers that support it, so single-service lookups fetch and decode less.
+     * @param serviceNo The service to return, or null for all services at the stop.
+     */
+    public Mono<StopArrivals> getStopArrivals(BusStop busStop, String serviceNo) {
         BusServiceProvider provider = providerMap.get(busStop.sourceApi());
         if (provider == null) {
-            return Flux.error(new IllegalArgumentException("No provider found for API: " + busStop.sourceApi()));
+            return Mono.error(new IllegalArgumentException("No provider found for API: " + busStop.sourceApi()));
+        }
+        boolean wholeStop = serviceNo == null || serviceNo.isBlank();
+        Mono<StopArrivals> live = arrivalCache.get(provider, busStop.code(), serviceNo)
+                .doOnNext(data -> {
+                    // Samples describe every service at the stop, so single-service results are not recorded
+                    if (history != null && wholeStop) {
+                        history.record(data);
+                    }
+                });
+        Mono<StopArrivals> predicted = Mono.fromSupplier(() -> headwayModel
+                .predict(busStop.sourceApi(), busStop.code(), Instant.now())
+                .map(data -> wholeStop ? data : data.forService(serviceNo))
+                .filter(data -> !data.arrivals().isEmpty())
+                .orElse(null));
+        return live
+                .timeout(latencyBudget, Mono.defer(() -> predicted.switchIfEmpty(Mono.error(new TimeoutException(
+                        "No arrivals for " + busStop.sourceApi() + " stop " + busStop.code() + " within " + latencyBudget)))))
+                .onErrorResume(error -> predicted.switchIfEmpty(Mono.error(error)));
+    }
+
+    /**
+     * Warms the arrivals cache for a stop expected to be requested soon.
+     * @param busStop The stop to prefetch.
+     * @param horizon Skip the upstream call if cached data stays fresh at least this long.
+     * @return Whether an upstream call was made.
+     */
+    public Mono<Boolean> prefetchArrivals(BusStop busStop, Duration horizon) {
+        BusServiceProvider provider = providerMap.get(busStop.sourceApi());
+        if (provider == null) {
+            return Mono.error(new IllegalArgumentException("No provider found for API: " + busStop.sourceApi()));
+        }
+        return arrivalCache.prefetch(provider, busStop.code(), horizon);
+    }
+
+    /**
+     * Gets arrivals for several stops at once, in request order.
+     * Stops are fetched with bounded concurrency under one deadline for the whole batch;
+     * each stop reports its own status, so one slow or failing stop does not hold up the rest.
+     * @param stops Provider and code pairs, each with an optional service filter.
+     */
+    public Mono<BatchArrivalsResponse> getArrivalsBatch(List<StopRequest> stops) {
+        return getArrivalsBatch(stops, BATCH_DEADLINE);
+    }
+
+    public Mono<BatchArrivalsResponse> getArrivalsBatch(List<StopRequest> stops, Duration deadline) {
+        return Mono.defer(() -> {
+            Instant deadlineAt = Instant.now().plus(deadline);
+            return Flux.fromIterable(stops)
+                    .flatMapSequential(stop -> arrivalsBefore(stop, deadlineAt), BATCH_CONCURRENCY)
+                    .collectList()
+                    .map(BatchArrivalsResponse::new);
+        });
+    }
+
+    private Mono<StopResult> arrivalsBefore(StopRequest request, Instant deadlineAt) {
+        String sourceApi = request.sourceApi();
+        String code = request.code();
+        return Mono.defer(() -> {
+            if (sourceApi == null || code == null || code.isBlank()) {
+                return Mono.just(StopResult.failed(sourceApi, code, Status.INVALID));
+            }
+            Duration remaining = Duration.between(Instant.now(), deadlineAt);
+            if (remaining.isNegative() || remaining.isZero()) {
+                return Mono.just(StopResult.failed(sourceApi, code, Status.TIMEOUT));
+            }
+            String serviceNo = request.serviceNo();
+            return getStopArrivals(new BusStop(code, null, 0.0, 0.0, sourceApi), serviceNo)
+                    .timeout(remaining)
+                    .map(data -> new StopResult(
+                            sourceApi,
+                            code,
+                            data.predicted() ? Status.PREDICTED : data.stale() ? Status.STALE : Status.OK,
+                            data.arrivals(),
+                            data.ageSeconds(Instant.now())))
+                    .onErrorResume(error -> {
+                        log.debug("Batch arrivals for {} stop {} failed: {}", sourceApi, code, error.toString());
+                        return Mono.just(StopResult.failed(sourceApi, code, batchStatus(error)));
+                    });
+        });
+    }
+
+    private static Status batchStatus(Throwable error) {
+        if (error instanceof TimeoutException) {
+            return Status.TIMEOUT;
+        }
+        if (error instanceof ProviderCircuitBreakers.CircuitOpenException) {
+            return Status.UNAVAILABLE;
+        }
+        if (error instanceof IllegalArgumentException) {
+            return Status.INVALID;
         }
-        return provider.getBusArrivals(busStop.code());
+        return Status.ERROR;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,90 @@
+package com.example.springbackend.service.implementation;
+
+import com.example.springbackend.model.BusStop;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * One immutable version of the merged bus stop catalog together with the indexes built from it.
+ * Readers take a reference once per request, so a concurrent refresh never shows them a mix of versions.
+ *
+ * @param version Monotonic version number; 0 is a catalog restored from the on-disk snapshot.
+ * @param loadedAt When this version was built.
+ * @param missingProviders Providers that contributed no stops to this version (upstream failed with no earlier data).
+ * @param stops Every stop from every provider.
+ * @param stopsByProvider Stops keyed by source API, then by stop code, for exact lookups.
+ * @param searchIndex Ranked text search over codes and names.
+ * @param spatialIndex Nearest / within-radius lookup over coordinates.
+ */
+public record BusStopCatalog(
+        long version,
+        Instant loadedAt,
+        Set<String> missingProviders,
+        List<BusStop> stops,
+        Map<String, Map<String, BusStop>> stopsByProvider,
+        BusStopSearchIndex searchIndex,
+        BusStopSpatialIndex spatialIndex
+) {
+    public static BusStopCatalog of(Collection<BusStop> stops, long version, Instant loadedAt) {
+        return of(stops, version, loadedAt, Set.of());
+    }
+
+    public static BusStopCatalog of(Collection<BusStop> stops, long version, Instant loadedAt,
+                                    Set<String> missingProviders) {
+        return new BusStopCatalog(
+                version,
+                loadedAt,
+                Set.copyOf(missingProviders),
+                List.copyOf(stops),
+                indexByProvider(stops),
+                new BusStopSearchIndex(stops),
+                new BusStopSpatialIndex(stops)
+        );
+    }
+
+    public boolean isComplete() {
+        return missingProviders.isEmpty();
+    }
+
+    public List<BusStop> stopsFrom(String sourceApi) {
+        return List.copyOf(stopsByProvider.getOrDefault(sourceApi, Map.of()).values());
+    }
+
+    /**
+     * Exact lookup of a stop by provider and code.
+     */
+    public Optional<BusStop> find(String sourceApi, String code) {
+        if (sourceApi == null || code == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(stopsByProvider.getOrDefault(sourceApi, Map.of()).get(code.trim()));
+    }
+
+    /**
+     * Exact lookup of a stop code in any provider, checking providers in name order.
+     */
+    public Optional<BusStop> findByCode(String code) {
+        if (code == null) {
+            return Optional.empty();
+        }
+        String trimmed = code.trim();
+        for (Map<String, BusStop> byCode : stopsByProvider.values()) {
+            BusStop stop = byCode.get(trimmed);
+            if (stop != null) {
+                return Optional.of(stop);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Map<String, Map<String, BusStop>> indexByProvider(Collection<BusStop> stops) {
+        Map<String, Map<String, BusStop>> index = new TreeMap<>();
+        for (BusStop stop : stops) {
+            if (stop.sourceApi() != null && stop.code() != null) {
+                index.computeIfAbsent(stop.sourceApi(), k -> new LinkedHashMap<>()).putIfAbsent(stop.code(), stop);
+            }
+        }
+        return Collections.unmodifiableMap(index);
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.springbackend.service.implementation;
+
+import com.example.springbackend.model.BusStop;
+import com.example.springbackend.service.BusServiceProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Owns the bus stop catalog: loads it from every provider, refreshes it on a schedule, and swaps
+ * each new version in atomically.
+ *
+ * A refresh builds the next version off to the side and diffs it against the current one; an
+ * unchanged catalog keeps its version. When a provider fails, its stops from the last good version
+ * are carried over, so a partial upstream failure never replaces good data with a half-filled catalog.
+ */
+@Component
+public class BusStopCatalogManager {
+
+    private static final Logger log = LoggerFactory.getLogger(BusStopCatalogManager.class);
+
+    private final List<BusServiceProvider> providers;
+    private final BusStopCatalogSnapshotStore snapshotStore;
+    private final Duration refreshInterval;
+
+    private final AtomicReference<BusStopCatalog> current = new AtomicReference<>();
+    private final AtomicReference<Mono<BusStopCatalog>> inFlight = new AtomicReference<>();
+    private volatile Instant lastVerifiedAt;
+    private long nextVersion = 1;
+
+    private final Counter refreshUpdated;
+    private final Counter refreshUnchanged;
+    private final Counter refreshFailed;
+
+    public BusStopCatalogManager(List<BusServiceProvider> providers,
+                                 BusStopCatalogSnapshotStore snapshotStore,
+                                 MeterRegistry meterRegistry) {
+        this(providers, snapshotStore, meterRegistry, Duration.ofHours(6));
+    }
+
+    @Autowired
+    public BusStopCatalogManager(List<BusServiceProvider> providers,
+                                 BusStopCatalogSnapshotStore snapshotStore,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${bus.catalog.refresh-interval:PT6H}") Duration refreshInterval) {
+        this.providers = List.copyOf(providers);
+        this.snapshotStore = snapshotStore;
+        this.refreshInterval = refreshInterval;
+
+        this.refreshUpdated = refreshCounter(meterRegistry, "updated");
+        this.refreshUnchanged = refreshCounter(meterRegistry, "unchanged");
+        this.refreshFailed = refreshCounter(meterRegistry, "failed");
+        Gauge.builder("bus.catalog.version", this, m -> m.currentCatalog().map(BusStopCatalog::version).orElse(-1L))
+                .description("Version of the bus stop catalog being served")
+                .register(meterRegistry);
+        Gauge.builder("bus.catalog.age", this, m -> m.lastVerifiedAt == null
+                        ? -1 : Duration.between(m.lastVerifiedAt, Instant.now()).toSeconds())
+                .description("Seconds since the served catalog was last confirmed against upstream")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("bus.catalog.stops", this, m -> m.currentCatalog().map(c -> c.stops().size()).orElse(0))
+                .description("Number of stops in the served catalog")
+                .register(meterRegistry);
+
+        if (snapshotStore != null) {
+            snapshotStore.load()
+                    .map(snapshot -> BusStopCatalog.of(snapshot.stops(), 0, snapshot.createdAt()))
+                    .ifPresent(current::set);
+        }
+    }
+
+    /**
+     * The catalog being served, or the in-flight first load when nothing has been loaded yet.
+     */
+    public Mono<BusStopCatalog> catalog() {
+        return Mono.defer(() -> {
+            BusStopCatalog catalog = current.get();
+            return catalog != null ? Mono.just(catalog) : refresh();
+        });
+    }
+
+    public Optional<BusStopCatalog> currentCatalog() {
+        return Optional.ofNullable(current.get());
+    }
+
+    /**
+     * Loads a new version from upstream. Concurrent callers share one in-flight load.
+     * Fails only when no provider returned data and there is no earlier version to fall back to.
+     */
+    public Mono<BusStopCatalog> refresh() {
+        Mono<BusStopCatalog> running = inFlight.get();
+        if (running != null) {
+            return running;
+        }
+        // Cleared before the result reaches callers, so a refresh they start next loads afresh
+        Mono<BusStopCatalog> load = loadFromProviders()
+                .doOnTerminate(() -> inFlight.set(null))
+                .cache();
+        Mono<BusStopCatalog> winner = inFlight.compareAndExchange(null, load);
+        return winner != null ? winner : load;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshOnStartup() {
+        subscribeToRefresh();
+    }
+
+    /**
+     * Ticks frequently but only goes upstream when the catalog is missing, incomplete or older than the refresh interval.
+     */
+    @Scheduled(fixedDelayString = "${bus.catalog.check-interval-ms:60000}", initialDelayString = "${bus.catalog.check-interval-ms:60000}")
+    public void refreshIfDue() {
+        BusStopCatalog catalog = current.get();
+        boolean due = catalog == null
+                || !catalog.isComplete()
+                || lastVerifiedAt == null
+                || lastVerifiedAt.plus(refreshInterval).isBefore(Instant.now());
+        if (due) {
+            subscribeToRefresh();
+        }
+    }
+
+    private void subscribeToRefresh() {
+        refresh().subscribe(
+                catalog -> log.info("Bus stop catalog at version {} with {} stops", catalog.version(), catalog.stops().size()),
+                error -> log.warn("Bus stop catalog refresh failed, keeping last good version: {}", error.getMessage()));
+    }
+
+    private Mono<BusStopCatalog> loadFromProviders() {
+        return Mono.defer(() -> loadFromProviders(current.get()));
+    }
+
+    private Mono<BusStopCatalog> loadFromProviders(BusStopCatalog previous) {
+        return Flux.fromIterable(providers)
+                .flatMap(provider -> fetchProvider(provider, previous))
+                .collectList()
+                .flatMap(results -> {
+                    Set<String> missing = results.stream()
+                            .filter(ProviderStops::missing)
+                            .map(ProviderStops::provider)
+                            .collect(Collectors.toSet());
+                    if (missing.size() == providers.size()) {
+                        return Mono.error(new IllegalStateException("No provider returned bus stops"));
+                    }
+                    List<BusStop> stops = results.stream()
+                            .flatMap(result -> result.stops().stream())
+                            .toList();
+                    return Mono.fromCallable(() -> swapIn(previous, stops, missing))
+                            .subscribeOn(Schedulers.boundedElastic());
+                })
+                .doOnError(error -> refreshFailed.increment());
+    }
+
+    private Mono<ProviderStops> fetchProvider(BusServiceProvider provider, BusStopCatalog previous) {
+        String name = provider.getApiName();
+        return provider.getAllBusStops()
+                .collectList()
+                .filter(stops -> !stops.isEmpty())
+                .switchIfEmpty(Mono.error(new IllegalStateException("empty stop list")))
+                .doOnNext(stops -> log.info("Fetched {} bus stops from provider {}", stops.size(), name))
+                .map(stops -> new ProviderStops(name, stops, false))
+                .onErrorResume(error -> {
+                    List<BusStop> lastGood = previous == null ? List.of() : previous.stopsFrom(name);
+                    log.warn("Bus stop fetch from provider {} failed ({}); keeping {} stops from the last good version",
+                            name, error.getMessage(), lastGood.size());
+                    return Mono.just(new ProviderStops(name, lastGood, lastGood.isEmpty()));
+                });
+    }
+
+    private synchronized BusStopCatalog swapIn(BusStopCatalog previous, List<BusStop> stops, Set<String> missing) {
+        Instant now = Instant.now();
+        CatalogDiff diff = CatalogDiff.between(previous == null ? List.of() : previous.stops(), stops);
+        if (previous != null && diff.isEmpty() && previous.missingProviders().equals(missing)) {
+            lastVerifiedAt = now;
+            refreshUnchanged.increment();
+            log.info("Bus stop catalog unchanged at version {}", previous.version());
+            return previous;
+        }
+
+        BusStopCatalog next = BusStopCatalog.of(stops, nextVersion++, now, missing);
+        if (!current.compareAndSet(previous, next)) {
+            // Another refresh won the race; its version is at least as new as ours
+            return current.get();
+        }
+        lastVerifiedAt = now;
+        refreshUpdated.increment();
+        log.info("Bus stop catalog swapped to version {}: {} added, {} removed, {} changed{}",
+                next.version(), diff.added(), diff.removed(), diff.changed(),
+                missing.isEmpty() ? "" : " (missing providers: " + missing + ")");
+
+        if (snapshotStore != null && snapshotStore.isEnabled() && next.isComplete()) {
+            try {
+                snapshotStore.save(next.stops());
+            } catch (Exception e) {
+                log.warn("Failed to write bus stop snapshot: {}", e.getMessage());
+            }
+        }
+        return next;
+    }
+
+    private static Counter refreshCounter(MeterRegistry registry, String result) {
+        return Counter.builder("bus.catalog.refresh")
+                .description("Bus stop catalog refresh attempts by outcome")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private record ProviderStops(String provider, List<BusStop> stops, boolean missing) {}
+
+    /**
+     * Counts of stops added, removed and changed between two catalog versions, keyed by (sourceApi, code).
+     */
+    record CatalogDiff(int added, int removed, int changed) {
+
+        static CatalogDiff between(List<BusStop> before, List<BusStop> after) {
+            Map<String, BusStop> old = byKey(before);
+            Map<String, BusStop> updated = byKey(after);
+            int added = 0;
+            int changed = 0;
+            for (Map.Entry<String, BusStop> entry : updated.entrySet()) {
+                BusStop previous = old.get(entry.getKey());
+                if (previous == null) {
+                    added++;
+                } else if (!previous.equals(entry.getValue())) {
+                    changed++;
+                }
+            }
+            int removed = (int) old.keySet().stream().filter(key -> !updated.containsKey(key)).count();
+            return new CatalogDiff(added, removed, changed);
+        }
+
+        boolean isEmpty() {
+            return added == 0 && removed == 0 && changed == 0;
+        }
+
+        private static Map<String, BusStop> byKey(List<BusStop> stops) {
+            return stops.stream().collect(Collectors.toMap(
+                    stop -> stop.sourceApi() + ":" + stop.code(),
+                    Function.identity(),
+                    (first, second) -> first));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.springbackend.service.implementation;
+
+import com.example.springbackend.model.BusStop;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Persists the bus stop catalog as a compact binary snapshot so a restarted node can serve
+ * searches right away while the upstream catalog reloads in the background.
+ *
+ * File layout (big-endian):
+ * <pre>
+ * header      int magic, int formatVersion, long createdAtEpochMillis, int stopCount, int stringCount
+ * strings     stringCount x (int byteLength, UTF-8 bytes)   -- each distinct code/name/source stored once
+ * columns     double[stopCount] latitude, double[stopCount] longitude,
+ *             int[stopCount] codeRef, int[stopCount] nameRef, int[stopCount] sourceRef
+ * </pre>
+ * The whole file is read into the heap catalog on startup; lookups are served from that catalog.
+ */
+@Component
+public class BusStopCatalogSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(BusStopCatalogSnapshotStore.class);
+
+    private static final int MAGIC = 0x53424353; // "SBCS"
+    // Version 1 also carried a numeric code index that nothing read
+    private static final int FORMAT_VERSION = 2;
+
+    private final Path path;
+
+    /**
+     * @param path Location of the snapshot file; blank disables persistence.
+     */
+    public BusStopCatalogSnapshotStore(@Value("${bus.catalog.snapshot-path:}") String path) {
+        this.path = path == null || path.isBlank() ? null : Path.of(path);
+    }
+
+    public boolean isEnabled() {
+        return path != null;
+    }
+
+    /**
+     * Reads the snapshot file, or returns empty if it is missing, disabled or unreadable.
+     */
+    public Optional<Snapshot> load() {
+        if (path == null || !Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            Snapshot snapshot = read(in);
+            log.info("Loaded bus stop snapshot with {} stops from {} (written {})",
+                    snapshot.stops().size(), path, snapshot.createdAt());
+            return Optional.of(snapshot);
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable bus stop snapshot at {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the catalog to a temporary file and atomically moves it over the previous snapshot.
+     * This is blocking I/O; callers on reactive threads should offload it.
+     */
+    public void save(Collection<BusStop> stops) throws IOException {
+        if (path == null) {
+            return;
+        }
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                write(List.copyOf(stops), out);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        log.info("Wrote bus stop snapshot with {} stops to {}", stops.size(), path);
+    }
+
+    private static void write(List<BusStop> stops, DataOutputStream out) throws IOException {
+        Map<String, Integer> stringRefs = new LinkedHashMap<>();
+        int n = stops.size();
+        int[] codeRefs = new int[n];
+        int[] nameRefs = new int[n];
+        int[] sourceRefs = new int[n];
+        for (int i = 0; i < n; i++) {
+            BusStop stop = stops.get(i);
+            codeRefs[i] = stringRefs.computeIfAbsent(Objects.toString(stop.code(), ""), k -> stringRefs.size());
+            nameRefs[i] = stringRefs.computeIfAbsent(Objects.toString(stop.name(), ""), k -> stringRefs.size());
+            sourceRefs[i] = stringRefs.computeIfAbsent(Objects.toString(stop.sourceApi(), ""), k -> stringRefs.size());
+        }
+
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(Instant.now().toEpochMilli());
+        out.writeInt(n);
+        out.writeInt(stringRefs.size());
+        for (String value : stringRefs.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        for (BusStop stop : stops) out.writeDouble(stop.latitude());
+        for (BusStop stop : stops) out.writeDouble(stop.longitude());
+        for (int ref : codeRefs) out.writeInt(ref);
+        for (int ref : nameRefs) out.writeInt(ref);
+        for (int ref : sourceRefs) out.writeInt(ref);
+    }
+
+    private static Snapshot read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IllegalStateException("Not a bus stop snapshot");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported snapshot format version " + version);
+        }
+        Instant createdAt = Instant.ofEpochMilli(in.readLong());
+        int n = in.readInt();
+        int stringCount = in.readInt();
+
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            strings[i] = new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+        }
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        for (int i = 0; i < n; i++) latitudes[i] = in.readDouble();
+        for (int i = 0; i < n; i++) longitudes[i] = in.readDouble();
+        int[] codeRefs = readInts(in, n);
+        int[] nameRefs = readInts(in, n);
+        int[] sourceRefs = readInts(in, n);
+
+        List<BusStop> stops = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            stops.add(new BusStop(strings[codeRefs[i]], strings[nameRefs[i]],
+                    latitudes[i], longitudes[i], strings[sourceRefs[i]]));
+        }
+        return new Snapshot(createdAt, stops);
+    }
+
+    private static int[] readInts(DataInputStream in, int count) throws IOException {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) values[i] = in.readInt();
+        return values;
+    }
+
+    /**
+     * Stops read from a snapshot file and the time the file was written.
+     */
+    public record Snapshot(Instant createdAt, List<BusStop> stops) {}
+}
@@ -0,0 +1,359 @@
+package com.example.springbackend.service.implementation;
+
+import com.example.springbackend.model.BusStop;
+
+import java.util.*;
+
+/**
+ * Immutable in-memory search index over the bus stop catalog.
+ *
+ * The index is built once per catalog load so a query only touches the postings it needs
+ * instead of lowercasing and scanning every stop. Results are ranked in tiers:
+ * exact code, then prefix (code, name or any word start in the name), then substring,
+ * then typo-tolerant word matches. Substring matches of 1-2 character queries come from a linear scan.
+ */
+public class BusStopSearchIndex {
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final int TRIGRAM = 3;
+    private static final int[] NO_POSTINGS = new int[0];
+
+    // Stops ordered by (sourceApi, code); the position is the stop id used by every posting list
+    private final List<BusStop> stops;
+    private final String[] normalizedCodes;
+    private final String[] normalizedNames;
+
+    private final Map<String, int[]> exactCodes;
+
+    // Sorted prefix keys (code, full name, and every word-start suffix of the name) with parallel stop ids
+    private final String[] prefixKeys;
+    private final int[] prefixStops;
+
+    // Trigram -> sorted stop ids, for substring matching
+    private final Map<String, int[]> trigrams;
+
+    // Distinct name words, their stops, and bigram postings for typo-tolerant lookup
+    private final String[] words;
+    private final int[][] wordStops;
+    private final Map<String, int[]> wordBigrams;
+
+    public BusStopSearchIndex(Collection<BusStop> catalog) {
+        this.stops = catalog.stream()
+                .sorted(Comparator.comparing((BusStop s) -> Objects.toString(s.sourceApi(), ""))
+                        .thenComparing(s -> Objects.toString(s.code(), "")))
+                .toList();
+
+        int size = stops.size();
+        this.normalizedCodes = new String[size];
+        this.normalizedNames = new String[size];
+
+        Map<String, List<Integer>> codes = new HashMap<>();
+        List<Map.Entry<String, Integer>> prefixes = new ArrayList<>();
+        Map<String, Set<Integer>> grams = new HashMap<>();
+        Map<String, Set<Integer>> wordToStops = new TreeMap<>();
+
+        for (int id = 0; id < size; id++) {
+            BusStop stop = stops.get(id);
+            String code = normalize(stop.code());
+            String name = normalize(stop.name());
+            normalizedCodes[id] = code;
+            normalizedNames[id] = name;
+
+            if (!code.isEmpty()) {
+                codes.computeIfAbsent(code, k -> new ArrayList<>()).add(id);
+                prefixes.add(Map.entry(code, id));
+            }
+            for (int start = 0; start < name.length(); start++) {
+                if (start == 0 || name.charAt(start - 1) == ' ') {
+                    prefixes.add(Map.entry(name.substring(start), id));
+                }
+            }
+            addGrams(grams, code, id);
+            addGrams(grams, name, id);
+            for (String word : name.split(" ")) {
+                if (!word.isEmpty()) {
+                    wordToStops.computeIfAbsent(word, k -> new TreeSet<>()).add(id);
+                }
+            }
+        }
+
+        this.exactCodes = new HashMap<>();
+        codes.forEach((code, ids) -> exactCodes.put(code, toSortedArray(ids)));
+
+        prefixes.sort(Map.Entry.<String, Integer>comparingByKey().thenComparing(Map.Entry.comparingByValue()));
+        this.prefixKeys = new String[prefixes.size()];
+        this.prefixStops = new int[prefixes.size()];
+        for (int i = 0; i < prefixes.size(); i++) {
+            prefixKeys[i] = prefixes.get(i).getKey();
+            prefixStops[i] = prefixes.get(i).getValue();
+        }
+
+        this.trigrams = new HashMap<>();
+        grams.forEach((gram, ids) -> trigrams.put(gram, toSortedArray(ids)));
+
+        this.words = wordToStops.keySet().toArray(new String[0]);
+        this.wordStops = new int[words.length][];
+        Map<String, Set<Integer>> bigrams = new HashMap<>();
+        for (int w = 0; w < words.length; w++) {
+            wordStops[w] = toSortedArray(wordToStops.get(words[w]));
+            for (String bigram : bigramsOf(words[w])) {
+                bigrams.computeIfAbsent(bigram, k -> new TreeSet<>()).add(w);
+            }
+        }
+        this.wordBigrams = new HashMap<>();
+        bigrams.forEach((bigram, ids) -> wordBigrams.put(bigram, toSortedArray(ids)));
+    }
+
+    public int size() {
+        return stops.size();
+    }
+
+    /**
+     * Returns all stops in catalog order.
+     */
+    public List<BusStop> stops() {
+        return stops;
+    }
+
+    /**
+     * Returns one page of the catalog, for blank queries.
+     */
+    public List<BusStop> page(int page, int size) {
+        if (page < 0 || size <= 0) {
+            return List.of();
+        }
+        long from = (long) page * size;
+        if (from >= stops.size()) {
+            return List.of();
+        }
+        return stops.subList((int) from, (int) Math.min(stops.size(), from + size));
+    }
+
+    /**
+     * Ranked search over stop codes and names.
+     *
+     * @param query The raw user query.
+     * @param limit Maximum number of results to return.
+     */
+    public List<BusStop> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        LinkedHashSet<Integer> hits = new LinkedHashSet<>();
+
+        // 1. Exact code
+        for (int id : exactCodes.getOrDefault(q, NO_POSTINGS)) {
+            if (!collect(hits, id, limit)) return toStops(hits);
+        }
+
+        // 2. Prefix of code, name, or any word in the name
+        for (int i = lowerBound(prefixKeys, q); i < prefixKeys.length && prefixKeys[i].startsWith(q); i++) {
+            if (!collect(hits, prefixStops[i], limit)) return toStops(hits);
+        }
+
+        // 3. Substring, narrowed through trigram postings and then verified; shorter queries have no
+        //    trigram to narrow by and scan every stop, so "12" still finds code "01012"
+        if (q.length() >= TRIGRAM) {
+            for (int id : substringCandidates(q)) {
+                if (containsQuery(id, q) && !collect(hits, id, limit)) {
+                    return toStops(hits);
+                }
+            }
+        } else {
+            for (int id = 0; id < stops.size(); id++) {
+                if (containsQuery(id, q) && !collect(hits, id, limit)) {
+                    return toStops(hits);
+                }
+            }
+        }
+
+        // 4. Typo-tolerant match against individual name words
+        if (q.indexOf(' ') < 0 && q.length() >= 4) {
+            for (int id : fuzzyCandidates(q)) {
+                if (!collect(hits, id, limit)) return toStops(hits);
+            }
+        }
+
+        return toStops(hits);
+    }
+
+    /**
+     * Lowercases and strips punctuation so "Opp. Blk 123" and "opp blk 123" index identically.
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                pendingSpace = false;
+                sb.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    private boolean containsQuery(int id, String q) {
+        return normalizedCodes[id].contains(q) || normalizedNames[id].contains(q);
+    }
+
+    private boolean collect(Set<Integer> hits, int id, int limit) {
+        hits.add(id);
+        return hits.size() < limit;
+    }
+
+    private List<BusStop> toStops(Collection<Integer> ids) {
+        List<BusStop> result = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            result.add(stops.get(id));
+        }
+        return result;
+    }
+
+    private int[] substringCandidates(String q) {
+        List<int[]> postings = new ArrayList<>();
+        for (int i = 0; i + TRIGRAM <= q.length(); i++) {
+            int[] ids = trigrams.get(q.substring(i, i + TRIGRAM));
+            if (ids == null) {
+                return NO_POSTINGS;
+            }
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(ids -> ids.length));
+        int[] result = postings.get(0);
+        for (int i = 1; i < postings.size() && result.length > 0; i++) {
+            result = intersect(result, postings.get(i));
+        }
+        return result;
+    }
+
+    private List<Integer> fuzzyCandidates(String q) {
+        int maxEdits = q.length() >= 8 ? 2 : 1;
+        List<String> queryBigrams = bigramsOf(q);
+        // q-gram lemma: a word within k edits shares at least |grams| - 2k bigrams with the query
+        int minShared = Math.max(1, queryBigrams.size() - 2 * maxEdits);
+
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String bigram : queryBigrams) {
+            for (int w : wordBigrams.getOrDefault(bigram, NO_POSTINGS)) {
+                shared.merge(w, 1, Integer::sum);
+            }
+        }
+
+        List<int[]> matches = new ArrayList<>(); // {distance, wordId}
+        shared.forEach((w, count) -> {
+            if (count < minShared || Math.abs(words[w].length() - q.length()) > maxEdits) {
+                return;
+            }
+            int distance = boundedEditDistance(q, words[w], maxEdits);
+            if (distance <= maxEdits) {
+                matches.add(new int[]{distance, w});
+            }
+        });
+        matches.sort(Comparator.<int[]>comparingInt(m -> m[0]).thenComparingInt(m -> m[1]));
+
+        List<Integer> ids = new ArrayList<>();
+        for (int[] match : matches) {
+            for (int id : wordStops[match[1]]) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions),
+     * abandoning early once every cell in a row exceeds {@code max}.
+     */
+    static int boundedEditDistance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        int[] prev2 = new int[m + 1];
+        int[] prev = new int[m + 1];
+        int[] curr = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            curr[0] = i;
+            int rowMin = curr[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(prev[j] + 1, curr[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, prev2[j - 2] + 1);
+                }
+                curr[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] tmp = prev2;
+            prev2 = prev;
+            prev = curr;
+            curr = tmp;
+        }
+        return prev[m];
+    }
+
+    private static void addGrams(Map<String, Set<Integer>> grams, String value, int id) {
+        for (int i = 0; i + TRIGRAM <= value.length(); i++) {
+            grams.computeIfAbsent(value.substring(i, i + TRIGRAM), k -> new TreeSet<>()).add(id);
+        }
+    }
+
+    private static List<String> bigramsOf(String word) {
+        List<String> result = new ArrayList<>(Math.max(0, word.length() - 1));
+        for (int i = 0; i + 2 <= word.length(); i++) {
+            result.add(word.substring(i, i + 2));
+        }
+        return result;
+    }
+
+    private static int lowerBound(String[] keys, String q) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(q) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[k++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, k);
+    }
+
+    private static int[] toSortedArray(Collection<Integer> ids) {
+        return ids.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+    }
+}
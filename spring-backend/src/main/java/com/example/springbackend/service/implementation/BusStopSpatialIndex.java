@@ -0,0 +1,186 @@
+package com.example.springbackend.service.implementation;
+
+import com.example.springbackend.model.BusStop;
+
+import java.util.*;
+
+/**
+ * Immutable 2-d tree over bus stop coordinates.
+ *
+ * Coordinates are projected once onto a local equirectangular plane in metres, which is accurate
+ * to well under 0.1% at city scale, so queries only do additions and multiplications.
+ * The tree is implicit: the node of range [lo, hi) sits at its midpoint, splitting on
+ * x at even depths and y at odd depths.
+ * Stops without coordinates (e.g. NUS stops reported as 0,0) are left out.
+ */
+public class BusStopSpatialIndex {
+
+    static final double EARTH_RADIUS_METERS = 6_371_008.8;
+    private static final double METERS_PER_DEGREE = Math.toRadians(1) * EARTH_RADIUS_METERS;
+
+    private final BusStop[] stops;
+    private final double[] xs;
+    private final double[] ys;
+    private final double cosReferenceLatitude;
+
+    public BusStopSpatialIndex(Collection<BusStop> catalog) {
+        List<BusStop> located = catalog.stream()
+                .filter(BusStopSpatialIndex::hasLocation)
+                .toList();
+
+        this.cosReferenceLatitude = Math.cos(Math.toRadians(located.stream()
+                .mapToDouble(BusStop::latitude)
+                .average()
+                .orElse(0.0)));
+
+        int size = located.size();
+        double[] px = new double[size];
+        double[] py = new double[size];
+        for (int i = 0; i < size; i++) {
+            px[i] = projectX(located.get(i).longitude());
+            py[i] = projectY(located.get(i).latitude());
+        }
+
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        build(order, 0, size, 0, px, py);
+
+        this.stops = new BusStop[size];
+        this.xs = new double[size];
+        this.ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            stops[i] = located.get(order[i]);
+            xs[i] = px[order[i]];
+            ys[i] = py[order[i]];
+        }
+    }
+
+    public int size() {
+        return stops.length;
+    }
+
+    /**
+     * Returns stops within {@code radiusMeters}, nearest first.
+     */
+    public List<Neighbour> withinRadius(double latitude, double longitude, double radiusMeters, int limit) {
+        if (stops.length == 0 || radiusMeters <= 0 || limit <= 0) {
+            return List.of();
+        }
+        double qx = projectX(longitude);
+        double qy = projectY(latitude);
+        List<double[]> hits = new ArrayList<>(); // {distanceSq, node}
+        collectWithinRadius(0, stops.length, 0, qx, qy, radiusMeters * radiusMeters, hits);
+
+        hits.sort(Comparator.comparingDouble(hit -> hit[0]));
+        List<Neighbour> result = new ArrayList<>(Math.min(limit, hits.size()));
+        for (int i = 0; i < hits.size() && i < limit; i++) {
+            double[] hit = hits.get(i);
+            result.add(new Neighbour(stops[(int) hit[1]], Math.sqrt(hit[0])));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the single nearest stop, or empty when the index has no located stops.
+     */
+    public Optional<Neighbour> nearest(double latitude, double longitude) {
+        if (stops.length == 0) {
+            return Optional.empty();
+        }
+        double[] best = {Double.MAX_VALUE, -1};
+        nearest(0, stops.length, 0, projectX(longitude), projectY(latitude), best);
+        return Optional.of(new Neighbour(stops[(int) best[1]], Math.sqrt(best[0])));
+    }
+
+    public static boolean hasLocation(BusStop stop) {
+        return !(stop.latitude() == 0.0 && stop.longitude() == 0.0)
+                && Math.abs(stop.latitude()) <= 90 && Math.abs(stop.longitude()) <= 180;
+    }
+
+    private void collectWithinRadius(int lo, int hi, int depth, double qx, double qy,
+                                     double radiusSq, List<double[]> hits) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double dx = xs[mid] - qx;
+        double dy = ys[mid] - qy;
+        double distanceSq = dx * dx + dy * dy;
+        if (distanceSq <= radiusSq) {
+            hits.add(new double[]{distanceSq, mid});
+        }
+        double delta = (depth & 1) == 0 ? qx - xs[mid] : qy - ys[mid];
+        if (delta <= 0 || delta * delta <= radiusSq) {
+            collectWithinRadius(lo, mid, depth + 1, qx, qy, radiusSq, hits);
+        }
+        if (delta >= 0 || delta * delta <= radiusSq) {
+            collectWithinRadius(mid + 1, hi, depth + 1, qx, qy, radiusSq, hits);
+        }
+    }
+
+    private void nearest(int lo, int hi, int depth, double qx, double qy, double[] best) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double dx = xs[mid] - qx;
+        double dy = ys[mid] - qy;
+        double distanceSq = dx * dx + dy * dy;
+        if (distanceSq < best[0]) {
+            best[0] = distanceSq;
+            best[1] = mid;
+        }
+        double delta = (depth & 1) == 0 ? qx - xs[mid] : qy - ys[mid];
+        boolean leftFirst = delta < 0;
+        if (leftFirst) {
+            nearest(lo, mid, depth + 1, qx, qy, best);
+        } else {
+            nearest(mid + 1, hi, depth + 1, qx, qy, best);
+        }
+        if (delta * delta < best[0]) {
+            if (leftFirst) {
+                nearest(mid + 1, hi, depth + 1, qx, qy, best);
+            } else {
+                nearest(lo, mid, depth + 1, qx, qy, best);
+            }
+        }
+    }
+
+    private static void build(Integer[] order, int lo, int hi, int depth, double[] px, double[] py) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        double[] axis = (depth & 1) == 0 ? px : py;
+        Arrays.sort(order, lo, hi, Comparator.comparingDouble(i -> axis[i]));
+        int mid = (lo + hi) >>> 1;
+        build(order, lo, mid, depth + 1, px, py);
+        build(order, mid + 1, hi, depth + 1, px, py);
+    }
+
+    /**
+     * Great-circle (haversine) distance, for the occasional exact distance outside the projected tree.
+     */
+    static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(a));
+    }
+
+    private double projectX(double longitude) {
+        return longitude * METERS_PER_DEGREE * cosReferenceLatitude;
+    }
+
+    private static double projectY(double latitude) {
+        return latitude * METERS_PER_DEGREE;
+    }
+
+    /**
+     * A stop paired with its distance from the query point.
+     */
+    public record Neighbour(BusStop stop, double distanceMeters) {}
+}
@@ -0,0 +1,208 @@
+package com.example.springbackend.service.implementation;
+
+import com.example.springbackend.controller.GeocodeController;
+import com.example.springbackend.model.GeocodeCacheEntry;
+import com.example.springbackend.repository.GeocodeCacheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.text.Normalizer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Two-level cache of OneMap search results per normalized query.
+ *
+ * Queries are compared after folding case, punctuation and whitespace, so "Orchard Rd." and
+ * "orchard rd" share an entry. Recent results live in memory ({@code l1Ttl}, least recently used
+ * evicted beyond {@code maxEntries}); all results are also written to the geocode_cache collection
+ * for {@code ttl} so replicas and restarts start warm. Empty results are kept for {@code negativeTtl}
+ * only, because a place missing today may be added to OneMap soon. Failed loads are not cached and
+ * concurrent misses for one query share a single call.
+ */
+@Component
+public class GeocodeCache {
+
+    private static final Logger log = LoggerFactory.getLogger(GeocodeCache.class);
+
+    // A slow Mongo should cost little more than going to OneMap directly
+    private static final Duration L2_TIMEOUT = Duration.ofMillis(500);
+
+    private static final Pattern DROPPED = Pattern.compile("['’.]");
+    private static final Pattern SEPARATORS = Pattern.compile("[\\p{Punct}\\p{IsPunctuation}\\p{S}]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final GeocodeCacheRepository repository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final Duration l1Ttl;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final Clock clock;
+
+    private final SingleFlightCache<List<GeocodeController.GeocodeCandidate>> entries;
+
+    private final Counter l1Hits;
+    private final Counter l2Hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    @Autowired
+    public GeocodeCache(GeocodeCacheRepository repository,
+                        ReactiveMongoTemplate mongoTemplate,
+                        MeterRegistry meterRegistry,
+                        @Value("${geocoding.cache.l1-ttl:PT1H}") Duration l1Ttl,
+                        @Value("${geocoding.cache.ttl:P7D}") Duration ttl,
+                        @Value("${geocoding.cache.negative-ttl:PT10M}") Duration negativeTtl,
+                        @Value("${geocoding.cache.max-entries:5000}") int maxEntries) {
+        this(repository, mongoTemplate, meterRegistry, l1Ttl, ttl, negativeTtl, maxEntries, Clock.systemUTC());
+    }
+
+    public GeocodeCache(GeocodeCacheRepository repository, ReactiveMongoTemplate mongoTemplate,
+                        MeterRegistry meterRegistry, Duration l1Ttl, Duration ttl, Duration negativeTtl,
+                        int maxEntries, Clock clock) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.l1Ttl = l1Ttl;
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.clock = clock;
+
+        this.l1Hits = lookupCounter(meterRegistry, "l1");
+        this.l2Hits = lookupCounter(meterRegistry, "l2");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        this.coalesced = lookupCounter(meterRegistry, "coalesced");
+        // Misses are counted once the L2 lookup has also missed
+        this.entries = new SingleFlightCache<>(maxEntries, clock, new SingleFlightCache.Listener() {
+            @Override
+            public void onHit() {
+                l1Hits.increment();
+            }
+
+            @Override
+            public void onCoalesced() {
+                coalesced.increment();
+            }
+        });
+        Gauge.builder("geocoding.cache.size", this, GeocodeCache::size)
+                .description("Number of geocoding results held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns cached candidates for the normalized query, or loads and caches them.
+     * @param query Location name as typed by the user.
+     * @param loader Upstream call, made with the caller's original query on a miss.
+     */
+    public Mono<List<GeocodeController.GeocodeCandidate>> get(
+            String query, Supplier<Mono<List<GeocodeController.GeocodeCandidate>>> loader) {
+        return Mono.defer(() -> {
+            String key = normalize(query);
+            if (key.isEmpty()) {
+                return loader.get();
+            }
+            return entries.get(key, () -> fromL2(key)
+                    .switchIfEmpty(Mono.defer(() -> {
+                        misses.increment();
+                        return loader.get().doOnNext(candidates -> store(key, candidates));
+                    })));
+        });
+    }
+
+    /**
+     * Folds a query to its cache key: Unicode compatibility form, lower case, apostrophes and dots
+     * removed, other punctuation and runs of whitespace turned into single spaces.
+     */
+    public static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(query, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        folded = DROPPED.matcher(folded).replaceAll("");
+        folded = SEPARATORS.matcher(folded).replaceAll(" ");
+        return WHITESPACE.matcher(folded).replaceAll(" ").trim();
+    }
+
+    // Sweeps the in-memory level only; Mongo expires geocode_cache documents itself
+    @Scheduled(fixedDelayString = "${geocoding.cache.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        entries.evictExpired();
+    }
+
+    // Mongo removes expired documents about once a minute; the lookup also checks expiresAt
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureExpiryIndex() {
+        mongoTemplate.indexOps(GeocodeCacheEntry.class)
+                .createIndex(new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO))
+                .subscribe(
+                        name -> log.debug("Geocode cache expiry index {} ready", name),
+                        error -> log.warn("Could not create the geocode cache expiry index: {}", error.getMessage()));
+    }
+
+    private Mono<List<GeocodeController.GeocodeCandidate>> fromL2(String key) {
+        return Mono.defer(() -> repository.findById(key))
+                .timeout(L2_TIMEOUT)
+                .filter(entry -> entry.getCandidates() != null && entry.getExpiresAt() != null
+                        && entry.getExpiresAt().isAfter(clock.instant()))
+                .map(entry -> {
+                    l2Hits.increment();
+                    List<GeocodeController.GeocodeCandidate> candidates = List.copyOf(entry.getCandidates());
+                    putL1(key, candidates, entry.getExpiresAt());
+                    return candidates;
+                })
+                .onErrorResume(error -> {
+                    log.debug("Geocode cache lookup for '{}' failed: {}", key, error.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private void store(String key, List<GeocodeController.GeocodeCandidate> candidates) {
+        Instant now = clock.instant();
+        Instant expiresAt = now.plus(candidates.isEmpty() ? negativeTtl : ttl);
+        List<GeocodeController.GeocodeCandidate> copy = List.copyOf(candidates);
+        putL1(key, copy, expiresAt);
+        GeocodeCacheEntry document = GeocodeCacheEntry.builder()
+                .query(key)
+                .candidates(copy)
+                .cachedAt(now)
+                .expiresAt(expiresAt)
+                .build();
+        // Callers do not wait for the write; a lost write only costs another OneMap call later
+        repository.save(document).subscribe(
+                saved -> { },
+                error -> log.warn("Could not store geocode result for '{}': {}", key, error.getMessage()));
+    }
+
+    private void putL1(String key, List<GeocodeController.GeocodeCandidate> candidates, Instant expiresAt) {
+        Instant l1ExpiresAt = clock.instant().plus(l1Ttl);
+        entries.put(key, candidates, expiresAt.isBefore(l1ExpiresAt) ? expiresAt : l1ExpiresAt);
+    }
+
+    private int size() {
+        return entries.size();
+    }
+
+    private static Counter lookupCounter(MeterRegistry registry, String result) {
+        return Counter.builder("geocoding.cache")
+                .description("Geocoding lookups by cache level that answered them")
+                .tag("result", result)
+                .register(registry);
+    }
+}
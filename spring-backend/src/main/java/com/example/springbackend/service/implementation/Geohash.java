@@ -0,0 +1,95 @@
+package com.example.springbackend.service.implementation;
+
+import com.example.springbackend.model.Coordinates;
+
+/**
+ * Standard base-32 geohash encoding. Points in the same cell share a hash, so a hash prefix of a chosen
+ * length snaps nearby coordinates to one key: 6 characters is a cell of about 1.2 km by 0.6 km,
+ * 7 about 150 m by 150 m, 8 about 40 m by 20 m.
+ */
+public final class Geohash {
+
+    public static final int MAX_PRECISION = 12;
+
+    private static final String BASE32_INDEX = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final char[] BASE32 = BASE32_INDEX.toCharArray();
+
+    private Geohash() {
+    }
+
+    /**
+     * @param precision Number of characters, 1 to {@link #MAX_PRECISION}.
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and " + MAX_PRECISION);
+        }
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        char[] hash = new char[precision];
+        boolean evenBit = true;
+        for (int i = 0; i < precision; i++) {
+            int index = 0;
+            for (int bit = 0; bit < 5; bit++) {
+                // Bits alternate between longitude and latitude, starting with longitude
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (longitude >= mid) {
+                        index = index * 2 + 1;
+                        minLon = mid;
+                    } else {
+                        index = index * 2;
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (latitude >= mid) {
+                        index = index * 2 + 1;
+                        minLat = mid;
+                    } else {
+                        index = index * 2;
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+            hash[i] = BASE32[index];
+        }
+        return new String(hash);
+    }
+
+    /**
+     * Centre of the cell a hash names.
+     */
+    public static Coordinates center(String hash) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        boolean evenBit = true;
+        for (int i = 0; i < hash.length(); i++) {
+            int index = BASE32_INDEX.indexOf(hash.charAt(i));
+            if (index < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + hash);
+            }
+            for (int bit = 4; bit >= 0; bit--) {
+                boolean set = ((index >> bit) & 1) == 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) {
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new Coordinates((minLat + maxLat) / 2, (minLon + maxLon) / 2);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.springbackend.service.implementation;
+
+import com.example.springbackend.model.BusArrival;
+import com.example.springbackend.model.StopArrivals;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Typical headway of each service at each stop by quarter-hour of the day, learnt from sampled arrivals.
+ *
+ * Used to estimate arrivals when the live call is too slow or failing: a rider arriving at a random
+ * moment waits half a headway on average, so the estimate is the next bus in {@code h/2} and the one
+ * after in {@code 3h/2}. Estimates are always flagged as predicted.
+ */
+@Component
+public class HeadwayModel {
+
+    public static final int SLOTS_PER_DAY = 96;
+
+    private static final ZoneId SINGAPORE = ZoneId.of("Asia/Singapore");
+    private static final int MIN_SAMPLES = 3;
+    // How far either side of the current quarter-hour to look for a headway, in slots
+    private static final int SLOT_SEARCH = 2;
+    // After this many samples, new ones move the mean as an exponential average
+    private static final int MAX_WEIGHT = 50;
+    static final int MIN_HEADWAY_SECONDS = 60;
+    static final int MAX_HEADWAY_SECONDS = 2 * 3600;
+
+    // Stop key ("LTA:01012") -> service -> headways
+    private final Map<String, Map<String, ServiceHeadways>> stops = new ConcurrentHashMap<>();
+
+    /**
+     * Quarter-hour of the day in Singapore time.
+     */
+    public static int slotOf(Instant instant) {
+        ZonedDateTime local = instant.atZone(SINGAPORE);
+        return local.getHour() * 4 + local.getMinute() / 15;
+    }
+
+    public static String stopKey(String sourceApi, String stopCode) {
+        return sourceApi + ":" + stopCode;
+    }
+
+    /**
+     * Folds one observed gap between consecutive buses into the model. Implausible gaps are ignored.
+     */
+    public void observe(String stopKey, String serviceName, String operator, int slot, int headwaySeconds) {
+        if (headwaySeconds < MIN_HEADWAY_SECONDS || headwaySeconds > MAX_HEADWAY_SECONDS) {
+            return;
+        }
+        headways(stopKey, serviceName, operator).observe(slot, headwaySeconds);
+    }
+
+    /**
+     * Replaces everything learnt so far with headways aggregated from the stored history.
+     */
+    public void replaceAll(Collection<Headway> headways) {
+        Map<String, Map<String, ServiceHeadways>> rebuilt = new HashMap<>();
+        for (Headway headway : headways) {
+            rebuilt.computeIfAbsent(headway.stopKey(), k -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(headway.serviceName(), k -> new ServiceHeadways(headway.operator()))
+                    .set(headway.slot(), headway.meanSeconds(), headway.samples());
+        }
+        stops.keySet().retainAll(rebuilt.keySet());
+        stops.putAll(rebuilt);
+    }
+
+    /**
+     * Estimated arrivals for every service with enough history around this time of day, if any.
+     */
+    public Optional<StopArrivals> predict(String sourceApi, String stopCode, Instant now) {
+        Map<String, ServiceHeadways> services = stops.get(stopKey(sourceApi, stopCode));
+        if (services == null) {
+            return Optional.empty();
+        }
+        int slot = slotOf(now);
+        long nowSeconds = now.getEpochSecond();
+        List<BusArrival> arrivals = new ArrayList<>();
+        services.forEach((serviceName, headways) -> {
+            double headway = headways.around(slot);
+            if (headway > 0) {
+                long firstEta = nowSeconds + Math.round(headway / 2);
+                arrivals.add(BusArrival.predicted(serviceName, headways.operator,
+                        firstEta, firstEta + Math.round(headway)));
+            }
+        });
+        if (arrivals.isEmpty()) {
+            return Optional.empty();
+        }
+        arrivals.sort(Comparator.comparing(BusArrival::serviceName, BusRouteIndex.SERVICE_ORDER));
+        return Optional.of(StopArrivals.predicted(sourceApi, stopCode, arrivals, now));
+    }
+
+    private ServiceHeadways headways(String stopKey, String serviceName, String operator) {
+        return stops.computeIfAbsent(stopKey, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(serviceName, k -> new ServiceHeadways(operator));
+    }
+
+    /**
+     * Mean headway of one service at one stop in one quarter-hour slot.
+     */
+    public record Headway(String stopKey, String serviceName, String operator, int slot,
+                          double meanSeconds, long samples) {}
+
+    private static final class ServiceHeadways {
+        private final String operator;
+        private final float[] meanSeconds = new float[SLOTS_PER_DAY];
+        private final int[] samples = new int[SLOTS_PER_DAY];
+
+        private ServiceHeadways(String operator) {
+            this.operator = operator;
+        }
+
+        synchronized void observe(int slot, int headwaySeconds) {
+            int weight = Math.min(samples[slot] + 1, MAX_WEIGHT);
+            meanSeconds[slot] += (headwaySeconds - meanSeconds[slot]) / weight;
+            samples[slot]++;
+        }
+
+        synchronized void set(int slot, double mean, long count) {
+            meanSeconds[slot] = (float) mean;
+            samples[slot] = (int) Math.min(count, Integer.MAX_VALUE);
+        }
+
+        // Nearest slot with enough samples, or 0 when there is none close enough
+        synchronized double around(int slot) {
+            for (int distance = 0; distance <= SLOT_SEARCH; distance++) {
+                for (int candidate : new int[]{slot - distance, slot + distance}) {
+                    int wrapped = Math.floorMod(candidate, SLOTS_PER_DAY);
+                    if (samples[wrapped] >= MIN_SAMPLES) {
+                        return meanSeconds[wrapped];
+                    }
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.springbackend.service.implementation;
+
+import com.example.springbackend.dto.llm.DirectionsResponseDTO;
+import com.example.springbackend.model.Coordinates;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * In-process bus router over the {@link TransitNetwork}, answering without calling OneMap.
+ *
+ * Runs RAPTOR: round k finds the earliest arrival at every stop using at most k buses, scanning each
+ * route once per round from the first stop reached in the previous round, then relaxing walking
+ * transfers. Each round that improves the arrival at the destination yields one itinerary, so the
+ * results trade fewer transfers against time. Results use the same {@link DirectionsResponseDTO.RouteDTO}
+ * shape as OneMap routes.
+ */
+@Component
+public class LocalTransitRouter {
+
+    public static final int MAX_ITINERARIES = 3;
+
+    static final double ACCESS_RADIUS_METERS = 600;
+    private static final int ACCESS_STOPS = 30;
+    private static final int MAX_BUSES = 4;
+    // Direct walks longer than this are not offered
+    private static final double MAX_WALK_ONLY_METERS = 2_000;
+
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+    private static final int ORIGIN = -2;
+    private static final int NONE = -1;
+
+    private final BusRouteIndexManager routeIndexManager;
+
+    public LocalTransitRouter(BusRouteIndexManager routeIndexManager) {
+        this.routeIndexManager = routeIndexManager;
+    }
+
+    public boolean isReady() {
+        return !routeIndexManager.network().isEmpty();
+    }
+
+    /**
+     * Up to {@link #MAX_ITINERARIES} routes, fastest first; empty when the network is not loaded yet
+     * or no bus connects the two points within walking distance of a stop.
+     */
+    public List<DirectionsResponseDTO.RouteDTO> route(Coordinates from, Coordinates to, LocalTime departure) {
+        return route(routeIndexManager.network(), from, to, departure);
+    }
+
+    public static List<DirectionsResponseDTO.RouteDTO> route(TransitNetwork network, Coordinates from, Coordinates to,
+                                                              LocalTime departure) {
+        if (network.isEmpty()) {
+            return List.of();
+        }
+        Search search = new Search(network, departure);
+        List<DirectionsResponseDTO.RouteDTO> routes = new ArrayList<>(search.run(from, to));
+
+        double directMeters = BusStopSpatialIndex.distanceMeters(from.latitude(), from.longitude(),
+                to.latitude(), to.longitude());
+        int walkOnlySeconds = TransitNetwork.walkSeconds(directMeters);
+        if (directMeters <= MAX_WALK_ONLY_METERS
+                && (routes.isEmpty() || walkOnlySeconds / 60 < routes.get(0).durationInMinutes())) {
+            routes.add(0, new DirectionsResponseDTO.RouteDTO(walkOnlySeconds / 60,
+                    List.of(walkLeg(walkOnlySeconds, "Origin", null, from, "Destination", null, to)),
+                    "Walking route"));
+        }
+        return routes.size() > MAX_ITINERARIES ? List.copyOf(routes.subList(0, MAX_ITINERARIES)) : routes;
+    }
+
+    /**
+     * Every stop reachable from {@code origin} within {@code budgetSeconds} by walking and up to
+     * {@value #MAX_BUSES} buses, with the earliest arrival at each, nearest in time first.
+     */
+    public static List<Reachable> reachable(TransitNetwork network, Coordinates origin, LocalTime departure,
+                                            int budgetSeconds) {
+        if (network.isEmpty()) {
+            return List.of();
+        }
+        return new Search(network, departure).explore(origin, budgetSeconds);
+    }
+
+    /**
+     * A stop and the seconds needed to reach it.
+     */
+    public record Reachable(String stopCode, String stopName, Coordinates location, int seconds) {}
+
+    private static DirectionsResponseDTO.LegDTO walkLeg(int seconds, String fromName, String fromCode, Coordinates fromPoint,
+                                                        String toName, String toCode, Coordinates toPoint) {
+        return new DirectionsResponseDTO.LegDTO("WALK", seconds / 60, null,
+                String.format("%s from %s to %s", "WALK", fromName, toName),
+                null, List.of(fromPoint, toPoint), fromName, fromCode, toName, toCode);
+    }
+
+    /**
+     * State of one query. Labels are kept per round so each itinerary can be traced back.
+     */
+    private static final class Search {
+        private final TransitNetwork network;
+        private final LocalTime departure;
+        private final int stopCount;
+
+        private final int[] best;
+        private final int[] bestRound;
+        // Best arrival with one bus fewer, and its round: the only labels a route may be boarded from this round
+        private final int[] previous;
+        private final int[] previousRound;
+        private final int[][] arrival;
+        // Reached by bus: route, boarding and alighting positions on it, and the round the boarding stop was reached in
+        private final int[][] labelRoute;
+        private final int[][] labelBoard;
+        private final int[][] labelAlight;
+        private final int[][] labelBoardRound;
+        // Reached on foot: the stop walked from, or ORIGIN
+        private final int[][] labelWalkFrom;
+
+        private Search(TransitNetwork network, LocalTime departure) {
+            this.network = network;
+            this.departure = departure;
+            this.stopCount = network.stopCount();
+            this.best = new int[stopCount];
+            this.bestRound = new int[stopCount];
+            this.previous = new int[stopCount];
+            this.previousRound = new int[stopCount];
+            this.arrival = new int[MAX_BUSES + 1][stopCount];
+            this.labelRoute = new int[MAX_BUSES + 1][stopCount];
+            this.labelBoard = new int[MAX_BUSES + 1][stopCount];
+            this.labelAlight = new int[MAX_BUSES + 1][stopCount];
+            this.labelBoardRound = new int[MAX_BUSES + 1][stopCount];
+            this.labelWalkFrom = new int[MAX_BUSES + 1][stopCount];
+            Arrays.fill(best, INFINITY);
+            for (int k = 0; k <= MAX_BUSES; k++) {
+                Arrays.fill(arrival[k], INFINITY);
+                Arrays.fill(labelRoute[k], NONE);
+                Arrays.fill(labelWalkFrom[k], NONE);
+            }
+        }
+
+        List<DirectionsResponseDTO.RouteDTO> run(Coordinates from, Coordinates to) {
+            Map<Integer, Integer> egress = new HashMap<>();
+            for (BusStopSpatialIndex.Neighbour neighbour : network.stopsNear(
+                    to.latitude(), to.longitude(), ACCESS_RADIUS_METERS, ACCESS_STOPS)) {
+                egress.put(network.stopIndexOf(neighbour.stop().code()),
+                        TransitNetwork.walkSeconds(neighbour.distanceMeters()));
+            }
+            if (egress.isEmpty()) {
+                return List.of();
+            }
+
+            BitSet marked = walkFromOrigin(from, INFINITY);
+            int bestAtDestination = INFINITY;
+            List<int[]> itineraries = new ArrayList<>(); // {round, egress stop, total seconds}
+            for (int k = 1; k <= MAX_BUSES && !marked.isEmpty(); k++) {
+                marked = scanRoutes(k, marked, bestAtDestination);
+                relaxTransfers(k, marked, bestAtDestination);
+
+                int[] bestEgress = null;
+                for (Map.Entry<Integer, Integer> exit : egress.entrySet()) {
+                    int stop = exit.getKey();
+                    int total = arrival[k][stop] + exit.getValue();
+                    if (arrival[k][stop] < INFINITY && total < bestAtDestination) {
+                        bestAtDestination = total;
+                        bestEgress = new int[]{k, stop, total};
+                    }
+                }
+                if (bestEgress != null) {
+                    itineraries.add(bestEgress);
+                }
+            }
+
+            return itineraries.stream()
+                    .sorted(Comparator.comparingInt(itinerary -> itinerary[2]))
+                    .map(itinerary -> toRoute(itinerary[0], itinerary[1], itinerary[2], from, to, egress))
+                    .toList();
+        }
+
+        List<Reachable> explore(Coordinates from, int budgetSeconds) {
+            BitSet marked = walkFromOrigin(from, budgetSeconds + 1);
+            for (int k = 1; k <= MAX_BUSES && !marked.isEmpty(); k++) {
+                marked = scanRoutes(k, marked, budgetSeconds + 1);
+                relaxTransfers(k, marked, budgetSeconds + 1);
+            }
+            List<Reachable> reached = new ArrayList<>();
+            for (int stop = 0; stop < stopCount; stop++) {
+                if (best[stop] <= budgetSeconds) {
+                    reached.add(new Reachable(network.stopCodes[stop], stopName(stop), point(stop), best[stop]));
+                }
+            }
+            reached.sort(Comparator.comparingInt(Reachable::seconds).thenComparing(Reachable::stopCode));
+            return reached;
+        }
+
+        private BitSet walkFromOrigin(Coordinates from, int bound) {
+            BitSet marked = new BitSet(stopCount);
+            for (BusStopSpatialIndex.Neighbour neighbour : network.stopsNear(
+                    from.latitude(), from.longitude(), ACCESS_RADIUS_METERS, ACCESS_STOPS)) {
+                int stop = network.stopIndexOf(neighbour.stop().code());
+                int seconds = TransitNetwork.walkSeconds(neighbour.distanceMeters());
+                if (seconds < best[stop] && seconds < bound) {
+                    reach(0, stop, seconds);
+                    labelWalkFrom[0][stop] = ORIGIN;
+                    marked.set(stop);
+                }
+            }
+            return marked;
+        }
+
+        // Rides every route touching a stop reached in the previous round, from the earliest such stop
+        private BitSet scanRoutes(int k, BitSet previouslyMarked, int bound) {
+            System.arraycopy(best, 0, previous, 0, stopCount);
+            System.arraycopy(bestRound, 0, previousRound, 0, stopCount);
+            Map<Integer, Integer> firstPosition = new HashMap<>();
+            for (int stop = previouslyMarked.nextSetBit(0); stop >= 0; stop = previouslyMarked.nextSetBit(stop + 1)) {
+                for (int i = network.stopRouteStart[stop]; i < network.stopRouteStart[stop + 1]; i++) {
+                    firstPosition.merge(network.stopRouteRoutes[i], network.stopRoutePositions[i], Math::min);
+                }
+            }
+
+            BitSet marked = new BitSet(stopCount);
+            for (Map.Entry<Integer, Integer> entry : firstPosition.entrySet()) {
+                int route = entry.getKey();
+                int headway = network.headwaySeconds(route, departure);
+                if (headway == 0) {
+                    continue;
+                }
+                int start = network.routeStart[route];
+                int length = network.routeStart[route + 1] - start;
+                int boardPosition = NONE;
+                int boardRound = 0;
+                // Arrival at position p when boarded at boardPosition is boardCost + seconds[p]
+                int boardCost = INFINITY;
+                for (int pos = entry.getValue(); pos < length; pos++) {
+                    int stop = network.routeStops[start + pos];
+                    int seconds = network.routeStopSeconds[start + pos];
+                    if (boardPosition != NONE) {
+                        int arrive = boardCost + seconds;
+                        if (arrive < best[stop] && arrive < bound) {
+                            reach(k, stop, arrive);
+                            labelRoute[k][stop] = route;
+                            labelBoard[k][stop] = boardPosition;
+                            labelAlight[k][stop] = pos;
+                            labelBoardRound[k][stop] = boardRound;
+                            labelWalkFrom[k][stop] = NONE;
+                            marked.set(stop);
+                        }
+                    }
+                    if (previous[stop] < INFINITY) {
+                        int cost = previous[stop] + headway / 2 - seconds;
+                        if (cost < boardCost) {
+                            boardCost = cost;
+                            boardPosition = pos;
+                            boardRound = previousRound[stop];
+                        }
+                    }
+                }
+            }
+            return marked;
+        }
+
+        private void relaxTransfers(int k, BitSet marked, int bound) {
+            BitSet byBus = (BitSet) marked.clone();
+            for (int stop = byBus.nextSetBit(0); stop >= 0; stop = byBus.nextSetBit(stop + 1)) {
+                if (labelRoute[k][stop] == NONE) {
+                    continue;
+                }
+                for (int i = network.transferStart[stop]; i < network.transferStart[stop + 1]; i++) {
+                    int target = network.transferTargets[i];
+                    int arrive = arrival[k][stop] + network.transferSeconds[i];
+                    if (arrive < best[target] && arrive < bound) {
+                        reach(k, target, arrive);
+                        labelRoute[k][target] = NONE;
+                        labelWalkFrom[k][target] = stop;
+                        marked.set(target);
+                    }
+                }
+            }
+        }
+
+        private void reach(int k, int stop, int seconds) {
+            arrival[k][stop] = seconds;
+            best[stop] = seconds;
+            bestRound[stop] = k;
+        }
+
+        private DirectionsResponseDTO.RouteDTO toRoute(int round, int exitStop, int totalSeconds,
+                                                       Coordinates from, Coordinates to, Map<Integer, Integer> egress) {
+            Deque<DirectionsResponseDTO.LegDTO> legs = new ArrayDeque<>();
+            legs.addFirst(walkLeg(egress.get(exitStop), stopName(exitStop), network.stopCodes[exitStop],
+                    point(exitStop), "Destination", null, to));
+
+            int k = round;
+            int stop = exitStop;
+            while (true) {
+                int walkFrom = labelWalkFrom[k][stop];
+                if (walkFrom == ORIGIN) {
+                    legs.addFirst(walkLeg(arrival[k][stop], "Origin", null, from,
+                            stopName(stop), network.stopCodes[stop], point(stop)));
+                    break;
+                }
+                if (walkFrom != NONE) {
+                    legs.addFirst(walkLeg(arrival[k][stop] - arrival[k][walkFrom], stopName(walkFrom),
+                            network.stopCodes[walkFrom], point(walkFrom), stopName(stop), network.stopCodes[stop],
+                            point(stop)));
+                    stop = walkFrom;
+                    continue;
+                }
+                int route = labelRoute[k][stop];
+                int boardPosition = labelBoard[k][stop];
+                int boardStop = network.routeStops[network.routeStart[route] + boardPosition];
+                int boardRound = labelBoardRound[k][stop];
+                legs.addFirst(busLeg(route, boardPosition, labelAlight[k][stop],
+                        arrival[k][stop] - arrival[boardRound][boardStop]));
+                k = boardRound;
+                stop = boardStop;
+            }
+
+            List<String> services = legs.stream()
+                    .filter(leg -> "BUS".equals(leg.type()))
+                    .map(DirectionsResponseDTO.LegDTO::busServiceNumber)
+                    .distinct()
+                    .toList();
+            String summary = services.isEmpty() ? "Walking route" : "Bus " + String.join(" → ", services);
+            return new DirectionsResponseDTO.RouteDTO(totalSeconds / 60, List.copyOf(legs), summary);
+        }
+
+        // Duration includes the expected wait at the boarding stop
+        private DirectionsResponseDTO.LegDTO busLeg(int route, int boardPosition, int alightPosition, int seconds) {
+            int start = network.routeStart[route];
+            List<Coordinates> points = new ArrayList<>(alightPosition - boardPosition + 1);
+            for (int pos = boardPosition; pos <= alightPosition; pos++) {
+                points.add(point(network.routeStops[start + pos]));
+            }
+            int fromStop = network.routeStops[start + boardPosition];
+            int toStop = network.routeStops[start + alightPosition];
+            return new DirectionsResponseDTO.LegDTO("BUS", seconds / 60, network.routeServices[route],
+                    String.format("%s from %s to %s", "BUS", stopName(fromStop), stopName(toStop)),
+                    null, points, stopName(fromStop), network.stopCodes[fromStop],
+                    stopName(toStop), network.stopCodes[toStop]);
+        }
+
+        private String stopName(int stop) {
+            String name = network.stopNames[stop];
+            return name == null || name.isBlank() ? network.stopCodes[stop] : name;
+        }
+
+        private Coordinates point(int stop) {
+            return new Coordinates(network.stopLatitudes[stop], network.stopLongitudes[stop]);
+        }
+    }
+}
@@ -4,19 +4,18 @@ package com.example.springbackend.service.implementation;
 import com.example.springbackend.dto.LtaDtos;
 import com.example.springbackend.model.BusStop;
 import com.example.springbackend.model.BusArrival;
+import com.example.springbackend.model.IsoTimestamps;
 import com.example.springbackend.service.BusServiceProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
 
-import java.time.ZonedDateTime;
-import java.util.List;
-import java.util.Objects;
-import java.util.stream.Stream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
 
 // ... other imports for models, DTOs, ZonedDateTime, etc.
 
@@ -25,12 +24,25 @@ public class LtaBusServiceProvider implements BusServiceProvider {
 
     private static final String API_NAME = "LTA";
     private final WebClient webClient;
+    private final LtaPagedFetcher pagedFetcher;
 
     @Value("${api.lta.key}")
     private String apiKey;
 
-    public LtaBusServiceProvider(@Qualifier("ltaWebClient") WebClient webClient) {
+    public LtaBusServiceProvider(WebClient webClient) {
+        this(webClient, new LtaPagedFetcher(webClient));
+    }
+
+    @Autowired
+    public LtaBusServiceProvider(@Qualifier("ltaWebClient") WebClient webClient,
+                                 @Value("${api.lta.paging.concurrency:4}") int pagingConcurrency,
+                                 @Value("${api.lta.paging.min-request-interval:50ms}") Duration minRequestInterval) {
+        this(webClient, new LtaPagedFetcher(webClient, pagingConcurrency, minRequestInterval));
+    }
+
+    private LtaBusServiceProvider(WebClient webClient, LtaPagedFetcher pagedFetcher) {
         this.webClient = webClient;
+        this.pagedFetcher = pagedFetcher;
     }
 
     @Override
@@ -38,18 +50,10 @@ public class LtaBusServiceProvider implements BusServiceProvider {
         return API_NAME;
     }
 
-    //TODO: support pagination for all bus stops (LTA API supports pagination)
     @Override
-    @Cacheable("ltaBusStops")
     public Flux<BusStop> getAllBusStops() {
-        final int PAGE_SIZE =500;
-        // LTA API paginates every 500 results. A real implementation needs to loop.
-        // For simplicity, we'll just fetch the first page.
-        return Flux
-                .range(0, 100)
-                .concatMap(page -> fetchBusStopsPage(page * PAGE_SIZE))
-                .takeUntil(list -> list.size() < PAGE_SIZE)
-                .flatMapIterable(list -> list)
+        return pagedFetcher
+                .fetchAll("/BusStops", apiKey, LtaDtos.LtaBusStopsResponse.class, LtaDtos.LtaBusStopsResponse::value)
                 .map(ltaStop -> new BusStop(
                         ltaStop.code(),
                         ltaStop.description(),
@@ -58,24 +62,44 @@ public class LtaBusServiceProvider implements BusServiceProvider {
                         API_NAME
                 ));
     }
-    private Mono<List<LtaDtos.BusStop>> fetchBusStopsPage(int skip) {
-        return webClient.get()
-                .uri(uriBuilder -> uriBuilder
-                        .path("/BusStops")
-                        .queryParam("$skip", skip)
-                        .build())
-                .header("AccountKey", apiKey)
-                .retrieve()
-                .bodyToMono(LtaDtos.LtaBusStopsResponse.class)
-                .map(LtaDtos.LtaBusStopsResponse::value);
+
+    /**
+     * Streams the full BusRoutes dataset: every stop of every service, per direction.
+     */
+    public Flux<LtaDtos.BusRoute> getAllBusRoutes() {
+        return pagedFetcher
+                .fetchAll("/BusRoutes", apiKey, LtaDtos.LtaBusRoutesResponse.class, LtaDtos.LtaBusRoutesResponse::value);
     }
 
+    /**
+     * Streams the full BusServices dataset: one record per service and direction.
+     */
+    public Flux<LtaDtos.BusService> getAllBusServices() {
+        return pagedFetcher
+                .fetchAll("/BusServices", apiKey, LtaDtos.LtaBusServicesResponse.class, LtaDtos.LtaBusServicesResponse::value);
+    }
 
     @Override
     public Flux<BusArrival> getBusArrivals(String busStopCode) {
+        return fetchArrivals(busStopCode, null);
+    }
+
+    // LTA returns only the requested service when ServiceNo is given
+    @Override
+    public Flux<BusArrival> getBusArrivals(String busStopCode, String serviceNo) {
+        return fetchArrivals(busStopCode, serviceNo);
+    }
+
+    @Override
+    public boolean filtersServicesUpstream() {
+        return true;
+    }
+
+    private Flux<BusArrival> fetchArrivals(String busStopCode, String serviceNo) {
         return webClient.get()
                 .uri(uriBuilder -> uriBuilder.path("/v3/BusArrival") // Using v2 as per your sample
                         .queryParam("BusStopCode", busStopCode)
+                        .queryParamIfPresent("ServiceNo", Optional.ofNullable(serviceNo))
                         .build())
                 .header("AccountKey", apiKey)
                 .retrieve()
@@ -85,13 +109,14 @@ public class LtaBusServiceProvider implements BusServiceProvider {
     }
 
     private BusArrival mapLtaServiceToBusArrival(LtaDtos.Service service) {
-        List<ZonedDateTime> arrivals = Stream.of(service.nextBus(), service.nextBus2(), service.nextBus3())
-                .filter(Objects::nonNull)
-                .map(LtaDtos.NextBus::estimatedArrival)
-                .filter(timeStr -> timeStr != null && !timeStr.isEmpty())
-                .map(ZonedDateTime::parse)
-                .toList();
-
-        return new BusArrival(service.serviceNo(), service.operator(), arrivals);
+        long[] etas = new long[3];
+        int count = 0;
+        for (LtaDtos.NextBus nextBus : new LtaDtos.NextBus[]{service.nextBus(), service.nextBus2(), service.nextBus3()}) {
+            if (nextBus != null && nextBus.estimatedArrival() != null && !nextBus.estimatedArrival().isEmpty()) {
+                etas[count++] = IsoTimestamps.parseEpochSecond(nextBus.estimatedArrival());
+            }
+        }
+        return BusArrival.ofEpochSeconds(service.serviceNo(), service.operator(),
+                count == etas.length ? etas : Arrays.copyOf(etas, count));
     }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.example.springbackend.service.implementation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Fetches every page of a paged LTA DataMall dataset (BusStops, BusServices, BusRoutes).
+ *
+ * DataMall returns at most {@link #PAGE_SIZE} records per call and pages with {@code $skip}.
+ * The first page is fetched on its own so small datasets cost one call; the rest are fetched
+ * with bounded concurrency and a minimum spacing between requests, then reassembled in order.
+ * Paging stops at the first short page, and each page is retried with backoff on transient errors.
+ */
+public class LtaPagedFetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(LtaPagedFetcher.class);
+
+    public static final int PAGE_SIZE = 500;
+    private static final int MAX_PAGES = 100;
+
+    private static final int DEFAULT_CONCURRENCY = 4;
+    private static final Duration DEFAULT_MIN_REQUEST_INTERVAL = Duration.ofMillis(50);
+    private static final Duration PAGE_TIMEOUT = Duration.ofSeconds(15);
+    private static final int PAGE_RETRIES = 3;
+    private static final Duration RETRY_BACKOFF = Duration.ofMillis(250);
+
+    private final WebClient webClient;
+    private final int concurrency;
+    private final Duration minRequestInterval;
+
+    public LtaPagedFetcher(WebClient webClient) {
+        this(webClient, DEFAULT_CONCURRENCY, DEFAULT_MIN_REQUEST_INTERVAL);
+    }
+
+    /**
+     * @param concurrency Maximum pages in flight at once.
+     * @param minRequestInterval Minimum spacing between page requests, to stay under the DataMall quota.
+     */
+    public LtaPagedFetcher(WebClient webClient, int concurrency, Duration minRequestInterval) {
+        this.webClient = webClient;
+        this.concurrency = Math.max(1, concurrency);
+        this.minRequestInterval = minRequestInterval;
+    }
+
+    /**
+     * Streams every record of a dataset in upstream order.
+     *
+     * @param path Dataset path, e.g. "/BusStops".
+     * @param apiKey DataMall AccountKey.
+     * @param responseType Response envelope type.
+     * @param records Extracts the page's records from the envelope.
+     */
+    public <R, T> Flux<T> fetchAll(String path, String apiKey, Class<R> responseType, Function<R, List<T>> records) {
+        return fetchPage(path, apiKey, 0, responseType, records)
+                .flatMapMany(first -> {
+                    if (first.size() < PAGE_SIZE) {
+                        return Flux.just(first);
+                    }
+                    Flux<Integer> remainingPages = Flux.range(1, MAX_PAGES - 1);
+                    if (!minRequestInterval.isZero()) {
+                        remainingPages = remainingPages.delayElements(minRequestInterval);
+                    }
+                    Flux<List<T>> rest = remainingPages
+                            .flatMapSequential(page -> fetchPage(path, apiKey, page, responseType, records),
+                                    concurrency, 1)
+                            .takeUntil(page -> page.size() < PAGE_SIZE);
+                    return Flux.concat(Flux.just(first), rest);
+                })
+                .flatMapIterable(page -> page);
+    }
+
+    private <R, T> Mono<List<T>> fetchPage(String path, String apiKey, int page,
+                                          Class<R> responseType, Function<R, List<T>> records) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path(path)
+                        .queryParam("$skip", page * PAGE_SIZE)
+                        .build())
+                .header("AccountKey", apiKey)
+                .retrieve()
+                .bodyToMono(responseType)
+                .timeout(PAGE_TIMEOUT)
+                .map(response -> {
+                    List<T> items = records.apply(response);
+                    return items == null ? List.<T>of() : items;
+                })
+                .defaultIfEmpty(List.of())
+                .retryWhen(Retry.backoff(PAGE_RETRIES, RETRY_BACKOFF)
+                        .filter(LtaPagedFetcher::isTransient)
+                        .doBeforeRetry(signal -> log.warn("Retrying {} page {} after: {}",
+                                path, page, signal.failure().getMessage())));
+    }
+
+    private static boolean isTransient(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            int status = response.getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        return true;
+    }
+}
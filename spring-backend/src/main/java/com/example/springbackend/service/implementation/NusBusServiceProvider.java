@@ -5,20 +5,17 @@ import com.example.springbackend.dto.NusDtos;
 import com.example.springbackend.model.BusArrival;
 import com.example.springbackend.model.BusStop;
 import com.example.springbackend.service.BusServiceProvider;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.codec.DecodingException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.util.List;
+import java.time.Instant;
 
 @Service
 public class NusBusServiceProvider implements BusServiceProvider {
@@ -39,23 +36,19 @@ public class NusBusServiceProvider implements BusServiceProvider {
     }
 
     @Override
-    @Cacheable("nusBusStops")
     public Flux<BusStop> getAllBusStops() {
         return webClient.get()
                 .uri("/BusStops")
                 .header("Authorization", authKey)
                 .header(HttpHeaders.ACCEPT, "application/json")
                 .retrieve()
-                .bodyToMono(String.class)
-                .doOnNext(body -> log.info("Raw /BusStops response body: {}", body))
-                .flatMapMany(body -> {
-                    try {
-                        NusDtos.NusBusStopsResponse response = new ObjectMapper().readValue(body, NusDtos.NusBusStopsResponse.class);
-                        return Flux.fromIterable(response.BusStopsResult().busstops());
-                    } catch (Exception e) {
-                        log.error("Failed to parse /BusStops response", e);
-                        return Flux.empty();
-                    }
+                .bodyToMono(NusDtos.NusBusStopsResponse.class)
+                .mapNotNull(NusDtos.NusBusStopsResponse::BusStopsResult)
+                .mapNotNull(NusDtos.BusStopsResult::busstops)
+                .flatMapIterable(stops -> stops)
+                .onErrorResume(DecodingException.class, e -> {
+                    log.error("Failed to parse /BusStops response", e);
+                    return Flux.empty();
                 })
                 .map(nusStop -> new BusStop(
                         nusStop.name(),
@@ -67,30 +60,25 @@ public class NusBusServiceProvider implements BusServiceProvider {
 
     @Override
     public Flux<BusArrival> getBusArrivals(String busStopCode) {
-        ZonedDateTime now = ZonedDateTime.now(ZoneId.of("Asia/Singapore"));
+        long now = Instant.now().getEpochSecond();
         return webClient.get()
                 .uri(uriBuilder -> uriBuilder.path("/ShuttleService")
                         .queryParam("busstopname", busStopCode)
                         .build())
                 .header("Authorization", authKey)
+                .header(HttpHeaders.ACCEPT, "application/json")
                 .retrieve()
-                .bodyToMono(String.class)
-                .doOnNext(body -> log.info("Raw /ShuttleService response body: {}", body))
-                .flatMapMany(body -> {
-                    try {
-                        NusDtos.NusArrivalsResponse response = new ObjectMapper().readValue(body, NusDtos.NusArrivalsResponse.class);
-                        return Flux.fromIterable(response.ShuttleServiceResult().shuttles());
-                    } catch (Exception e) {
-                        log.error("Failed to parse /ShuttleService response", e);
-                        return Flux.empty();
-                    }
+                .bodyToMono(NusDtos.NusArrivalsResponse.class)
+                .mapNotNull(NusDtos.NusArrivalsResponse::ShuttleServiceResult)
+                .mapNotNull(NusDtos.ShuttleServiceResult::shuttles)
+                .flatMapIterable(shuttles -> shuttles)
+                .onErrorResume(DecodingException.class, e -> {
+                    log.error("Failed to parse /ShuttleService response", e);
+                    return Flux.empty();
                 })
-                .map(shuttle -> {
-                    List<ZonedDateTime> arrivals = shuttle._etas().stream()
-                            .map(eta -> now.plusMinutes(eta.eta()))
-                            .sorted()
-                            .toList();
-                    return new BusArrival(shuttle.name(), API_NAME, arrivals);
-                });
+                .map(shuttle -> BusArrival.ofEpochSeconds(shuttle.name(), API_NAME, shuttle._etas().stream()
+                        .mapToLong(eta -> now + eta.eta() * 60L)
+                        .sorted()
+                        .toArray()));
     }
 }
\ No newline at end of file
@@ -6,11 +6,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.codec.DecodingException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.example.springbackend.dto.NusDtos;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import reactor.core.publisher.Flux;
 
@@ -35,15 +35,13 @@ public class NusService {
                     .build())
                 .header("Authorization", authKey)
                 .retrieve()
-                .bodyToMono(String.class)
-                .flatMapMany(body -> {
-                    try {
-                        NusDtos.NusArrivalsResponse response = new ObjectMapper().readValue(body, NusDtos.NusArrivalsResponse.class);
-                        return Flux.fromIterable(response.ShuttleServiceResult().shuttles());
-                    } catch (Exception e) {
-                        log.error("Failed to parse /ShuttleService response for service names", e);
-                        return Flux.empty();
-                    }
+                .bodyToMono(NusDtos.NusArrivalsResponse.class)
+                .mapNotNull(NusDtos.NusArrivalsResponse::ShuttleServiceResult)
+                .mapNotNull(NusDtos.ShuttleServiceResult::shuttles)
+                .flatMapIterable(shuttles -> shuttles)
+                .onErrorResume(DecodingException.class, e -> {
+                    log.error("Failed to parse /ShuttleService response for service names", e);
+                    return Flux.empty();
                 })
                 .map(NusDtos.Shuttle::name)
                 .filter(Objects::nonNull)
@@ -0,0 +1,259 @@
+package com.example.springbackend.service.implementation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One circuit breaker and adaptive timeout per upstream provider.
+ *
+ * Each call is cut off at twice the provider's recent p95 latency, kept between the configured
+ * minimum and maximum. When half of the last {@value #WINDOW_SIZE} calls fail, the breaker opens and
+ * calls fail fast for {@code openDuration}; then a single probe call decides whether it closes again.
+ * Client errors (4xx other than 429) mean upstream answered, so they count as successes.
+ */
+@Component
+public class ProviderCircuitBreakers {
+
+    private static final Logger log = LoggerFactory.getLogger(ProviderCircuitBreakers.class);
+
+    private static final int WINDOW_SIZE = 20;
+    private static final int MIN_CALLS = 10;
+    private static final int FAILURE_RATE_PERCENT = 50;
+    private static final int LATENCY_SAMPLES = 50;
+    private static final int MIN_LATENCY_SAMPLES = 10;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration minTimeout;
+    private final Duration maxTimeout;
+    private final Duration openDuration;
+    private final Clock clock;
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+
+    public ProviderCircuitBreakers(MeterRegistry meterRegistry) {
+        this(meterRegistry, Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofSeconds(30));
+    }
+
+    @Autowired
+    public ProviderCircuitBreakers(MeterRegistry meterRegistry,
+                                   @Value("${bus.provider.timeout.min:PT1S}") Duration minTimeout,
+                                   @Value("${bus.provider.timeout.max:PT5S}") Duration maxTimeout,
+                                   @Value("${bus.provider.breaker.open-duration:PT30S}") Duration openDuration) {
+        this(meterRegistry, minTimeout, maxTimeout, openDuration, Clock.systemUTC());
+    }
+
+    public ProviderCircuitBreakers(MeterRegistry meterRegistry, Duration minTimeout, Duration maxTimeout,
+                                   Duration openDuration, Clock clock) {
+        this.meterRegistry = meterRegistry;
+        this.minTimeout = minTimeout;
+        this.maxTimeout = maxTimeout;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs an upstream call through the provider's breaker and timeout.
+     * Fails immediately with {@link CircuitOpenException} while the breaker is open.
+     */
+    public <T> Mono<T> protect(String provider, Mono<T> call) {
+        return Mono.defer(() -> {
+            Breaker breaker = breakers.computeIfAbsent(provider, this::newBreaker);
+            if (!breaker.tryAcquire(clock.instant())) {
+                breaker.rejected.increment();
+                return Mono.error(new CircuitOpenException(provider));
+            }
+            long start = System.nanoTime();
+            return call.timeout(breaker.timeout())
+                    .doOnSuccess(value -> breaker.onSuccess(System.nanoTime() - start))
+                    .doOnError(error -> {
+                        if (countsAsFailure(error)) {
+                            breaker.onFailure(clock.instant());
+                        } else {
+                            breaker.onSuccess(System.nanoTime() - start);
+                        }
+                    })
+                    .doOnCancel(breaker::onCancel);
+        });
+    }
+
+    public State state(String provider) {
+        Breaker breaker = breakers.get(provider);
+        return breaker == null ? State.CLOSED : breaker.state();
+    }
+
+    private static boolean countsAsFailure(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            int status = response.getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        return true;
+    }
+
+    private Breaker newBreaker(String provider) {
+        Breaker breaker = new Breaker(provider, Counter.builder("bus.provider.circuit.rejected")
+                .description("Upstream calls rejected because the provider's circuit was open")
+                .tag("provider", provider)
+                .register(meterRegistry));
+        Gauge.builder("bus.provider.circuit.state", breaker, b -> b.state().ordinal())
+                .description("Provider circuit state: 0 closed, 1 half-open, 2 open")
+                .tag("provider", provider)
+                .register(meterRegistry);
+        Gauge.builder("bus.provider.timeout", breaker, b -> b.timeout().toMillis())
+                .description("Current adaptive timeout for provider calls")
+                .tag("provider", provider)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        return breaker;
+    }
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    /**
+     * Raised instead of calling a provider whose circuit is open.
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public static class CircuitOpenException extends RuntimeException {
+        public CircuitOpenException(String provider) {
+            super("Provider " + provider + " is unavailable");
+        }
+    }
+
+    private final class Breaker {
+        private final String provider;
+        private final Counter rejected;
+
+        private State state = State.CLOSED;
+        private Instant openedAt;
+        private boolean probeInFlight;
+
+        private final boolean[] outcomes = new boolean[WINDOW_SIZE]; // true = failure
+        private int outcomeIndex;
+        private int outcomeCount;
+        private int failures;
+
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+        private int latencyIndex;
+        private int latencyCount;
+
+        private Breaker(String provider, Counter rejected) {
+            this.provider = provider;
+            this.rejected = rejected;
+        }
+
+        synchronized State state() {
+            return state;
+        }
+
+        synchronized boolean tryAcquire(Instant now) {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (now.isBefore(openedAt.plus(openDuration))) {
+                        return false;
+                    }
+                    state = State.HALF_OPEN;
+                    probeInFlight = true;
+                    log.info("Circuit for provider {} half-open, sending a probe", provider);
+                    return true;
+                default:
+                    if (probeInFlight) {
+                        return false;
+                    }
+                    probeInFlight = true;
+                    return true;
+            }
+        }
+
+        synchronized void onSuccess(long latencyNanos) {
+            latencies[latencyIndex] = latencyNanos;
+            latencyIndex = (latencyIndex + 1) % LATENCY_SAMPLES;
+            latencyCount = Math.min(latencyCount + 1, LATENCY_SAMPLES);
+
+            if (state == State.HALF_OPEN) {
+                log.info("Circuit for provider {} closed", provider);
+                state = State.CLOSED;
+                probeInFlight = false;
+                resetWindow();
+            } else {
+                record(false);
+            }
+        }
+
+        synchronized void onFailure(Instant now) {
+            if (state == State.HALF_OPEN) {
+                open(now);
+                return;
+            }
+            record(true);
+            if (state == State.CLOSED && outcomeCount >= MIN_CALLS
+                    && failures * 100 >= FAILURE_RATE_PERCENT * outcomeCount) {
+                open(now);
+            }
+        }
+
+        // A cancelled probe settles nothing; let the next caller probe instead
+        synchronized void onCancel() {
+            if (state == State.HALF_OPEN) {
+                probeInFlight = false;
+            }
+        }
+
+        synchronized Duration timeout() {
+            if (latencyCount < MIN_LATENCY_SAMPLES) {
+                return maxTimeout;
+            }
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            long p95 = sorted[(int) Math.ceil(0.95 * latencyCount) - 1];
+            Duration adaptive = Duration.ofNanos(2 * p95);
+            if (adaptive.compareTo(minTimeout) < 0) {
+                return minTimeout;
+            }
+            return adaptive.compareTo(maxTimeout) > 0 ? maxTimeout : adaptive;
+        }
+
+        private void open(Instant now) {
+            log.warn("Circuit for provider {} opened for {}", provider, openDuration);
+            state = State.OPEN;
+            openedAt = now;
+            probeInFlight = false;
+            resetWindow();
+        }
+
+        private void record(boolean failure) {
+            if (outcomeCount == WINDOW_SIZE && outcomes[outcomeIndex]) {
+                failures--;
+            }
+            outcomes[outcomeIndex] = failure;
+            if (failure) {
+                failures++;
+            }
+            outcomeIndex = (outcomeIndex + 1) % WINDOW_SIZE;
+            outcomeCount = Math.min(outcomeCount + 1, WINDOW_SIZE);
+        }
+
+        private void resetWindow() {
+            Arrays.fill(outcomes, false);
+            outcomeIndex = 0;
+            outcomeCount = 0;
+            failures = 0;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.springbackend.service.implementation;
+
+import com.example.springbackend.dto.llm.DirectionsResponseDTO;
+import com.example.springbackend.model.Coordinates;
+import com.example.springbackend.service.RoutingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Cache of routing results per origin/destination pair, from OneMap or the local router depending on
+ * {@code routing.strategy}.
+ *
+ * Origin and destination are snapped to geohash cells and the departure time to a bucket, so commuters
+ * asking for the same trip from the same block at about the same time share one upstream call.
+ * Entries expire after {@code ttl} and the least recently used are evicted beyond {@code maxEntries}.
+ * Concurrent misses for one key share a single call. Empty and failed results are not cached.
+ * OneMap calls saved are only reported for strategies that call OneMap, tagged with the strategy:
+ * under {@code local-with-onemap-fallback} they are an upper bound.
+ */
+@Component
+public class RoutingCache {
+
+    private static final ZoneId SINGAPORE = ZoneId.of("Asia/Singapore");
+
+    private final int precision;
+    private final Duration departureBucket;
+    private final Duration ttl;
+    private final Clock clock;
+
+    private final SingleFlightCache<List<DirectionsResponseDTO.RouteDTO>> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter expiredEvictions;
+    private final Counter sizeEvictions;
+
+    @Autowired
+    public RoutingCache(MeterRegistry meterRegistry,
+                        @Value("${routing.cache.geohash-precision:7}") int precision,
+                        @Value("${routing.cache.departure-bucket:PT5M}") Duration departureBucket,
+                        @Value("${routing.cache.ttl:PT5M}") Duration ttl,
+                        @Value("${routing.cache.max-entries:2000}") int maxEntries,
+                        @Value("${routing.strategy:onemap}") String strategy) {
+        this(meterRegistry, precision, departureBucket, ttl, maxEntries, RoutingService.Strategy.fromProperty(strategy),
+                Clock.systemUTC());
+    }
+
+    public RoutingCache(MeterRegistry meterRegistry, int precision, Duration departureBucket, Duration ttl,
+                        int maxEntries, RoutingService.Strategy strategy, Clock clock) {
+        if (precision < 1 || precision > Geohash.MAX_PRECISION) {
+            throw new IllegalArgumentException("routing.cache.geohash-precision must be between 1 and "
+                    + Geohash.MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.departureBucket = departureBucket;
+        this.ttl = ttl;
+        this.clock = clock;
+
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        this.coalesced = lookupCounter(meterRegistry, "coalesced");
+        this.expiredEvictions = evictionCounter(meterRegistry, "expired");
+        this.sizeEvictions = evictionCounter(meterRegistry, "size");
+        this.entries = new SingleFlightCache<>(maxEntries, clock, new SingleFlightCache.Listener() {
+            @Override
+            public void onHit() {
+                hits.increment();
+            }
+
+            @Override
+            public void onMiss() {
+                misses.increment();
+            }
+
+            @Override
+            public void onCoalesced() {
+                coalesced.increment();
+            }
+
+            @Override
+            public void onExpired() {
+                expiredEvictions.increment();
+            }
+
+            @Override
+            public void onSizeEviction() {
+                sizeEvictions.increment();
+            }
+        });
+        if (strategy != RoutingService.Strategy.LOCAL) {
+            FunctionCounter.builder("routing.onemap.calls.saved", this, c -> c.hits.count() + c.coalesced.count())
+                    .description("OneMap routing calls avoided by the cache")
+                    .tag("strategy", strategy.name().toLowerCase(Locale.ROOT).replace('_', '-'))
+                    .register(meterRegistry);
+        }
+        Gauge.builder("routing.cache.hit.ratio", this, RoutingCache::hitRatio)
+                .description("Share of routing lookups answered without a new routing call")
+                .register(meterRegistry);
+        Gauge.builder("routing.cache.size", this, RoutingCache::size)
+                .description("Number of cached origin/destination routing results")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns cached routes for the snapped origin, destination and departure bucket, or loads them.
+     * @param start Origin as "lat,lon".
+     * @param end Destination as "lat,lon".
+     * @param departure Requested departure in Singapore local time.
+     * @param loader Upstream call, made with the caller's exact coordinates on a miss.
+     */
+    public Mono<List<DirectionsResponseDTO.RouteDTO>> get(String start, String end, LocalDateTime departure,
+                                                           Supplier<Mono<List<DirectionsResponseDTO.RouteDTO>>> loader) {
+        return Mono.defer(() -> {
+            String key = key(start, end, departure);
+            return entries.get(key, () -> loader.get().doOnNext(routes -> {
+                if (!routes.isEmpty()) {
+                    entries.put(key, List.copyOf(routes), clock.instant().plus(ttl));
+                }
+            }));
+        });
+    }
+
+    /**
+     * Drops expired results so they do not wait for the size limit to push them out.
+     */
+    @Scheduled(fixedDelayString = "${routing.cache.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        entries.evictExpired();
+    }
+
+    String key(String start, String end, LocalDateTime departure) {
+        long bucket = departure.atZone(SINGAPORE).toEpochSecond() / Math.max(1, departureBucket.toSeconds());
+        return cell(start) + ">" + cell(end) + "@" + bucket;
+    }
+
+    private String cell(String latLon) {
+        Coordinates coordinates = Coordinates.fromString(latLon);
+        return Geohash.encode(coordinates.latitude(), coordinates.longitude(), precision);
+    }
+
+    private int size() {
+        return entries.size();
+    }
+
+    private double hitRatio() {
+        double answered = hits.count() + coalesced.count();
+        double total = answered + misses.count();
+        return total == 0 ? 0 : answered / total;
+    }
+
+    private static Counter lookupCounter(MeterRegistry registry, String result) {
+        return Counter.builder("routing.cache")
+                .description("Routing lookups by cache outcome")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static Counter evictionCounter(MeterRegistry registry, String cause) {
+        return Counter.builder("routing.cache.evictions")
+                .description("Routing results evicted from the cache")
+                .tag("cause", cause)
+                .register(registry);
+    }
+}
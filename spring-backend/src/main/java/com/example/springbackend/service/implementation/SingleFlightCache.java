@@ -0,0 +1,133 @@
+package com.example.springbackend.service.implementation;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache of loaded values with a per-entry expiry, evicting the least recently used beyond
+ * {@code maxEntries}. Concurrent misses for one key share a single load. Loads decide what to keep by
+ * calling {@link #put}, so owners can skip empty or failed results and choose each entry's expiry.
+ */
+final class SingleFlightCache<V> {
+
+    /**
+     * Outcomes reported to the owning cache, usually to count them.
+     */
+    interface Listener {
+        default void onHit() {
+        }
+
+        default void onMiss() {
+        }
+
+        default void onCoalesced() {
+        }
+
+        default void onExpired() {
+        }
+
+        default void onSizeEviction() {
+        }
+    }
+
+    private final Clock clock;
+    private final Listener listener;
+    private final Map<String, Entry<V>> entries;
+    private final Map<String, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    SingleFlightCache(int maxEntries, Clock clock, Listener listener) {
+        this.clock = clock;
+        this.listener = listener;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                boolean full = size() > maxEntries;
+                if (full) {
+                    listener.onSizeEviction();
+                }
+                return full;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value for the key, joins the load already running for it, or starts one.
+     */
+    Mono<V> get(String key, Supplier<Mono<V>> loader) {
+        return Mono.defer(() -> {
+            V cached = lookup(key);
+            if (cached != null) {
+                listener.onHit();
+                return Mono.just(cached);
+            }
+            Mono<V> running = inFlight.get(key);
+            if (running != null) {
+                listener.onCoalesced();
+                return running;
+            }
+            // Cleared before the result reaches callers, after the loader has stored it; until then no newer
+            // load for the key can start, so removing by key cannot drop one
+            Mono<V> load = Mono.defer(loader)
+                    .doOnTerminate(() -> inFlight.remove(key))
+                    .cache();
+            Mono<V> winner = inFlight.putIfAbsent(key, load);
+            if (winner != null) {
+                listener.onCoalesced();
+                return winner;
+            }
+            listener.onMiss();
+            return load;
+        });
+    }
+
+    void put(String key, V value, Instant expiresAt) {
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, expiresAt));
+        }
+    }
+
+    /**
+     * Removes every expired entry, reporting each one to the listener.
+     */
+    void evictExpired() {
+        Instant now = clock.instant();
+        synchronized (entries) {
+            entries.values().removeIf(entry -> {
+                boolean expired = !entry.expiresAt().isAfter(now);
+                if (expired) {
+                    listener.onExpired();
+                }
+                return expired;
+            });
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private V lookup(String key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (!entry.expiresAt().isAfter(clock.instant())) {
+                entries.remove(key);
+                listener.onExpired();
+                return null;
+            }
+            return entry.value();
+        }
+    }
+
+    private record Entry<V>(V value, Instant expiresAt) {}
+}
@@ -0,0 +1,319 @@
+package com.example.springbackend.service.implementation;
+
+import com.example.springbackend.dto.LtaDtos;
+import com.example.springbackend.model.BusStop;
+import com.example.springbackend.model.Coordinates;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable bus network for the local router, built from LTA BusStops, BusRoutes and BusServices and
+ * held in flat primitive arrays.
+ *
+ * LTA publishes no timetables, so the network is frequency-based: riding between two stops takes the
+ * distance along the route at an average bus speed, and boarding waits half the service's published
+ * headway for the time of day. Stops within a short walk of each other are linked as transfers.
+ */
+public class TransitNetwork {
+
+    public static final TransitNetwork EMPTY = build(List.of(), List.of(), List.of(), Instant.EPOCH);
+
+    // Average speed including dwell time at stops
+    static final double BUS_METERS_PER_SECOND = 5.5;
+    static final double WALK_METERS_PER_SECOND = 1.3;
+    // Street distance over straight-line distance
+    static final double WALK_DETOUR = 1.25;
+    static final double TRANSFER_RADIUS_METERS = 250;
+
+    private static final int DEFAULT_HEADWAY_SECONDS = 12 * 60;
+    private static final int MIN_HOP_SECONDS = 20;
+    private static final int MAX_TRANSFERS_PER_STOP = 16;
+    private static final int PERIODS = 4;
+
+    // Stops
+    final String[] stopCodes;
+    final String[] stopNames;
+    final double[] stopLatitudes;
+    final double[] stopLongitudes;
+    private final Map<String, Integer> stopIndex;
+    private final BusStopSpatialIndex spatialIndex;
+
+    // Routes (one per service and direction): stops of route r are routeStops[routeStart[r] .. routeStart[r + 1])
+    final String[] routeServices;
+    final int[] routeDirections;
+    final int[] routeStart;
+    final int[] routeStops;
+    // Seconds from the first stop of the route to each of its stops
+    final int[] routeStopSeconds;
+    // Headway per route and period of the day (see periodOf), 0 when the route does not run then
+    final int[] routeHeadways;
+
+    // Routes calling at stop s: stopRouteRoutes/Positions[stopRouteStart[s] .. stopRouteStart[s + 1])
+    final int[] stopRouteStart;
+    final int[] stopRouteRoutes;
+    final int[] stopRoutePositions;
+
+    // Walking transfers from stop s: transferTargets/Seconds[transferStart[s] .. transferStart[s + 1])
+    final int[] transferStart;
+    final int[] transferTargets;
+    final int[] transferSeconds;
+
+    private final Instant loadedAt;
+
+    private TransitNetwork(List<BusStop> stops, List<int[]> routes, List<int[]> routeSeconds,
+                           List<String> services, List<Integer> directions, List<int[]> headways, Instant loadedAt) {
+        int stopCount = stops.size();
+        this.stopCodes = new String[stopCount];
+        this.stopNames = new String[stopCount];
+        this.stopLatitudes = new double[stopCount];
+        this.stopLongitudes = new double[stopCount];
+        Map<String, Integer> index = new HashMap<>();
+        for (int s = 0; s < stopCount; s++) {
+            BusStop stop = stops.get(s);
+            stopCodes[s] = stop.code();
+            stopNames[s] = stop.name();
+            stopLatitudes[s] = stop.latitude();
+            stopLongitudes[s] = stop.longitude();
+            index.put(stop.code(), s);
+        }
+        this.stopIndex = Map.copyOf(index);
+        this.spatialIndex = new BusStopSpatialIndex(stops);
+
+        int routeCount = routes.size();
+        this.routeServices = services.toArray(String[]::new);
+        this.routeDirections = directions.stream().mapToInt(Integer::intValue).toArray();
+        this.routeStart = new int[routeCount + 1];
+        for (int r = 0; r < routeCount; r++) {
+            routeStart[r + 1] = routeStart[r] + routes.get(r).length;
+        }
+        this.routeStops = new int[routeStart[routeCount]];
+        this.routeStopSeconds = new int[routeStart[routeCount]];
+        this.routeHeadways = new int[routeCount * PERIODS];
+        int[] routesPerStop = new int[stopCount];
+        for (int r = 0; r < routeCount; r++) {
+            System.arraycopy(routes.get(r), 0, routeStops, routeStart[r], routes.get(r).length);
+            System.arraycopy(routeSeconds.get(r), 0, routeStopSeconds, routeStart[r], routes.get(r).length);
+            System.arraycopy(headways.get(r), 0, routeHeadways, r * PERIODS, PERIODS);
+            for (int stop : routes.get(r)) {
+                routesPerStop[stop]++;
+            }
+        }
+
+        this.stopRouteStart = new int[stopCount + 1];
+        for (int s = 0; s < stopCount; s++) {
+            stopRouteStart[s + 1] = stopRouteStart[s] + routesPerStop[s];
+        }
+        this.stopRouteRoutes = new int[stopRouteStart[stopCount]];
+        this.stopRoutePositions = new int[stopRouteStart[stopCount]];
+        int[] fill = Arrays.copyOf(stopRouteStart, stopCount);
+        for (int r = 0; r < routeCount; r++) {
+            for (int pos = 0; pos < routeStart[r + 1] - routeStart[r]; pos++) {
+                int stop = routeStops[routeStart[r] + pos];
+                stopRouteRoutes[fill[stop]] = r;
+                stopRoutePositions[fill[stop]] = pos;
+                fill[stop]++;
+            }
+        }
+
+        List<List<BusStopSpatialIndex.Neighbour>> neighbours = new ArrayList<>(stopCount);
+        int transferCount = 0;
+        for (int s = 0; s < stopCount; s++) {
+            List<BusStopSpatialIndex.Neighbour> near = spatialIndex.withinRadius(
+                    stopLatitudes[s], stopLongitudes[s], TRANSFER_RADIUS_METERS, MAX_TRANSFERS_PER_STOP + 1);
+            neighbours.add(near);
+            transferCount += near.size();
+        }
+        this.transferStart = new int[stopCount + 1];
+        this.transferTargets = new int[transferCount];
+        this.transferSeconds = new int[transferCount];
+        int t = 0;
+        for (int s = 0; s < stopCount; s++) {
+            transferStart[s] = t;
+            for (BusStopSpatialIndex.Neighbour neighbour : neighbours.get(s)) {
+                int target = stopIndex.get(neighbour.stop().code());
+                if (target != s) {
+                    transferTargets[t] = target;
+                    transferSeconds[t] = walkSeconds(neighbour.distanceMeters());
+                    t++;
+                }
+            }
+        }
+        transferStart[stopCount] = t;
+
+        this.loadedAt = loadedAt;
+    }
+
+    /**
+     * @param stops LTA bus stops; stops without a location are left out.
+     * @param routeStops BusRoutes records; routes are ordered by stop sequence.
+     * @param services BusServices records, for headways; services missing here get a default headway.
+     */
+    public static TransitNetwork build(Collection<BusStop> stops,
+                                       Collection<LtaDtos.BusRoute> routeStops,
+                                       Collection<LtaDtos.BusService> services,
+                                       Instant loadedAt) {
+        List<BusStop> located = stops.stream()
+                .filter(BusStopSpatialIndex::hasLocation)
+                .collect(Collectors.toMap(BusStop::code, stop -> stop, (first, second) -> first, LinkedHashMap::new))
+                .values().stream().toList();
+        Map<String, Integer> stopIndex = new HashMap<>();
+        for (int s = 0; s < located.size(); s++) {
+            stopIndex.put(located.get(s).code(), s);
+        }
+
+        Map<String, LtaDtos.BusService> serviceInfo = new HashMap<>();
+        for (LtaDtos.BusService service : services) {
+            if (service.serviceNo() != null) {
+                serviceInfo.put(service.serviceNo() + "/" + service.direction(), service);
+            }
+        }
+
+        Map<String, List<LtaDtos.BusRoute>> stopsByRoute = routeStops.stream()
+                .filter(stop -> stop.serviceNo() != null && stopIndex.containsKey(stop.busStopCode()))
+                .collect(Collectors.groupingBy(stop -> stop.serviceNo() + "/" + stop.direction(),
+                        TreeMap::new, Collectors.toList()));
+
+        List<int[]> routes = new ArrayList<>();
+        List<int[]> routeSeconds = new ArrayList<>();
+        List<String> routeServices = new ArrayList<>();
+        List<Integer> routeDirections = new ArrayList<>();
+        List<int[]> routeHeadways = new ArrayList<>();
+        stopsByRoute.forEach((key, calls) -> {
+            if (calls.size() < 2) {
+                return;
+            }
+            calls.sort(Comparator.comparingInt(LtaDtos.BusRoute::stopSequence));
+            int[] stopsOfRoute = calls.stream().mapToInt(call -> stopIndex.get(call.busStopCode())).toArray();
+            routes.add(stopsOfRoute);
+            routeSeconds.add(rideSeconds(calls, stopsOfRoute, located));
+            routeServices.add(calls.get(0).serviceNo());
+            routeDirections.add(calls.get(0).direction());
+            routeHeadways.add(headways(serviceInfo.get(key)));
+        });
+        return new TransitNetwork(located, routes, routeSeconds, routeServices, routeDirections, routeHeadways, loadedAt);
+    }
+
+    public Instant loadedAt() {
+        return loadedAt;
+    }
+
+    public boolean isEmpty() {
+        return routeServices.length == 0;
+    }
+
+    public int stopCount() {
+        return stopCodes.length;
+    }
+
+    public int routeCount() {
+        return routeServices.length;
+    }
+
+    /**
+     * Locations of the stops a service calls at in one direction, in order, or an empty list if it is unknown.
+     */
+    public List<Coordinates> routeShape(String serviceNo, int direction) {
+        for (int r = 0; r < routeServices.length; r++) {
+            if (routeDirections[r] == direction && routeServices[r].equalsIgnoreCase(serviceNo)) {
+                List<Coordinates> shape = new ArrayList<>(routeStart[r + 1] - routeStart[r]);
+                for (int i = routeStart[r]; i < routeStart[r + 1]; i++) {
+                    shape.add(new Coordinates(stopLatitudes[routeStops[i]], stopLongitudes[routeStops[i]]));
+                }
+                return shape;
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * Stops within {@code radiusMeters} of a point, nearest first.
+     */
+    List<BusStopSpatialIndex.Neighbour> stopsNear(double latitude, double longitude, double radiusMeters, int limit) {
+        return spatialIndex.withinRadius(latitude, longitude, radiusMeters, limit);
+    }
+
+    int stopIndexOf(String code) {
+        return stopIndex.getOrDefault(code, -1);
+    }
+
+    /**
+     * Seconds between buses on a route at a time of day, or 0 when it does not run then.
+     */
+    int headwaySeconds(int route, LocalTime time) {
+        return routeHeadways[route * PERIODS + periodOf(time)];
+    }
+
+    static int walkSeconds(double straightLineMeters) {
+        return (int) Math.ceil(straightLineMeters * WALK_DETOUR / WALK_METERS_PER_SECOND);
+    }
+
+    // LTA frequency bands: AM peak 06:30-08:30, AM off-peak 08:31-16:59, PM peak 17:00-19:00, PM off-peak otherwise
+    public static int periodOf(LocalTime time) {
+        int minute = time.getHour() * 60 + time.getMinute();
+        if (minute >= 6 * 60 + 30 && minute <= 8 * 60 + 30) {
+            return 0;
+        }
+        if (minute > 8 * 60 + 30 && minute < 17 * 60) {
+            return 1;
+        }
+        if (minute >= 17 * 60 && minute <= 19 * 60) {
+            return 2;
+        }
+        return 3;
+    }
+
+    private static int[] rideSeconds(List<LtaDtos.BusRoute> calls, int[] stopsOfRoute, List<BusStop> stops) {
+        int[] seconds = new int[calls.size()];
+        double straightLineMeters = 0;
+        for (int i = 1; i < calls.size(); i++) {
+            BusStop previous = stops.get(stopsOfRoute[i - 1]);
+            BusStop current = stops.get(stopsOfRoute[i]);
+            straightLineMeters += BusStopSpatialIndex.distanceMeters(previous.latitude(), previous.longitude(),
+                    current.latitude(), current.longitude());
+            Double first = calls.get(0).distance();
+            Double here = calls.get(i).distance();
+            // Route distance when LTA gives it, else the straight line between stops with a detour allowance
+            double meters = first != null && here != null
+                    ? (here - first) * 1000
+                    : straightLineMeters * WALK_DETOUR;
+            seconds[i] = Math.max(seconds[i - 1] + MIN_HOP_SECONDS, (int) Math.round(meters / BUS_METERS_PER_SECOND));
+        }
+        return seconds;
+    }
+
+    private static int[] headways(LtaDtos.BusService service) {
+        if (service == null) {
+            return new int[]{DEFAULT_HEADWAY_SECONDS, DEFAULT_HEADWAY_SECONDS,
+                    DEFAULT_HEADWAY_SECONDS, DEFAULT_HEADWAY_SECONDS};
+        }
+        return new int[]{
+                headwaySeconds(service.amPeakFreq()),
+                headwaySeconds(service.amOffpeakFreq()),
+                headwaySeconds(service.pmPeakFreq()),
+                headwaySeconds(service.pmOffpeakFreq())};
+    }
+
+    // "08-12" -> 600, "10" -> 600, "-" or "00-00" -> 0 (not running); absent -> default
+    static int headwaySeconds(String frequency) {
+        if (frequency == null || frequency.isBlank()) {
+            return DEFAULT_HEADWAY_SECONDS;
+        }
+        String[] bounds = frequency.trim().split("-");
+        int total = 0;
+        int count = 0;
+        for (String bound : bounds) {
+            if (!bound.isBlank()) {
+                try {
+                    total += Integer.parseInt(bound.trim());
+                    count++;
+                } catch (NumberFormatException e) {
+                    return DEFAULT_HEADWAY_SECONDS;
+                }
+            }
+        }
+        return count == 0 || total == 0 ? 0 : total * 60 / count;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.springbackend.benchmark;
+
+import com.example.springbackend.model.BusArrival;
+import com.example.springbackend.model.IsoTimestamps;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Retained heap of one cached stop ({@link ArrivalSamples}) as epoch-second arrivals and as
+ * ZonedDateTime lists, measured with JOL:
+ * <pre>
+ * mvn -q test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath -Djdk.attach.allowAttachSelf com.example.springbackend.benchmark.ArrivalFootprint"
+ * </pre>
+ */
+public final class ArrivalFootprint {
+
+    private ArrivalFootprint() {
+    }
+
+    public static void main(String[] args) {
+        String[][] stop = ArrivalSamples.stop();
+        List<BusArrival> compact = new ArrayList<>();
+        List<ArrivalSamples.LegacyArrival> legacy = new ArrayList<>();
+        for (int s = 0; s < ArrivalSamples.SERVICES; s++) {
+            long[] etas = new long[ArrivalSamples.ETAS_PER_SERVICE];
+            List<ZonedDateTime> dates = new ArrayList<>();
+            for (int e = 0; e < etas.length; e++) {
+                etas[e] = IsoTimestamps.parseEpochSecond(stop[s][e]);
+                dates.add(ZonedDateTime.parse(stop[s][e]));
+            }
+            compact.add(BusArrival.ofEpochSeconds(ArrivalSamples.serviceName(s), "SBST", etas));
+            legacy.add(new ArrivalSamples.LegacyArrival(ArrivalSamples.serviceName(s), "SBST", List.copyOf(dates)));
+        }
+
+        // Both graphs include the list and the name strings; ZoneOffset +08:00 is a shared constant
+        ZonedDateTime first = legacy.get(0).arrivals().get(0);
+        long legacyBytes = GraphLayout.parseInstance(legacy).totalSize()
+                - GraphLayout.parseInstance(first.getOffset()).totalSize();
+        long compactBytes = GraphLayout.parseInstance(compact).totalSize();
+        System.out.printf("%d services x %d ETAs per stop%n", ArrivalSamples.SERVICES, ArrivalSamples.ETAS_PER_SERVICE);
+        System.out.printf("ZonedDateTime lists: %d bytes per stop, %d per service%n",
+                legacyBytes, legacyBytes / ArrivalSamples.SERVICES);
+        System.out.printf("Epoch seconds:       %d bytes per stop, %d per service%n",
+                compactBytes, compactBytes / ArrivalSamples.SERVICES);
+    }
+}
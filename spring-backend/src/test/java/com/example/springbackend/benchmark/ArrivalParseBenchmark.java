@@ -0,0 +1,83 @@
+package com.example.springbackend.benchmark;
+
+import com.example.springbackend.model.BusArrival;
+import com.example.springbackend.model.IsoTimestamps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning LTA arrival timestamps into cached arrivals: the {@link IsoTimestamps} parser against
+ * {@link ZonedDateTime#parse}, per timestamp and for a whole stop ({@link ArrivalSamples}).
+ *
+ * Run with the GC profiler to see bytes allocated per operation:
+ * <pre>
+ * mvn -q test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main ArrivalParseBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArrivalParseBenchmark {
+
+    private final String[][] stop = ArrivalSamples.stop();
+    private final String[] timestamps = Arrays.stream(stop).flatMap(Arrays::stream).toArray(String[]::new);
+    private int next;
+
+    private String nextTimestamp() {
+        next = (next + 1) % timestamps.length;
+        return timestamps[next];
+    }
+
+    @Benchmark
+    public long isoTimestamps() {
+        return IsoTimestamps.parseEpochSecond(nextTimestamp());
+    }
+
+    @Benchmark
+    public ZonedDateTime zonedDateTimeParse() {
+        return ZonedDateTime.parse(nextTimestamp());
+    }
+
+    @Benchmark
+    public List<BusArrival> stopWithIsoTimestamps() {
+        List<BusArrival> arrivals = new ArrayList<>(ArrivalSamples.SERVICES);
+        for (int s = 0; s < ArrivalSamples.SERVICES; s++) {
+            long[] etas = new long[ArrivalSamples.ETAS_PER_SERVICE];
+            for (int e = 0; e < etas.length; e++) {
+                etas[e] = IsoTimestamps.parseEpochSecond(stop[s][e]);
+            }
+            arrivals.add(BusArrival.ofEpochSeconds(ArrivalSamples.serviceName(s), "SBST", etas));
+        }
+        return arrivals;
+    }
+
+    @Benchmark
+    public List<ArrivalSamples.LegacyArrival> stopWithZonedDateTimes() {
+        List<ArrivalSamples.LegacyArrival> arrivals = new ArrayList<>(ArrivalSamples.SERVICES);
+        for (int s = 0; s < ArrivalSamples.SERVICES; s++) {
+            List<ZonedDateTime> etas = new ArrayList<>(ArrivalSamples.ETAS_PER_SERVICE);
+            for (int e = 0; e < ArrivalSamples.ETAS_PER_SERVICE; e++) {
+                etas.add(ZonedDateTime.parse(stop[s][e]));
+            }
+            arrivals.add(new ArrivalSamples.LegacyArrival(ArrivalSamples.serviceName(s), "SBST", etas));
+        }
+        return arrivals;
+    }
+}
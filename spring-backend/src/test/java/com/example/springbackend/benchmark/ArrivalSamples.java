@@ -0,0 +1,40 @@
+package com.example.springbackend.benchmark;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * A busy stop as LTA reports it: {@link #SERVICES} services with {@link #ETAS_PER_SERVICE} timestamps each.
+ */
+final class ArrivalSamples {
+
+    static final int SERVICES = 12;
+    static final int ETAS_PER_SERVICE = 3;
+
+    /**
+     * The arrival shape before timestamps were stored as epoch seconds.
+     */
+    record LegacyArrival(String serviceName, String operator, List<ZonedDateTime> arrivals) {}
+
+    private ArrivalSamples() {
+    }
+
+    /**
+     * Timestamps per service, in LTA's {@code 2025-01-01T08:05:17+08:00} form.
+     */
+    static String[][] stop() {
+        String[][] stop = new String[SERVICES][ETAS_PER_SERVICE];
+        for (int s = 0; s < SERVICES; s++) {
+            for (int e = 0; e < ETAS_PER_SERVICE; e++) {
+                int minute = (s * 7 + e * 11) % 60;
+                int second = (s * 13 + e * 17) % 60;
+                stop[s][e] = String.format("2025-01-01T08:%02d:%02d+08:00", minute, second);
+            }
+        }
+        return stop;
+    }
+
+    static String serviceName(int service) {
+        return String.valueOf(10 + service);
+    }
+}
@@ -4,9 +4,14 @@ import com.example.springbackend.dto.llm.DirectionsResponseDTO;
 import com.example.springbackend.dto.llm.RoutingIntentDTO;
 import com.example.springbackend.dto.llm.DirectionsResponseDTO.LegDTO;
 import com.example.springbackend.dto.llm.DirectionsResponseDTO.RouteDTO;
+import com.example.springbackend.dto.response.RouteShapeResponse;
 import com.example.springbackend.model.Coordinates;
 import com.example.springbackend.model.User;
 import com.example.springbackend.repository.UserRepository;
+import com.example.springbackend.service.IsochroneService;
+import com.example.springbackend.service.RouteArrivalsEnricher;
+import com.example.springbackend.service.RouteMatrixService;
+import com.example.springbackend.service.RouteShapeService;
 import com.example.springbackend.service.RoutingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -22,6 +27,7 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalTime;
 import java.util.List;
 
@@ -42,6 +48,18 @@ class RoutingControllerTest {
     @MockitoBean
     private RoutingService routingService;
 
+    @MockitoBean
+    private IsochroneService isochroneService;
+
+    @MockitoBean
+    private RouteMatrixService routeMatrixService;
+
+    @MockitoBean
+    private RouteArrivalsEnricher arrivalsEnricher;
+
+    @MockitoBean
+    private RouteShapeService routeShapeService;
+
     @MockitoBean
     private UserRepository userRepository; // satisfies initDatabase()
 
@@ -160,4 +178,56 @@ class RoutingControllerTest {
                             .isEqualTo(new Coordinates(7.0, 8.0));
                 });
     }
+
+    @Test
+    @DisplayName("Should send route points as an encoded polyline when asked")
+    void testGetDirectionsWithPolylineGeometry() {
+        LegDTO leg = new LegDTO("BUS", 15, "95", "Take bus 95", null,
+                List.of(new Coordinates(38.5, -120.2), new Coordinates(40.7, -120.95), new Coordinates(43.252, -126.453)),
+                "Start Stop", "01012", "End Stop", "01013");
+        when(routingService.getBusRoutes(anyString(), anyString(), any(), any()))
+                .thenReturn(Mono.just(List.of(new RouteDTO(15, List.of(leg), "Bus 95"))));
+        RoutingIntentDTO requestDto = new RoutingIntentDTO("1.0,2.0", "3.0,4.0", null, null, null, null);
+
+        webTestClient.post()
+                .uri("/api/routing?geometry=polyline")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(requestDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.suggestedRoutes[0].legs[0].encodedRoutePoints").isEqualTo("_p~iF~ps|U_ulLnnqC_mqNvxq`@")
+                .jsonPath("$.suggestedRoutes[0].legs[0].routePoints").doesNotExist();
+
+        webTestClient.post()
+                .uri("/api/routing?geometry=geojson")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(requestDto)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Should serve shapes with an ETag and answer 304 when it matches")
+    void testGetShapeWithETag() {
+        when(routeShapeService.maxAge()).thenReturn(Duration.ofHours(24));
+        when(routeShapeService.shape("bus-95-1", 12))
+                .thenReturn(Mono.just(new RouteShapeResponse("bus-95-1", 12, 2, "_p~iF~ps|U_ulLnnqC", "abc123")));
+
+        webTestClient.get()
+                .uri("/api/routing/shapes/bus-95-1?zoom=12")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"abc123\"")
+                .expectHeader().valueEquals("Cache-Control", "max-age=86400, public")
+                .expectBody()
+                .jsonPath("$.polyline").isEqualTo("_p~iF~ps|U_ulLnnqC")
+                .jsonPath("$.etag").doesNotExist();
+
+        webTestClient.get()
+                .uri("/api/routing/shapes/bus-95-1?zoom=12")
+                .header("If-None-Match", "\"abc123\"")
+                .exchange()
+                .expectStatus().isNotModified();
+    }
 }
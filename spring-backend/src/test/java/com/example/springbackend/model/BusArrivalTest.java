@@ -0,0 +1,69 @@
+package com.example.springbackend.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BusArrivalTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    public void testParseMatchesJdkForProviderFormats() {
+        for (String text : List.of(
+                "2025-08-11T10:00:00+08:00",
+                "2025-08-11T10:00:00.123456+08:00",
+                "2024-02-29T23:59:59Z",
+                "1999-12-31T16:00:00-05:30",
+                "2025-08-11T10:00:00+08:00[Asia/Singapore]")) {
+            assertEquals(ZonedDateTime.parse(text).toEpochSecond(), IsoTimestamps.parseEpochSecond(text), text);
+        }
+    }
+
+    @Test
+    public void testParseRejectsInvalidTimestamps() {
+        assertThrows(DateTimeParseException.class, () -> IsoTimestamps.parseEpochSecond("2025-02-29T10:00:00+08:00"));
+        assertThrows(DateTimeParseException.class, () -> IsoTimestamps.parseEpochSecond("2025-08-11 10:00"));
+    }
+
+    @Test
+    public void testFormatWritesSingaporeOffset() {
+        long epochSecond = ZonedDateTime.parse("2025-01-01T00:05:09Z").toEpochSecond();
+
+        assertEquals("2025-01-01T08:05:09+08:00", IsoTimestamps.format(epochSecond, 8 * 3600));
+        assertEquals("2024-12-31T19:05:09-05:00", IsoTimestamps.format(epochSecond, -5 * 3600));
+    }
+
+    @Test
+    public void testJsonShapeIsUnchanged() throws Exception {
+        ZonedDateTime eta = ZonedDateTime.parse("2025-08-11T10:00:00+08:00");
+        BusArrival arrival = new BusArrival("12", "SBST", List.of(eta, eta.plusMinutes(9)));
+
+        Map<?, ?> json = objectMapper.readValue(objectMapper.writeValueAsString(arrival), Map.class);
+
+        assertEquals(Map.of(
+                "serviceName", "12",
+                "operator", "SBST",
+                "arrivals", List.of("2025-08-11T10:00:00+08:00", "2025-08-11T10:09:00+08:00")), json);
+    }
+
+    @Test
+    public void testJsonRoundTrip() throws Exception {
+        BusArrival arrival = BusArrival.ofEpochSeconds("D1", "NUS", 1_754_877_600L, 1_754_878_140L);
+
+        BusArrival decoded = objectMapper.readValue(objectMapper.writeValueAsString(arrival), BusArrival.class);
+
+        assertEquals(arrival, decoded);
+        assertSame(arrival.serviceName(), decoded.serviceName());
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.springbackend.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolylineTest {
+
+    private static final List<Coordinates> REFERENCE = List.of(
+            new Coordinates(38.5, -120.2), new Coordinates(40.7, -120.95), new Coordinates(43.252, -126.453));
+
+    @Test
+    void matchesTheReferenceEncoding() {
+        assertEquals("_p~iF~ps|U_ulLnnqC_mqNvxq`@", Polyline.encode(REFERENCE));
+        assertEquals(REFERENCE, Polyline.decode("_p~iF~ps|U_ulLnnqC_mqNvxq`@"));
+        assertEquals(List.of(), Polyline.decode(""));
+    }
+
+    @Test
+    void roundTripsSingaporePointsToAboutAMetre() {
+        List<Coordinates> points = List.of(new Coordinates(1.296643, 103.776394), new Coordinates(1.304233, 103.831801));
+
+        List<Coordinates> decoded = Polyline.decode(Polyline.encode(points));
+
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(points.get(i).latitude(), decoded.get(i).latitude(), 1e-5);
+            assertEquals(points.get(i).longitude(), decoded.get(i).longitude(), 1e-5);
+        }
+        assertThrows(IllegalArgumentException.class, () -> Polyline.decode("_p~iF~ps|U_"));
+    }
+
+    @Test
+    void tripLegsStoreRoutePointsEncodedAndStillReadOldDocuments() throws Exception {
+        Trip.TripLeg leg = new Trip.TripLeg();
+        leg.setRoutePoints(REFERENCE);
+        Trip.TripLeg legacy = Trip.TripLeg.builder().routePoints(REFERENCE).build();
+
+        assertEquals("_p~iF~ps|U_ulLnnqC_mqNvxq`@", leg.getEncodedRoutePoints());
+        assertEquals(REFERENCE, leg.getRoutePoints());
+        assertEquals(REFERENCE, legacy.getRoutePoints());
+        String json = new ObjectMapper().writeValueAsString(leg);
+        assertTrue(json.contains("\"routePoints\":[{\"latitude\":38.5"));
+        assertFalse(json.contains("encodedRoutePoints"));
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.model.BusStop;
+import com.example.springbackend.model.CommutePlan;
+import com.example.springbackend.model.SavedTripRoute;
+import com.example.springbackend.model.Trip;
+import com.example.springbackend.repository.CommutePlanRepository;
+import com.example.springbackend.repository.SavedTripRouteRepository;
+import com.example.springbackend.repository.TripRepository;
+import com.example.springbackend.service.implementation.BusService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArrivalPrefetcherTest {
+
+    @Mock
+    TripRepository tripRepository;
+
+    @Mock
+    CommutePlanRepository commutePlanRepository;
+
+    @Mock
+    SavedTripRouteRepository savedTripRouteRepository;
+
+    @Mock
+    BusService busService;
+
+    ArrivalPrefetcher prefetcher;
+
+    // A Wednesday morning
+    private final LocalDateTime now = LocalDateTime.of(2025, 1, 1, 7, 50);
+
+    private final BusStop hotel = new BusStop("01012", "Hotel Grand Pacific", 1.2968, 103.8525, "LTA");
+    private final BusStop church = new BusStop("01013", "St. Joseph's Ch", 1.2977, 103.8532, "LTA");
+
+    @BeforeEach
+    void setUp() {
+        prefetcher = new ArrivalPrefetcher(tripRepository, commutePlanRepository, savedTripRouteRepository,
+                busService, 10_000, Duration.ofMinutes(30), 1000);
+    }
+
+    @Test
+    void prefetchesNextBoardingStopOfActiveTripsAndDuePlans() {
+        Trip trip = Trip.builder()
+                .status(Trip.TripStatus.ON_TRIP)
+                .currentLegIndex(0)
+                .route(route(walkLeg(), busLeg("01012", "Hotel Grand Pacific")))
+                .build();
+        when(tripRepository.findByStatus(Trip.TripStatus.ON_TRIP)).thenReturn(Flux.just(trip));
+
+        CommutePlan duePlan = CommutePlan.builder().notifyAt("08:05").savedTripRouteId("route-1").build();
+        CommutePlan laterPlan = CommutePlan.builder().notifyAt("17:30").savedTripRouteId("route-2").build();
+        when(commutePlanRepository.findByCommuteRecurrenceDayIdsContaining("wed"))
+                .thenReturn(Flux.just(duePlan, laterPlan));
+        when(savedTripRouteRepository.findById("route-1")).thenReturn(Mono.just(
+                SavedTripRoute.builder().routeData(route(busLeg("01013", "St. Joseph's Ch"))).build()));
+
+        when(busService.resolveBoardingStop(eq("01012"), any(), any())).thenReturn(Mono.just(hotel));
+        when(busService.resolveBoardingStop(eq("01013"), any(), any())).thenReturn(Mono.just(church));
+        when(busService.prefetchArrivals(any(), any())).thenReturn(Mono.just(true));
+
+        StepVerifier.create(prefetcher.prefetch(now))
+                .expectNext(2L)
+                .verifyComplete();
+
+        verify(busService).prefetchArrivals(hotel, Duration.ofSeconds(10));
+        verify(busService).prefetchArrivals(church, Duration.ofSeconds(10));
+        verify(savedTripRouteRepository, never()).findById("route-2");
+    }
+
+    @Test
+    void sharedStopsArePrefetchedOnce() {
+        Trip first = Trip.builder().status(Trip.TripStatus.ON_TRIP).currentLegIndex(0)
+                .route(route(busLeg("01012", "Hotel Grand Pacific"))).build();
+        Trip second = Trip.builder().status(Trip.TripStatus.ON_TRIP).currentLegIndex(0)
+                .route(route(busLeg("01012", "Hotel Grand Pacific"))).build();
+        when(tripRepository.findByStatus(Trip.TripStatus.ON_TRIP)).thenReturn(Flux.just(first, second));
+        when(commutePlanRepository.findByCommuteRecurrenceDayIdsContaining("wed")).thenReturn(Flux.empty());
+        when(busService.resolveBoardingStop(eq("01012"), any(), any())).thenReturn(Mono.just(hotel));
+        when(busService.prefetchArrivals(any(), any())).thenReturn(Mono.just(false));
+
+        StepVerifier.create(prefetcher.prefetch(now))
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(busService, times(1)).prefetchArrivals(any(), any());
+    }
+
+    @Test
+    void plansJustAfterMidnightAreMatchedOnTheNextDay() {
+        when(tripRepository.findByStatus(Trip.TripStatus.ON_TRIP)).thenReturn(Flux.empty());
+        CommutePlan wednesdayEarly = CommutePlan.builder().notifyAt("00:05").savedTripRouteId("route-1").build();
+        CommutePlan unparseable = CommutePlan.builder().notifyAt("soon").savedTripRouteId("route-2").build();
+        CommutePlan thursdayEarly = CommutePlan.builder().notifyAt("00:05").savedTripRouteId("route-3").build();
+        when(commutePlanRepository.findByCommuteRecurrenceDayIdsContaining("wed"))
+                .thenReturn(Flux.just(wednesdayEarly, unparseable));
+        when(commutePlanRepository.findByCommuteRecurrenceDayIdsContaining("thu")).thenReturn(Flux.just(thursdayEarly));
+        when(savedTripRouteRepository.findById("route-3")).thenReturn(Mono.just(
+                SavedTripRoute.builder().routeData(route(busLeg("01013", "St. Joseph's Ch"))).build()));
+        when(busService.resolveBoardingStop(eq("01013"), any(), any())).thenReturn(Mono.just(church));
+        when(busService.prefetchArrivals(any(), any())).thenReturn(Mono.just(true));
+
+        StepVerifier.create(prefetcher.prefetch(now.withHour(23).withMinute(50)))
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(savedTripRouteRepository, never()).findById("route-1");
+        verify(savedTripRouteRepository, never()).findById("route-2");
+    }
+
+    private static Trip.TripRoute route(Trip.TripLeg... legs) {
+        return Trip.TripRoute.builder().legs(List.of(legs)).build();
+    }
+
+    private static Trip.TripLeg walkLeg() {
+        return Trip.TripLeg.builder().type("WALK").build();
+    }
+
+    private static Trip.TripLeg busLeg(String code, String name) {
+        return Trip.TripLeg.builder().type("BUS").busServiceNumber("12").fromStopCode(code).fromStopName(name).build();
+    }
+}
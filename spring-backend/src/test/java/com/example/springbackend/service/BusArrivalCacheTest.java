@@ -0,0 +1,217 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.model.BusArrival;
+import com.example.springbackend.model.StopArrivals;
+import com.example.springbackend.service.implementation.BusArrivalCache;
+import com.example.springbackend.service.implementation.ProviderCircuitBreakers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BusArrivalCacheTest {
+
+    @Mock
+    BusServiceProvider lta;
+
+    MutableClock clock;
+    SimpleMeterRegistry meterRegistry;
+    BusArrivalCache cache;
+
+    private final BusArrival bus12 = new BusArrival("12", "SBST",
+            List.of(ZonedDateTime.parse("2025-01-01T08:05:00+08:00")));
+
+    @BeforeEach
+    void setUp() {
+        when(lta.getApiName()).thenReturn("LTA");
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        meterRegistry = new SimpleMeterRegistry();
+        ProviderCircuitBreakers breakers = new ProviderCircuitBreakers(meterRegistry,
+                Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofSeconds(30), clock);
+        cache = new BusArrivalCache(meterRegistry, breakers, Duration.ofSeconds(15), Duration.ofMinutes(2), clock);
+    }
+
+    @Test
+    void repeatedLookupsWithinTtlHitTheCache() {
+        when(lta.getBusArrivals("01012")).thenReturn(Flux.just(bus12));
+
+        StepVerifier.create(cache.get(lta, "01012"))
+                .expectNextMatches(data -> data.arrivals().equals(List.of(bus12)))
+                .verifyComplete();
+        clock.advance(Duration.ofSeconds(10));
+        StepVerifier.create(cache.get(lta, "01012"))
+                .expectNextMatches(data -> data.ageSeconds(clock.instant()) == 10)
+                .verifyComplete();
+
+        verify(lta, times(1)).getBusArrivals("01012");
+        assertEquals(1.0, meterRegistry.get("bus.arrivals.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void expiredEntryIsServedStaleWhileItRefreshes() {
+        Sinks.One<BusArrival> refresh = Sinks.one();
+        when(lta.getBusArrivals("01012"))
+                .thenReturn(Flux.just(bus12))
+                .thenReturn(refresh.asMono().flux());
+
+        cache.get(lta, "01012").block();
+        clock.advance(Duration.ofSeconds(20));
+
+        StopArrivals stale = cache.get(lta, "01012").block();
+        assertNotNull(stale);
+        assertTrue(stale.stale());
+        assertEquals(20, stale.ageSeconds(clock.instant()));
+
+        refresh.tryEmitValue(bus12);
+        StopArrivals refreshed = cache.get(lta, "01012").block();
+        assertNotNull(refreshed);
+        assertFalse(refreshed.stale());
+        assertEquals(0, refreshed.ageSeconds(clock.instant()));
+        verify(lta, times(2)).getBusArrivals("01012");
+    }
+
+    @Test
+    void dataOlderThanMaxStaleWaitsForUpstream() {
+        when(lta.getBusArrivals("01012"))
+                .thenReturn(Flux.just(bus12))
+                .thenReturn(Flux.error(new RuntimeException("upstream down")));
+
+        cache.get(lta, "01012").block();
+        clock.advance(Duration.ofMinutes(3));
+
+        StepVerifier.create(cache.get(lta, "01012"))
+                .expectErrorMessage("upstream down")
+                .verify();
+    }
+
+    @Test
+    void concurrentMissesShareOneUpstreamCall() {
+        Sinks.One<BusArrival> upstream = Sinks.one();
+        when(lta.getBusArrivals("01012")).thenReturn(upstream.asMono().flux());
+
+        List<StopArrivals> received = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            cache.get(lta, "01012").subscribe(received::add);
+        }
+        upstream.tryEmitValue(bus12);
+
+        assertEquals(5, received.size());
+        verify(lta, times(1)).getBusArrivals("01012");
+        assertEquals(4.0, meterRegistry.get("bus.arrivals.cache").tag("result", "coalesced").counter().count());
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        when(lta.getBusArrivals("01012"))
+                .thenReturn(Flux.error(new RuntimeException("upstream down")))
+                .thenReturn(Flux.just(bus12));
+
+        StepVerifier.create(cache.get(lta, "01012"))
+                .expectErrorMessage("upstream down")
+                .verify();
+        StepVerifier.create(cache.get(lta, "01012"))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void prefetchedDataIsCountedAsUsedOrWasted() {
+        when(lta.getBusArrivals(anyString())).thenReturn(Flux.just(bus12));
+
+        StepVerifier.create(cache.prefetch(lta, "01012", Duration.ofSeconds(10)))
+                .expectNext(true)
+                .verifyComplete();
+        // Still fresh beyond the horizon, so a second prefetch skips upstream
+        StepVerifier.create(cache.prefetch(lta, "01012", Duration.ofSeconds(10)))
+                .expectNext(false)
+                .verifyComplete();
+        cache.get(lta, "01012").block();
+
+        cache.prefetch(lta, "01013", Duration.ofSeconds(10)).block();
+        clock.advance(Duration.ofSeconds(10));
+        cache.prefetch(lta, "01013", Duration.ofSeconds(10)).block();
+
+        assertEquals(3.0, meterRegistry.get("bus.arrivals.prefetch").tag("result", "fetched").counter().count());
+        assertEquals(1.0, meterRegistry.get("bus.arrivals.prefetch").tag("result", "used").counter().count());
+        assertEquals(1.0, meterRegistry.get("bus.arrivals.prefetch").tag("result", "wasted").counter().count());
+        assertEquals(1.0, meterRegistry.get("bus.arrivals.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void idleStopsAreEvicted() {
+        when(lta.getBusArrivals(anyString())).thenReturn(Flux.just(bus12));
+
+        cache.get(lta, "01012").block();
+        clock.advance(Duration.ofMinutes(4));
+        cache.get(lta, "01013").block();
+        clock.advance(Duration.ofMinutes(2));
+        cache.evictIdle();
+
+        assertEquals(1.0, meterRegistry.get("bus.arrivals.cache.size").gauge().value());
+    }
+
+    @Test
+    void serviceLookupIsAnsweredFromFreshWholeStopEntry() {
+        BusArrival bus14 = new BusArrival("14", "SBST", List.of(ZonedDateTime.parse("2025-01-01T08:09:00+08:00")));
+        when(lta.getBusArrivals("01012")).thenReturn(Flux.just(bus12, bus14));
+
+        cache.get(lta, "01012").block();
+        StepVerifier.create(cache.get(lta, "01012", "14"))
+                .expectNextMatches(data -> data.arrivals().equals(List.of(bus14)))
+                .verifyComplete();
+
+        verify(lta, times(1)).getBusArrivals("01012");
+        verify(lta, never()).getBusArrivals(anyString(), anyString());
+    }
+
+    @Test
+    void serviceLookupSkipsArrivalsWithoutAServiceName() {
+        BusArrival unnamed = new BusArrival(null, "SBST", List.of(ZonedDateTime.parse("2025-01-01T08:09:00+08:00")));
+        when(lta.getBusArrivals("01012")).thenReturn(Flux.just(unnamed, bus12));
+
+        StepVerifier.create(cache.get(lta, "01012", "12"))
+                .expectNextMatches(data -> data.arrivals().equals(List.of(bus12)))
+                .verifyComplete();
+    }
+
+    @Test
+    void serviceLookupIsPushedDownWhenProviderFiltersUpstream() {
+        when(lta.filtersServicesUpstream()).thenReturn(true);
+        when(lta.getBusArrivals("01012", "12")).thenReturn(Flux.just(bus12));
+
+        cache.get(lta, "01012", "12").block();
+        StepVerifier.create(cache.get(lta, "01012", "12"))
+                .expectNextMatches(data -> data.arrivals().equals(List.of(bus12)))
+                .verifyComplete();
+
+        verify(lta, times(1)).getBusArrivals("01012", "12");
+        verify(lta, never()).getBusArrivals("01012");
+    }
+
+    @Test
+    void expressServiceIsSentUpstreamWithItsLowercaseSuffix() {
+        BusArrival bus12e = new BusArrival("12e", "SBST", List.of(ZonedDateTime.parse("2025-01-01T08:07:00+08:00")));
+        when(lta.filtersServicesUpstream()).thenReturn(true);
+        when(lta.getBusArrivals("01012", "12e")).thenReturn(Flux.just(bus12e));
+
+        cache.get(lta, "01012", " 12e ").block();
+        StepVerifier.create(cache.get(lta, "01012", "12E"))
+                .expectNextMatches(data -> data.arrivals().equals(List.of(bus12e)))
+                .verifyComplete();
+
+        verify(lta, times(1)).getBusArrivals("01012", "12e");
+    }
+}
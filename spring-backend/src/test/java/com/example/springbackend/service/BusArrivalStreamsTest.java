@@ -0,0 +1,113 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.dto.response.ArrivalStreamEvent;
+import com.example.springbackend.model.BusArrival;
+import com.example.springbackend.model.BusStop;
+import com.example.springbackend.model.StopArrivals;
+import com.example.springbackend.service.implementation.BusArrivalStreams;
+import com.example.springbackend.service.implementation.BusService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BusArrivalStreamsTest {
+
+    @Mock
+    BusService busService;
+
+    SimpleMeterRegistry meterRegistry;
+
+    private final BusStop stop = new BusStop("01012", "Hotel Grand Pacific", 1.2968, 103.8525, "LTA");
+    private final ZonedDateTime base = ZonedDateTime.parse("2025-01-01T08:00:00+08:00");
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void firstEventIsSnapshotThenOnlyChangedServices() {
+        BusArrivalStreams streams = new BusArrivalStreams(busService, meterRegistry, Duration.ofSeconds(15));
+        when(busService.getStopArrivals(stop))
+                .thenReturn(Mono.just(arrivals(bus("12", 3), bus("14", 5))))
+                .thenReturn(Mono.just(arrivals(bus("12", 3), bus("14", 7))))
+                .thenReturn(Mono.just(arrivals(bus("12", 3), bus("14", 7))))
+                .thenReturn(Mono.just(arrivals(bus("12", 3))));
+
+        StepVerifier.withVirtualTime(() -> streams.stream(stop, null))
+                .assertNext(event -> {
+                    assertEquals(ArrivalStreamEvent.SNAPSHOT, event.type());
+                    assertEquals(2, event.arrivals().size());
+                })
+                .thenAwait(Duration.ofSeconds(15))
+                .assertNext(event -> {
+                    assertEquals(ArrivalStreamEvent.DELTA, event.type());
+                    assertEquals(List.of("14"), event.arrivals().stream().map(BusArrival::serviceName).toList());
+                })
+                .expectNoEvent(Duration.ofSeconds(15))
+                .thenAwait(Duration.ofSeconds(15))
+                .assertNext(event -> {
+                    assertTrue(event.arrivals().isEmpty());
+                    assertEquals(List.of("14"), event.removedServices());
+                })
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void subscribersToOneStopShareOnePoller() {
+        // Virtual time makes the poller's first tick run on subscribe instead of on a parallel thread
+        VirtualTimeScheduler.getOrSet();
+        try {
+            BusArrivalStreams streams = new BusArrivalStreams(busService, meterRegistry, Duration.ofHours(1));
+            when(busService.getStopArrivals(stop)).thenReturn(Mono.just(arrivals(bus("12", 3))));
+
+            List<ArrivalStreamEvent> first = new ArrayList<>();
+            List<ArrivalStreamEvent> second = new ArrayList<>();
+            Disposable a = streams.stream(stop, null).subscribe(first::add);
+            Disposable b = streams.stream(stop, "12").subscribe(second::add);
+
+            assertEquals(1, first.size());
+            assertEquals(ArrivalStreamEvent.SNAPSHOT, second.get(0).type());
+            verify(busService, times(1)).getStopArrivals(stop);
+            assertEquals(1.0, meterRegistry.get("bus.arrivals.stream.pollers").gauge().value());
+
+            a.dispose();
+            assertEquals(1.0, meterRegistry.get("bus.arrivals.stream.pollers").gauge().value());
+            b.dispose();
+            assertEquals(0.0, meterRegistry.get("bus.arrivals.stream.pollers").gauge().value());
+
+            // The stop was forgotten, so the next subscriber starts a fresh poller
+            streams.stream(stop, null).subscribe().dispose();
+            verify(busService, times(2)).getStopArrivals(stop);
+            assertEquals(0.0, meterRegistry.get("bus.arrivals.stream.pollers").gauge().value());
+        } finally {
+            VirtualTimeScheduler.reset();
+        }
+    }
+
+    private StopArrivals arrivals(BusArrival... services) {
+        return new StopArrivals("LTA", "01012", List.of(services), Instant.now());
+    }
+
+    private BusArrival bus(String service, int minutes) {
+        return new BusArrival(service, "SBST", List.of(base.plusMinutes(minutes)));
+    }
+}
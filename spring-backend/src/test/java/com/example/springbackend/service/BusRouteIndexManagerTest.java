@@ -0,0 +1,93 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.dto.LtaDtos;
+import com.example.springbackend.model.BusStop;
+import com.example.springbackend.service.implementation.BusRouteIndexManager;
+import com.example.springbackend.service.implementation.BusStopCatalog;
+import com.example.springbackend.service.implementation.BusStopCatalogManager;
+import com.example.springbackend.service.implementation.LtaBusServiceProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BusRouteIndexManagerTest {
+
+    @Mock
+    LtaBusServiceProvider lta;
+
+    @Mock
+    BusStopCatalogManager catalogManager;
+
+    private BusRouteIndexManager manager;
+
+    private final BusStop hotel = new BusStop("01012", "Hotel Grand Pacific", 1.2968, 103.8525, "LTA");
+    private final BusStop church = new BusStop("01013", "St. Joseph's Ch", 1.2977, 103.8532, "LTA");
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(lta.getApiName()).thenReturn("LTA");
+        when(lta.getAllBusRoutes()).thenReturn(Flux.just(
+                new LtaDtos.BusRoute("2", 1, 1, "01012"),
+                new LtaDtos.BusRoute("2", 1, 2, "01013")));
+        when(lta.getAllBusServices()).thenReturn(Flux.empty());
+        manager = new BusRouteIndexManager(lta, catalogManager, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void networkIsBuiltFromCatalogStopsWithoutRefetchingThem() {
+        when(catalogManager.catalog()).thenReturn(Mono.just(
+                BusStopCatalog.of(List.of(hotel, church), 1, Instant.parse("2025-01-01T00:00:00Z"))));
+
+        manager.refresh().block();
+
+        assertEquals(2, manager.network().stopCount());
+        assertEquals(List.of("2"), manager.current().servicesAt("01012"));
+        verify(lta, never()).getAllBusStops();
+    }
+
+    @Test
+    void catalogFailureStillRebuildsTheIndex() {
+        when(catalogManager.catalog()).thenReturn(Mono.error(new IllegalStateException("no providers")));
+
+        manager.refresh().block();
+
+        assertEquals(List.of("2"), manager.current().servicesAt("01012"));
+        assertTrue(manager.network().isEmpty());
+    }
+
+    @Test
+    void failedStartupLoadIsRetriedWithBackoff() {
+        when(lta.getAllBusRoutes()).thenReturn(Flux.error(new IllegalStateException("LTA down")));
+        lenient().when(catalogManager.catalog()).thenReturn(Mono.just(
+                BusStopCatalog.of(List.of(hotel, church), 1, Instant.parse("2025-01-01T00:00:00Z"))));
+
+        manager.refresh().onErrorComplete().block();
+        manager.refreshIfDue();
+        manager.refreshIfDue();
+
+        verify(lta, times(2)).getAllBusRoutes();
+    }
+
+    @Test
+    void loadedIndexIsNotRefreshedBeforeTheDailyRebuild() {
+        when(catalogManager.catalog()).thenReturn(Mono.just(
+                BusStopCatalog.of(List.of(hotel, church), 1, Instant.parse("2025-01-01T00:00:00Z"))));
+
+        manager.refresh().block();
+        manager.refreshIfDue();
+
+        verify(lta, times(1)).getAllBusRoutes();
+    }
+}
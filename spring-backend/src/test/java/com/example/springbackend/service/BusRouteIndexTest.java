@@ -0,0 +1,50 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.dto.LtaDtos;
+import com.example.springbackend.service.implementation.BusRouteIndex;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BusRouteIndexTest {
+
+    private final BusRouteIndex index = BusRouteIndex.build(
+            List.of(
+                    new LtaDtos.BusRoute("10", 1, 2, "01013"),
+                    new LtaDtos.BusRoute("10", 1, 1, "01012"),
+                    new LtaDtos.BusRoute("10", 2, 1, "01019"),
+                    new LtaDtos.BusRoute("10", 2, 2, "01012"),
+                    new LtaDtos.BusRoute("2", 1, 1, "01012"),
+                    new LtaDtos.BusRoute("2", 1, 2, "01013"),
+                    new LtaDtos.BusRoute("NR1", 1, 1, "01012"),
+                    new LtaDtos.BusRoute("10e", 1, 1, "01013"),
+                    new LtaDtos.BusRoute("10e", 1, 2, "01012")),
+            List.of(new LtaDtos.BusService("10", "SBST", 1, "TRUNK", "01012", "01013")),
+            Instant.parse("2025-01-01T00:00:00Z"));
+
+    @Test
+    void servicesAtStopAreInSignageOrder() {
+        assertEquals(List.of("2", "10", "10e", "NR1"), index.servicesAt("01012"));
+        assertEquals(List.of(), index.servicesAt("99999"));
+    }
+
+    @Test
+    void servicesBetweenRespectsCallingOrderAndDirection() {
+        assertEquals(List.of("2", "10"), index.servicesBetween("01012", "01013"));
+        assertEquals(List.of("10e"), index.servicesBetween("01013", "01012"));
+    }
+
+    @Test
+    void routesCarryStopsInSequenceWithServiceDetails() {
+        List<BusRouteIndex.Route> routes = index.routesOf("10");
+
+        assertEquals(2, routes.size());
+        assertEquals(List.of("01012", "01013"), routes.get(0).stopCodes());
+        assertEquals("TRUNK", routes.get(0).category());
+        assertEquals(List.of("01019", "01012"), routes.get(1).stopCodes());
+        assertNull(routes.get(1).operator());
+    }
+}
@@ -1,18 +1,36 @@
 package com.example.springbackend.service;
 
+import com.example.springbackend.dto.request.BatchArrivalsRequest.StopRequest;
+import com.example.springbackend.dto.response.BatchArrivalsResponse.Status;
+import com.example.springbackend.dto.response.BatchArrivalsResponse.StopResult;
 import com.example.springbackend.model.BusArrival;
 import com.example.springbackend.model.BusStop;
+import com.example.springbackend.service.implementation.BusArrivalCache;
 import com.example.springbackend.service.implementation.BusService;
+import com.example.springbackend.service.implementation.BusStopCatalogManager;
+import com.example.springbackend.service.implementation.BusStopCatalogSnapshotStore;
+import com.example.springbackend.service.implementation.HeadwayModel;
+import com.example.springbackend.service.implementation.ProviderCircuitBreakers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.TimeoutException;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.when;
 
 import java.time.ZonedDateTime;
@@ -33,16 +51,18 @@ class BusServiceTest {
         when(providerA.getApiName()).thenReturn("ProviderA");
         when(providerB.getApiName()).thenReturn("ProviderB");
 
-        when(providerA.getAllBusStops()).thenReturn(Flux.just(
+        // The catalog is loaded on first use, so tests that never search leave these unused
+        lenient().when(providerA.getAllBusStops()).thenReturn(Flux.just(
                 new BusStop("001", "Alpha Stop", 1.0, 2.0, "ProviderA"),
                 new BusStop("002", "Beta Stop", 3.0, 4.0, "ProviderA")
         ));
 
-        when(providerB.getAllBusStops()).thenReturn(Flux.just(
+        lenient().when(providerB.getAllBusStops()).thenReturn(Flux.just(
                 new BusStop("101", "Gamma Stop", 5.0, 6.0, "ProviderB")
         ));
 
-        busService = new BusService(List.of(providerA, providerB));
+        busService = busService(new BusStopCatalogManager(List.of(providerA, providerB), null, new SimpleMeterRegistry()),
+                new HeadwayModel(), Duration.ofMillis(1500));
     }
 
     @Test
@@ -52,6 +72,20 @@ class BusServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void testSearchBusStops_withoutLimit_returnsEveryMatch() {
+        when(providerA.getAllBusStops()).thenReturn(Flux.range(1, 25)
+                .map(i -> new BusStop(String.format("%03d", i), "Opp Blk " + i, 1.0 + i / 1000.0, 2.0, "ProviderA")));
+        when(providerB.getAllBusStops()).thenReturn(Flux.empty());
+
+        StepVerifier.create(busService.searchBusStops("opp blk"))
+                .expectNextCount(25)
+                .verifyComplete();
+        StepVerifier.create(busService.searchBusStops("opp blk", 10, 0))
+                .expectNextCount(10)
+                .verifyComplete();
+    }
+
     @Test
     void testSearchBusStops_blankQuery_returnsAll() {
         StepVerifier.create(busService.searchBusStops(""))
@@ -59,6 +93,68 @@ class BusServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void testFindStop_exactProviderAndCode() {
+        StepVerifier.create(busService.findStop("ProviderA", "002"))
+                .expectNextMatches(stop -> stop.name().equals("Beta Stop"))
+                .verifyComplete();
+        StepVerifier.create(busService.findStop("ProviderB", "002"))
+                .verifyComplete();
+    }
+
+    @Test
+    void testResolveStop_prefersExactCodeOverSearch() {
+        StepVerifier.create(busService.resolveStop("101"))
+                .expectNextMatches(stop -> stop.name().equals("Gamma Stop"))
+                .verifyComplete();
+        StepVerifier.create(busService.resolveStop("beta"))
+                .expectNextMatches(stop -> stop.code().equals("002"))
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindStopsNearby_sortedByDistance() {
+        StepVerifier.create(busService.findStopsNearby(3.0, 4.0, 1000, 10))
+                .expectNextMatches(stop -> stop.code().equals("002") && stop.distanceMeters() == 0)
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindStopsNearby_invalidInput_isRejected() {
+        StepVerifier.create(busService.findStopsNearby(91.0, 4.0, 1000, 10))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        StepVerifier.create(busService.findStopsNearby(Double.NaN, 4.0, 1000, 10))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        StepVerifier.create(busService.findStopsNearby(3.0, 4.0, -5, 10))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void testFindNearestStop_outsideMaxDistance_isEmpty() {
+        StepVerifier.create(busService.findNearestStop(1.0, 2.0, 50))
+                .expectNextMatches(stop -> stop.code().equals("001"))
+                .verifyComplete();
+        StepVerifier.create(busService.findNearestStop(1.01, 2.0, 50))
+                .verifyComplete();
+    }
+
+    @Test
+    void testSearchBusStops_servesSnapshotBeforeUpstreamLoads(@TempDir Path tempDir) throws Exception {
+        BusStopCatalogSnapshotStore store = new BusStopCatalogSnapshotStore(tempDir.resolve("catalog.bin").toString());
+        store.save(List.of(new BusStop("201", "Delta Stop", 7.0, 8.0, "ProviderB")));
+
+        BusStopCatalogManager manager = new BusStopCatalogManager(
+                List.of(providerA, providerB), store, new SimpleMeterRegistry());
+        BusService warmService = busService(manager, new HeadwayModel(), Duration.ofMillis(1500));
+
+        StepVerifier.create(warmService.searchBusStops("delta"))
+                .expectNextMatches(stop -> stop.code().equals("201"))
+                .verifyComplete();
+    }
+
     @Test
     void testGetArrivalsForStop_validProvider() {
         BusStop stop = new BusStop("001", "Alpha Stop", 1.0, 2.0, "ProviderA");
@@ -84,4 +180,72 @@ class BusServiceTest {
                 .expectErrorMatches(ex -> ex instanceof IllegalArgumentException)
                 .verify();
     }
+
+    @Test
+    void testGetArrivalsBatch_partialResultsWithPerStopStatus() {
+        when(providerA.getBusArrivals("001")).thenReturn(Flux.just(
+                new BusArrival("12", "OperatorX", List.of(ZonedDateTime.now().plusMinutes(3))),
+                new BusArrival("14", "OperatorX", List.of(ZonedDateTime.now().plusMinutes(7)))
+        ));
+        when(providerB.getBusArrivals("101")).thenReturn(Flux.never());
+
+        List<StopRequest> stops = List.of(
+                new StopRequest("ProviderA", "001", "14"),
+                new StopRequest("ProviderB", "101", null),
+                new StopRequest("UnknownProvider", "999", null)
+        );
+
+        StepVerifier.create(busService.getArrivalsBatch(stops, Duration.ofMillis(200)))
+                .assertNext(response -> {
+                    List<StopResult> results = response.results();
+                    assertEquals(3, results.size());
+                    assertEquals(Status.OK, results.get(0).status());
+                    assertEquals(List.of("14"), results.get(0).arrivals().stream().map(BusArrival::serviceName).toList());
+                    assertEquals(Status.TIMEOUT, results.get(1).status());
+                    assertEquals(Status.INVALID, results.get(2).status());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetStopArrivals_slowUpstreamFallsBackToPrediction() {
+        HeadwayModel headwayModel = new HeadwayModel();
+        int slot = HeadwayModel.slotOf(Instant.now());
+        for (int i = 0; i < 3; i++) {
+            headwayModel.observe(HeadwayModel.stopKey("ProviderA", "001"), "12", "OperatorX", slot, 600);
+        }
+        BusService predictingService = busService(
+                new BusStopCatalogManager(List.of(providerA, providerB), null, new SimpleMeterRegistry()),
+                headwayModel, Duration.ofMillis(100));
+        when(providerA.getBusArrivals("001")).thenReturn(Flux.never());
+
+        StepVerifier.create(predictingService.getStopArrivals(new BusStop("001", "Alpha Stop", 1.0, 2.0, "ProviderA")))
+                .assertNext(data -> {
+                    assertTrue(data.predicted());
+                    assertEquals("12", data.arrivals().get(0).serviceName());
+                    assertTrue(data.arrivals().get(0).predicted());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetStopArrivals_slowUpstreamWithoutHistoryTimesOutAtTheBudget() {
+        BusService budgetedService = busService(
+                new BusStopCatalogManager(List.of(providerA, providerB), null, new SimpleMeterRegistry()),
+                new HeadwayModel(), Duration.ofMillis(100));
+        when(providerA.getBusArrivals("001")).thenReturn(Flux.never());
+
+        StepVerifier.create(budgetedService.getStopArrivals(new BusStop("001", "Alpha Stop", 1.0, 2.0, "ProviderA")))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(1));
+    }
+
+    // Wires the service as Spring would, with meters on a private registry and no arrival history
+    private BusService busService(BusStopCatalogManager catalogManager, HeadwayModel headwayModel, Duration latencyBudget) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BusArrivalCache arrivalCache = new BusArrivalCache(registry, new ProviderCircuitBreakers(registry),
+                Duration.ofSeconds(15), Duration.ofMinutes(2), Clock.systemUTC());
+        return new BusService(List.of(providerA, providerB), catalogManager, arrivalCache, null, headwayModel,
+                latencyBudget);
+    }
 }
@@ -0,0 +1,124 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.model.BusStop;
+import com.example.springbackend.service.implementation.BusStopCatalog;
+import com.example.springbackend.service.implementation.BusStopCatalogManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BusStopCatalogManagerTest {
+
+    @Mock
+    BusServiceProvider lta;
+
+    @Mock
+    BusServiceProvider nus;
+
+    SimpleMeterRegistry meterRegistry;
+    BusStopCatalogManager manager;
+
+    private final BusStop hotel = new BusStop("01012", "Hotel Grand Pacific", 1.2968, 103.8525, "LTA");
+    private final BusStop church = new BusStop("01013", "St. Joseph's Ch", 1.2977, 103.8532, "LTA");
+    private final BusStop utown = new BusStop("UTOWN", "University Town", 0.0, 0.0, "NUS");
+
+    @BeforeEach
+    void setUp() {
+        when(lta.getApiName()).thenReturn("LTA");
+        when(nus.getApiName()).thenReturn("NUS");
+        meterRegistry = new SimpleMeterRegistry();
+        manager = new BusStopCatalogManager(List.of(lta, nus), null, meterRegistry);
+    }
+
+    @Test
+    void firstReadLoadsFromEveryProvider() {
+        when(lta.getAllBusStops()).thenReturn(Flux.just(hotel));
+        when(nus.getAllBusStops()).thenReturn(Flux.just(utown));
+
+        StepVerifier.create(manager.catalog())
+                .expectNextMatches(catalog -> catalog.version() == 1 && catalog.stops().size() == 2)
+                .verifyComplete();
+        assertEquals(1.0, meterRegistry.get("bus.catalog.version").gauge().value());
+    }
+
+    @Test
+    void changedCatalogGetsNewVersionAndUnchangedKeepsIt() {
+        when(lta.getAllBusStops())
+                .thenReturn(Flux.just(hotel))
+                .thenReturn(Flux.just(hotel))
+                .thenReturn(Flux.just(hotel, church));
+        when(nus.getAllBusStops()).thenReturn(Flux.just(utown));
+
+        BusStopCatalog first = manager.refresh().block();
+        BusStopCatalog unchanged = manager.refresh().block();
+        BusStopCatalog changed = manager.refresh().block();
+
+        assertSame(first, unchanged);
+        assertEquals(2, changed.version());
+        assertEquals(3, changed.stops().size());
+        assertEquals(1.0, meterRegistry.get("bus.catalog.refresh").tag("result", "unchanged").counter().count());
+    }
+
+    @Test
+    void failedProviderKeepsItsLastGoodStops() {
+        when(lta.getAllBusStops())
+                .thenReturn(Flux.just(hotel, church))
+                .thenReturn(Flux.concat(Flux.just(hotel), Flux.error(new RuntimeException("page 2 timed out"))));
+        when(nus.getAllBusStops()).thenReturn(Flux.just(utown));
+
+        manager.refresh().block();
+        BusStopCatalog afterFailure = manager.refresh().block();
+
+        assertEquals(1, afterFailure.version());
+        assertEquals(List.of(hotel, church), afterFailure.stopsFrom("LTA"));
+    }
+
+    @Test
+    void totalFailureKeepsServingLastGoodVersion() {
+        when(lta.getAllBusStops()).thenReturn(Flux.just(hotel)).thenReturn(Flux.error(new RuntimeException("down")));
+        when(nus.getAllBusStops()).thenReturn(Flux.just(utown)).thenReturn(Flux.empty());
+
+        BusStopCatalog good = manager.refresh().block();
+        manager.refresh().block();
+
+        assertSame(good, manager.currentCatalog().orElseThrow());
+    }
+
+    @Test
+    void firstLoadWithNoDataFailsAndIsRetried() {
+        when(lta.getAllBusStops()).thenReturn(Flux.error(new RuntimeException("down"))).thenReturn(Flux.just(hotel));
+        when(nus.getAllBusStops()).thenReturn(Flux.empty()).thenReturn(Flux.just(utown));
+
+        StepVerifier.create(manager.catalog())
+                .expectError(IllegalStateException.class)
+                .verify();
+        assertTrue(manager.currentCatalog().isEmpty());
+
+        StepVerifier.create(manager.catalog())
+                .expectNextMatches(BusStopCatalog::isComplete)
+                .verifyComplete();
+    }
+
+    @Test
+    void partialFirstLoadIsMarkedIncomplete() {
+        when(lta.getAllBusStops()).thenReturn(Flux.just(hotel));
+        when(nus.getAllBusStops()).thenReturn(Flux.error(new RuntimeException("down")));
+
+        BusStopCatalog catalog = manager.refresh().block();
+
+        assertFalse(catalog.isComplete());
+        assertEquals(Set.of("NUS"), catalog.missingProviders());
+    }
+}
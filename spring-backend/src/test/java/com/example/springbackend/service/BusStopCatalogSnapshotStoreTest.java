@@ -0,0 +1,54 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.model.BusStop;
+import com.example.springbackend.service.implementation.BusStopCatalogSnapshotStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BusStopCatalogSnapshotStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<BusStop> stops = List.of(
+            new BusStop("01012", "Hotel Grand Pacific", 1.29684825487647, 103.85253591654006, "LTA"),
+            new BusStop("01013", "St. Joseph's Ch", 1.29770970610083, 103.8532247463225, "LTA"),
+            new BusStop("UTOWN", "University Town", 0.0, 0.0, "NUS")
+    );
+
+    @Test
+    void roundTripPreservesEveryStop() throws Exception {
+        BusStopCatalogSnapshotStore store = new BusStopCatalogSnapshotStore(tempDir.resolve("catalog.bin").toString());
+        store.save(stops);
+
+        BusStopCatalogSnapshotStore.Snapshot snapshot = store.load().orElseThrow();
+
+        assertEquals(stops, snapshot.stops());
+        assertNotNull(snapshot.createdAt());
+    }
+
+    @Test
+    void missingOrCorruptSnapshotIsIgnored() throws Exception {
+        Path file = tempDir.resolve("catalog.bin");
+        BusStopCatalogSnapshotStore store = new BusStopCatalogSnapshotStore(file.toString());
+        assertTrue(store.load().isEmpty());
+
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertTrue(store.load().isEmpty());
+    }
+
+    @Test
+    void blankPathDisablesPersistence() throws Exception {
+        BusStopCatalogSnapshotStore store = new BusStopCatalogSnapshotStore("");
+        store.save(stops);
+
+        assertFalse(store.isEnabled());
+        assertTrue(store.load().isEmpty());
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.model.BusStop;
+import com.example.springbackend.service.implementation.BusStopSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BusStopSearchIndexTest {
+
+    BusStopSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BusStopSearchIndex(List.of(
+                new BusStop("01012", "Hotel Grand Pacific", 1.2968, 103.8525, "LTA"),
+                new BusStop("01013", "St. Joseph's Ch", 1.2977, 103.8532, "LTA"),
+                new BusStop("10121", "Opp Blk 1012", 1.2800, 103.8300, "LTA"),
+                new BusStop("20251", "Clementi Stn", 1.3150, 103.7650, "LTA"),
+                new BusStop("UTOWN", "University Town", 1.3036, 103.7746, "NUS"),
+                new BusStop("COM2", "Computing 2", 1.2944, 103.7741, "NUS")
+        ));
+    }
+
+    @Test
+    void exactCodeRanksFirst() {
+        List<BusStop> result = index.search("01012", 10);
+
+        assertEquals("01012", result.get(0).code());
+        // "Opp Blk 1012" and "10121" only contain the query as a substring, so they rank after it
+        assertTrue(result.stream().anyMatch(stop -> stop.code().equals("10121")));
+    }
+
+    @Test
+    void prefixMatchesAnyWordInName() {
+        List<BusStop> result = index.search("town", 10);
+
+        assertEquals(1, result.size());
+        assertEquals("UTOWN", result.get(0).code());
+    }
+
+    @Test
+    void punctuationAndCaseAreIgnored() {
+        List<BusStop> result = index.search("st joseph", 10);
+
+        assertEquals("01013", result.get(0).code());
+    }
+
+    @Test
+    void substringMatchesInsideWords() {
+        List<BusStop> result = index.search("menti", 10);
+
+        assertEquals(1, result.size());
+        assertEquals("20251", result.get(0).code());
+    }
+
+    @Test
+    void shortQueriesStillMatchInsideCodesAndNames() {
+        List<String> codes = index.search("12", 10).stream().map(BusStop::code).toList();
+
+        assertEquals(List.of("01012", "10121"), codes);
+        assertTrue(index.search("2", 10).stream().anyMatch(stop -> stop.code().equals("COM2")));
+    }
+
+    @Test
+    void typoTolerantMatchIsRankedLast() {
+        List<BusStop> result = index.search("clemnti", 10);
+
+        assertEquals(1, result.size());
+        assertEquals("20251", result.get(0).code());
+    }
+
+    @Test
+    void limitCapsResults() {
+        assertEquals(2, index.search("0", 2).size());
+        assertTrue(index.search("zzzz", 5).isEmpty());
+    }
+
+    @Test
+    void pageWalksTheCatalogInStableOrder() {
+        List<BusStop> first = index.page(0, 4);
+        List<BusStop> second = index.page(1, 4);
+
+        assertEquals(4, first.size());
+        assertEquals(2, second.size());
+        assertEquals("01012", first.get(0).code());
+        assertTrue(index.page(5, 4).isEmpty());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.model.BusStop;
+import com.example.springbackend.service.implementation.BusStopSpatialIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BusStopSpatialIndexTest {
+
+    @Test
+    void withinRadiusReturnsNearestFirst() {
+        BusStopSpatialIndex index = new BusStopSpatialIndex(List.of(
+                new BusStop("A", "Near", 1.3000, 103.8000, "LTA"),
+                new BusStop("B", "Nearer", 1.3005, 103.8000, "LTA"),
+                new BusStop("C", "Far", 1.3500, 103.8000, "LTA")
+        ));
+
+        List<BusStopSpatialIndex.Neighbour> result = index.withinRadius(1.3006, 103.8000, 300, 10);
+
+        assertEquals(2, result.size());
+        assertEquals("B", result.get(0).stop().code());
+        assertEquals("A", result.get(1).stop().code());
+        assertEquals(66.7, result.get(1).distanceMeters(), 1.0);
+    }
+
+    @Test
+    void stopsWithoutCoordinatesAreSkipped() {
+        BusStopSpatialIndex index = new BusStopSpatialIndex(List.of(
+                new BusStop("UTOWN", "University Town", 0.0, 0.0, "NUS"),
+                new BusStop("A", "Near", 1.3000, 103.8000, "LTA")
+        ));
+
+        assertEquals(1, index.size());
+        assertEquals("A", index.nearest(0.0001, 0.0001).orElseThrow().stop().code());
+    }
+
+    @Test
+    void matchesBruteForceOnRandomCatalog() {
+        Random random = new Random(42);
+        List<BusStop> stops = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            stops.add(new BusStop(String.valueOf(i), "Stop " + i,
+                    1.25 + random.nextDouble() * 0.2, 103.6 + random.nextDouble() * 0.4, "LTA"));
+        }
+        BusStopSpatialIndex index = new BusStopSpatialIndex(stops);
+
+        for (int q = 0; q < 50; q++) {
+            double lat = 1.25 + random.nextDouble() * 0.2;
+            double lon = 103.6 + random.nextDouble() * 0.4;
+            BusStop expected = stops.stream()
+                    .min(Comparator.comparingDouble(s -> squaredDegrees(s, lat, lon)))
+                    .orElseThrow();
+            assertEquals(expected.code(), index.nearest(lat, lon).orElseThrow().stop().code());
+
+            List<BusStop> found = index.withinRadius(lat, lon, 500, 2000).stream()
+                    .map(BusStopSpatialIndex.Neighbour::stop)
+                    .toList();
+            // Allow a metre either side for the difference between the projection and the great circle
+            assertTrue(found.stream().allMatch(s -> haversineMeters(s, lat, lon) <= 501));
+            stops.stream()
+                    .filter(s -> haversineMeters(s, lat, lon) <= 499)
+                    .forEach(s -> assertTrue(found.contains(s)));
+        }
+    }
+
+    private static double haversineMeters(BusStop stop, double lat, double lon) {
+        double dLat = Math.toRadians(stop.latitude() - lat);
+        double dLon = Math.toRadians(stop.longitude() - lon);
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(Math.toRadians(lat)) * Math.cos(Math.toRadians(stop.latitude())) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * 6_371_008.8 * Math.asin(Math.sqrt(a));
+    }
+
+    private static double squaredDegrees(BusStop stop, double lat, double lon) {
+        double dLat = stop.latitude() - lat;
+        double dLon = (stop.longitude() - lon) * Math.cos(Math.toRadians(lat));
+        return dLat * dLat + dLon * dLon;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.controller.GeocodeController;
+import com.example.springbackend.model.GeocodeCacheEntry;
+import com.example.springbackend.repository.GeocodeCacheRepository;
+import com.example.springbackend.service.implementation.GeocodeCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.*;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GeocodeCacheTest {
+
+    private static final List<GeocodeController.GeocodeCandidate> ORCHARD = List.of(
+            new GeocodeController.GeocodeCandidate("1.3048", "103.8318", "ORCHARD ROAD", "238801", "", "ORCHARD ROAD", ""));
+
+    @Mock
+    GeocodeCacheRepository repository;
+
+    @Mock
+    ReactiveMongoTemplate mongoTemplate;
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private GeocodeCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-06T00:00:00Z"));
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new GeocodeCache(repository, mongoTemplate, meterRegistry, Duration.ofHours(1),
+                Duration.ofDays(7), Duration.ofMinutes(10), 100, clock);
+        lenient().when(repository.findById(anyString())).thenReturn(Mono.empty());
+        lenient().when(repository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    @Test
+    void queriesDifferingInCaseAndPunctuationShareAKey() {
+        assertEquals("orchard rd", GeocodeCache.normalize("  Orchard   Rd. "));
+        assertEquals("st josephs institution", GeocodeCache.normalize("St. Joseph's Institution"));
+        assertEquals("blk 123 ang mo kio ave 3", GeocodeCache.normalize("Blk 123, Ang-Mo-Kio Ave 3"));
+        assertEquals("orchard", GeocodeCache.normalize("ＯＲＣＨＡＲＤ"));
+    }
+
+    @Test
+    void repeatedQueriesAreAnsweredFromMemory() {
+        cache.get("Orchard Rd", () -> load(ORCHARD)).block();
+        List<GeocodeController.GeocodeCandidate> again = cache.get("orchard rd.", () -> load(ORCHARD)).block();
+
+        assertEquals(ORCHARD, again);
+        assertEquals(1, calls.get());
+        assertEquals(1.0, meterRegistry.get("geocoding.cache").tag("result", "l1").counter().count());
+        verify(repository, times(1)).findById("orchard rd");
+    }
+
+    @Test
+    void emptyResultsExpireSoonerThanFoundOnes() {
+        cache.get("Nowhere Lane", () -> load(List.of())).block();
+        cache.get("Orchard", () -> load(ORCHARD)).block();
+
+        ArgumentCaptor<GeocodeCacheEntry> saved = ArgumentCaptor.forClass(GeocodeCacheEntry.class);
+        verify(repository, times(2)).save(saved.capture());
+        assertEquals(clock.instant().plus(Duration.ofMinutes(10)), saved.getAllValues().get(0).getExpiresAt());
+        assertEquals(clock.instant().plus(Duration.ofDays(7)), saved.getAllValues().get(1).getExpiresAt());
+
+        clock.advance(Duration.ofMinutes(11));
+        cache.get("Nowhere Lane", () -> load(List.of())).block();
+        cache.get("Orchard", () -> load(ORCHARD)).block();
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void sharedResultsFillMemoryWithoutCallingOneMap() {
+        when(repository.findById("orchard")).thenReturn(Mono.just(GeocodeCacheEntry.builder()
+                .query("orchard")
+                .candidates(ORCHARD)
+                .expiresAt(clock.instant().plus(Duration.ofDays(3)))
+                .build()));
+
+        assertEquals(ORCHARD, cache.get("Orchard", () -> load(ORCHARD)).block());
+        assertEquals(ORCHARD, cache.get("ORCHARD", () -> load(ORCHARD)).block());
+
+        assertEquals(0, calls.get());
+        verify(repository, times(1)).findById("orchard");
+        verify(repository, never()).save(any());
+        assertEquals(1.0, meterRegistry.get("geocoding.cache").tag("result", "l2").counter().count());
+    }
+
+    @Test
+    void failedLoadsAreNotCached() {
+        when(repository.findById("orchard")).thenReturn(Mono.error(new IllegalStateException("mongo down")));
+
+        assertThrows(RuntimeException.class, () -> cache.get("Orchard", () -> {
+            calls.incrementAndGet();
+            return Mono.error(new RuntimeException("OneMap unavailable"));
+        }).block());
+        assertEquals(ORCHARD, cache.get("Orchard", () -> load(ORCHARD)).block());
+
+        assertEquals(2, calls.get());
+        verify(repository, times(1)).save(any());
+    }
+
+    private Mono<List<GeocodeController.GeocodeCandidate>> load(List<GeocodeController.GeocodeCandidate> result) {
+        calls.incrementAndGet();
+        return Mono.just(result);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.springbackend.service;
 
+import com.example.springbackend.dto.OneMapDtos;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,6 +16,7 @@ import java.lang.reflect.Field;
 import java.util.List;
 import java.util.function.Function;
 
+import static com.example.springbackend.service.JsonFixtures.decode;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -72,7 +74,8 @@ class GeocodingServiceTest {
             }
             """;
 
-        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(jsonResponse));
+        when(responseSpec.bodyToMono(OneMapDtos.SearchResponse.class))
+                .thenReturn(Mono.just(decode(jsonResponse, OneMapDtos.SearchResponse.class)));
 
         StepVerifier.create(geocodingService.getCandidates("Orchard"))
                 .expectNextMatches(list -> list.size() == 1
@@ -85,14 +88,15 @@ class GeocodingServiceTest {
         verify(requestHeadersUriSpec, times(1)).uri(any(Function.class));
         verify(requestHeadersSpec, times(1)).header(eq(HttpHeaders.AUTHORIZATION), anyString());
         verify(requestHeadersSpec, times(1)).retrieve();
-        verify(responseSpec, times(1)).bodyToMono(String.class);
+        verify(responseSpec, times(1)).bodyToMono(OneMapDtos.SearchResponse.class);
     }
 
     @Test
     void testGetCandidates_emptyResults() {
         String jsonResponse = "{\"results\": []}";
 
-        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(jsonResponse));
+        when(responseSpec.bodyToMono(OneMapDtos.SearchResponse.class))
+                .thenReturn(Mono.just(decode(jsonResponse, OneMapDtos.SearchResponse.class)));
 
         StepVerifier.create(geocodingService.getCandidates("Nowhere"))
                 .expectNextMatches(List::isEmpty)
@@ -101,7 +105,7 @@ class GeocodingServiceTest {
 
     @Test
     void testGetCandidates_apiError() {
-        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.error(new RuntimeException("API down")));
+        when(responseSpec.bodyToMono(OneMapDtos.SearchResponse.class)).thenReturn(Mono.error(new RuntimeException("API down")));
 
         StepVerifier.create(geocodingService.getCandidates("ErrorTest"))
                 .expectNextMatches(List::isEmpty) // fallback returns empty list on error
@@ -0,0 +1,71 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.model.BusArrival;
+import com.example.springbackend.model.StopArrivals;
+import com.example.springbackend.service.implementation.HeadwayModel;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeadwayModelTest {
+
+    // 08:05 in Singapore
+    private static final Instant MORNING = Instant.parse("2025-01-06T00:05:00Z");
+
+    private final HeadwayModel model = new HeadwayModel();
+
+    @Test
+    void slotIsQuarterHourOfTheDayInSingapore() {
+        assertEquals(32, HeadwayModel.slotOf(MORNING));
+        assertEquals(0, HeadwayModel.slotOf(Instant.parse("2025-01-05T16:14:59Z")));
+    }
+
+    @Test
+    void predictsHalfAHeadwayThenOneMoreOnceEnoughSamples() {
+        String stopKey = HeadwayModel.stopKey("LTA", "01012");
+        int slot = HeadwayModel.slotOf(MORNING);
+        model.observe(stopKey, "10", "SBST", slot, 600);
+        model.observe(stopKey, "10", "SBST", slot, 600);
+        assertTrue(model.predict("LTA", "01012", MORNING).isEmpty());
+
+        model.observe(stopKey, "10", "SBST", slot, 600);
+        model.observe(stopKey, "2", "SBST", slot - 1, 480);
+        model.observe(stopKey, "2", "SBST", slot - 1, 480);
+        model.observe(stopKey, "2", "SBST", slot - 1, 480);
+        StopArrivals predicted = model.predict("LTA", "01012", MORNING).orElseThrow();
+
+        assertTrue(predicted.predicted());
+        assertFalse(predicted.stale());
+        List<BusArrival> arrivals = predicted.arrivals();
+        assertEquals(List.of("2", "10"), arrivals.stream().map(BusArrival::serviceName).toList());
+        BusArrival ten = arrivals.get(1);
+        assertTrue(ten.predicted());
+        assertEquals(MORNING.getEpochSecond() + 300, ten.etaEpochSecond(0));
+        assertEquals(MORNING.getEpochSecond() + 900, ten.etaEpochSecond(1));
+    }
+
+    @Test
+    void ignoresImplausibleGapsAndDistantSlots() {
+        String stopKey = HeadwayModel.stopKey("LTA", "01012");
+        int slot = HeadwayModel.slotOf(MORNING);
+        for (int i = 0; i < 5; i++) {
+            model.observe(stopKey, "10", "SBST", slot, 10);
+            model.observe(stopKey, "12", "SBST", slot + 8, 600);
+        }
+
+        assertTrue(model.predict("LTA", "01012", MORNING).isEmpty());
+    }
+
+    @Test
+    void replaceAllSwapsInTheStoredHistory() {
+        model.observe(HeadwayModel.stopKey("LTA", "01012"), "10", "SBST", 32, 600);
+        model.replaceAll(List.of(new HeadwayModel.Headway("NUS:COM3", "D1", "NUS", 32, 420, 40)));
+
+        assertTrue(model.predict("LTA", "01012", MORNING).isEmpty());
+        BusArrival d1 = model.predict("NUS", "COM3", MORNING).orElseThrow().arrivals().get(0);
+        assertEquals(MORNING.getEpochSecond() + 210, d1.etaEpochSecond(0));
+    }
+}
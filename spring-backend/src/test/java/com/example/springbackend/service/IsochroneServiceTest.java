@@ -0,0 +1,89 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.dto.LtaDtos;
+import com.example.springbackend.dto.response.IsochroneResponse;
+import com.example.springbackend.model.BusStop;
+import com.example.springbackend.model.Coordinates;
+import com.example.springbackend.service.implementation.BusRouteIndexManager;
+import com.example.springbackend.service.implementation.TransitNetwork;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IsochroneServiceTest {
+
+    @Mock
+    BusRouteIndexManager routeIndexManager;
+
+    SimpleMeterRegistry meterRegistry;
+    IsochroneService service;
+
+    // A 10 km line of stops, one every kilometre, served end to end by one bus
+    private final TransitNetwork network = TransitNetwork.build(
+            java.util.stream.IntStream.rangeClosed(0, 10)
+                    .mapToObj(i -> new BusStop("S" + i, "Stop " + i, 1.3, 103.7 + i * 0.009, "LTA"))
+                    .toList(),
+            java.util.stream.IntStream.rangeClosed(0, 10)
+                    .mapToObj(i -> new LtaDtos.BusRoute("10", 1, i + 1, "S" + i))
+                    .toList(),
+            List.of(new LtaDtos.BusService("10", "SBST", 1, "TRUNK", "S0", "S10", "06", "06", "06", "06")),
+            Instant.parse("2025-01-01T00:00:00Z"));
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new IsochroneService(routeIndexManager, meterRegistry, 7, 10);
+    }
+
+    @Test
+    void largerBudgetsReachFurtherAndRepeatsAreCached() {
+        when(routeIndexManager.network()).thenReturn(network);
+
+        IsochroneResponse short_ = service.isochrone(1.3, 103.7, 5, false).block();
+        IsochroneResponse long_ = service.isochrone(1.3, 103.7, 45, true).block();
+        service.isochrone(1.3, 103.70001, 45, true).block();
+
+        assertNotNull(short_);
+        assertNotNull(long_);
+        assertEquals("S0", short_.stops().get(0).code());
+        assertTrue(short_.stops().size() < long_.stops().size());
+        assertTrue(long_.stops().stream().anyMatch(stop -> stop.code().equals("S10")));
+        assertEquals(List.of(), short_.polygon());
+        assertEquals(2.0, meterRegistry.get("routing.isochrone").tag("result", "miss").counter().count());
+        assertEquals(1.0, meterRegistry.get("routing.isochrone").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void rejectsOutOfRangeBudgetAndUnloadedNetwork() {
+        StepVerifier.create(service.isochrone(1.3, 103.7, 0, false))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        when(routeIndexManager.network()).thenReturn(TransitNetwork.EMPTY);
+        StepVerifier.create(service.isochrone(1.3, 103.7, 10, false))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    void convexHullDropsInteriorPointsAndCloses() {
+        List<Coordinates> hull = IsochroneService.convexHull(List.of(
+                new Coordinates(0, 0), new Coordinates(0, 2), new Coordinates(2, 2),
+                new Coordinates(2, 0), new Coordinates(1, 1)));
+
+        assertEquals(5, hull.size());
+        assertEquals(hull.get(0), hull.get(4));
+        assertFalse(hull.contains(new Coordinates(1, 1)));
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.springbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Decodes canned upstream responses the way the WebClient's Jackson codec would.
+ */
+final class JsonFixtures {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private JsonFixtures() {
+    }
+
+    static <T> T decode(String json, Class<T> type) {
+        try {
+            return MAPPER.readValue(json, type);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.dto.LtaDtos;
+import com.example.springbackend.dto.llm.DirectionsResponseDTO;
+import com.example.springbackend.model.BusStop;
+import com.example.springbackend.model.Coordinates;
+import com.example.springbackend.service.implementation.LocalTransitRouter;
+import com.example.springbackend.service.implementation.TransitNetwork;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalTransitRouterTest {
+
+    // Stops about 550 m apart along one street; C2 is across the road from C
+    private final TransitNetwork network = TransitNetwork.build(
+            List.of(
+                    stop("A", 103.800),
+                    stop("B", 103.805),
+                    stop("C", 103.810),
+                    new BusStop("C2", "Stop C2", 1.3002, 103.8101, "LTA"),
+                    stop("D", 103.815),
+                    stop("E", 103.820)),
+            List.of(
+                    new LtaDtos.BusRoute("10", 1, 1, "A"),
+                    new LtaDtos.BusRoute("10", 1, 2, "B"),
+                    new LtaDtos.BusRoute("10", 1, 3, "C"),
+                    new LtaDtos.BusRoute("20", 1, 1, "C2"),
+                    new LtaDtos.BusRoute("20", 1, 2, "D"),
+                    new LtaDtos.BusRoute("20", 1, 3, "E"),
+                    new LtaDtos.BusRoute("NR9", 1, 1, "A"),
+                    new LtaDtos.BusRoute("NR9", 1, 2, "E")),
+            List.of(
+                    new LtaDtos.BusService("10", "SBST", 1, "TRUNK", "A", "C", "05-07", "08-10", "05-07", "10-12"),
+                    new LtaDtos.BusService("20", "SBST", 1, "TRUNK", "C2", "E", "05-07", "08-10", "05-07", "10-12"),
+                    new LtaDtos.BusService("NR9", "SBST", 1, "NIGHT SERVICE", "A", "E", "-", "-", "-", "30")),
+            Instant.parse("2025-01-01T00:00:00Z"));
+
+    private final Coordinates nearA = new Coordinates(1.3, 103.7995);
+    private final Coordinates nearE = new Coordinates(1.3, 103.8205);
+
+    @Test
+    void transfersOnFootBetweenNearbyStops() {
+        List<DirectionsResponseDTO.RouteDTO> routes = LocalTransitRouter.route(network, nearA, nearE, LocalTime.of(8, 0));
+
+        DirectionsResponseDTO.RouteDTO route = routes.get(0);
+        assertEquals("Bus 10 → 20", route.summary());
+        assertEquals(List.of("WALK", "BUS", "WALK", "BUS", "WALK"),
+                route.legs().stream().map(DirectionsResponseDTO.LegDTO::type).toList());
+        DirectionsResponseDTO.LegDTO transfer = route.legs().get(2);
+        assertEquals("C", transfer.fromStopCode());
+        assertEquals("C2", transfer.toStopCode());
+        assertEquals(3, route.legs().get(1).routePoints().size());
+        assertTrue(route.durationInMinutes() > 0);
+    }
+
+    @Test
+    void servicesOnlyRunInTheirPublishedPeriods() {
+        List<String> morning = LocalTransitRouter.route(network, nearA, nearE, LocalTime.of(8, 0)).stream()
+                .map(DirectionsResponseDTO.RouteDTO::summary).toList();
+        List<DirectionsResponseDTO.RouteDTO> night = LocalTransitRouter.route(network, nearA, nearE, LocalTime.of(23, 30));
+
+        assertFalse(morning.contains("Bus NR9"));
+        // Slower than changing buses, but one bus fewer
+        DirectionsResponseDTO.RouteDTO direct = night.stream()
+                .filter(route -> route.summary().equals("Bus NR9"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("A", direct.legs().get(1).fromStopCode());
+        assertEquals("E", direct.legs().get(1).toStopCode());
+    }
+
+    @Test
+    void stopsImprovedThisRoundCanStillBeBoardedFromTheirEarlierArrival() {
+        // Bus 10 reaches S sooner than walking there, but walking to S and riding 20 needs one bus fewer
+        TransitNetwork network = TransitNetwork.build(
+                List.of(stop("A", 103.800), stop("S", 103.804), stop("E", 103.830)),
+                List.of(
+                        new LtaDtos.BusRoute("10", 1, 1, "A"),
+                        new LtaDtos.BusRoute("10", 1, 2, "S"),
+                        new LtaDtos.BusRoute("20", 1, 1, "S"),
+                        new LtaDtos.BusRoute("20", 1, 2, "E")),
+                List.of(
+                        new LtaDtos.BusService("10", "SBST", 1, "TRUNK", "A", "S", "05-07", "08-10", "05-07", "10-12"),
+                        new LtaDtos.BusService("20", "SBST", 1, "TRUNK", "S", "E", "05-07", "08-10", "05-07", "10-12")),
+                Instant.parse("2025-01-01T00:00:00Z"));
+
+        List<String> summaries = LocalTransitRouter.route(network, new Coordinates(1.3, 103.800),
+                new Coordinates(1.3, 103.8305), LocalTime.of(8, 0)).stream()
+                .map(DirectionsResponseDTO.RouteDTO::summary).toList();
+
+        assertTrue(summaries.contains("Bus 20"), summaries::toString);
+    }
+
+    @Test
+    void shortTripsAreWalked() {
+        List<DirectionsResponseDTO.RouteDTO> routes = LocalTransitRouter.route(network, nearA,
+                new Coordinates(1.3, 103.8005), LocalTime.of(8, 0));
+
+        assertEquals("Walking route", routes.get(0).summary());
+        assertEquals(1, routes.get(0).legs().size());
+    }
+
+    @Test
+    void emptyNetworkFindsNothing() {
+        assertEquals(List.of(), LocalTransitRouter.route(TransitNetwork.EMPTY, nearA, nearE, LocalTime.NOON));
+    }
+
+    private static BusStop stop(String code, double longitude) {
+        return new BusStop(code, "Stop " + code, 1.3, longitude, "LTA");
+    }
+}
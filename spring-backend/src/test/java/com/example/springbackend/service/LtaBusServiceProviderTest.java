@@ -6,9 +6,11 @@ import com.example.springbackend.model.BusStop;
 import com.example.springbackend.service.implementation.LtaBusServiceProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClient.*;
+import org.springframework.web.util.DefaultUriBuilderFactory;
 import org.springframework.web.util.UriBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -19,6 +21,7 @@ import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.function.Function;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 
@@ -86,6 +89,23 @@ public class LtaBusServiceProviderTest {
         verify(responseSpec).bodyToMono(LtaDtos.LtaBusStopsResponse.class);
     }
 
+    @Test
+    public void testGetBusArrivals_pushesServiceFilterUpstream() {
+        LtaDtos.Service service = new LtaDtos.Service("12", "OperatorX",
+                new LtaDtos.NextBus("2025-08-11T10:00:00+08:00"), null, null);
+        when(responseSpec.bodyToMono(LtaDtos.LtaArrivalsResponse.class))
+                .thenReturn(Mono.just(new LtaDtos.LtaArrivalsResponse(List.of(service))));
+
+        StepVerifier.create(ltaService.getBusArrivals("1234", "12"))
+                .expectNextMatches(busArrival -> busArrival.serviceName().equals("12"))
+                .verifyComplete();
+
+        ArgumentCaptor<Function<UriBuilder, URI>> uri = ArgumentCaptor.forClass(Function.class);
+        verify(uriSpec).uri(uri.capture());
+        URI built = uri.getValue().apply(new DefaultUriBuilderFactory().builder());
+        assertEquals("BusStopCode=1234&ServiceNo=12", built.getQuery());
+    }
+
     @Test
     public void testGetBusArrivals() {
         String busStopCode = "1234";
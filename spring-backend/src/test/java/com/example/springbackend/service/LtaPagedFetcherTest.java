@@ -0,0 +1,87 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.dto.LtaDtos;
+import com.example.springbackend.service.implementation.LtaPagedFetcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LtaPagedFetcherTest {
+
+    private final Map<Integer, AtomicInteger> callsBySkip = new ConcurrentHashMap<>();
+
+    /**
+     * A WebClient over a fake DataMall serving {@code total} stops; later pages answer faster
+     * than earlier ones so out-of-order completion is exercised.
+     */
+    private WebClient fakeDataMall(int total, int failFirstCallForSkip) {
+        return WebClient.builder()
+                .baseUrl("http://fake-lta.test")
+                .exchangeFunction(request -> {
+                    String query = request.url().getQuery();
+                    int skip = Integer.parseInt(query.substring(query.indexOf('=') + 1));
+                    int call = callsBySkip.computeIfAbsent(skip, k -> new AtomicInteger()).incrementAndGet();
+                    if (skip == failFirstCallForSkip && call == 1) {
+                        return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+                    }
+                    String records = IntStream.range(skip, Math.min(total, skip + LtaPagedFetcher.PAGE_SIZE))
+                            .mapToObj(i -> String.format("{\"BusStopCode\":\"%05d\",\"Description\":\"Stop %d\",\"Latitude\":1.3,\"Longitude\":103.8}", i, i))
+                            .collect(Collectors.joining(","));
+                    ClientResponse response = ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body("{\"value\":[" + records + "]}")
+                            .build();
+                    return Mono.delay(Duration.ofMillis(Math.max(0, 40 - skip / 50))).thenReturn(response);
+                })
+                .build();
+    }
+
+    private List<String> fetchCodes(WebClient webClient) {
+        return new LtaPagedFetcher(webClient, 4, Duration.ZERO)
+                .fetchAll("/BusStops", "key", LtaDtos.LtaBusStopsResponse.class, LtaDtos.LtaBusStopsResponse::value)
+                .map(LtaDtos.BusStop::code)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void reassemblesPagesInOrderAndStopsAtShortPage() {
+        List<String> codes = fetchCodes(fakeDataMall(1_234, -1));
+
+        assertEquals(1_234, codes.size());
+        assertEquals(IntStream.range(0, 1_234).mapToObj(i -> String.format("%05d", i)).toList(), codes);
+        // Speculative pages past the end are bounded by the concurrency
+        assertTrue(callsBySkip.size() <= 3 + 4);
+    }
+
+    @Test
+    void singleShortPageCostsOneCall() {
+        List<String> codes = fetchCodes(fakeDataMall(20, -1));
+
+        assertEquals(20, codes.size());
+        assertEquals(Map.of(0, 1), callsBySkip.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().get())));
+    }
+
+    @Test
+    void transientPageFailureIsRetried() {
+        List<String> codes = fetchCodes(fakeDataMall(1_000, 500));
+
+        assertEquals(1_000, codes.size());
+        assertEquals(2, callsBySkip.get(500).get());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.springbackend.service;
 
+import com.example.springbackend.dto.NusDtos;
 import com.example.springbackend.model.BusArrival;
 import com.example.springbackend.model.BusStop;
 import com.example.springbackend.service.implementation.NusBusServiceProvider;
@@ -16,6 +17,7 @@ import reactor.test.StepVerifier;
 
 import java.util.function.Function;
 
+import static com.example.springbackend.service.JsonFixtures.decode;
 import static org.mockito.Mockito.*;
 
 @SuppressWarnings({"rawtypes", "unchecked"})
@@ -55,7 +57,8 @@ public class NusBusServiceProviderTest {
         when(headersSpec.header(anyString(), (String[]) any())).thenReturn(headersSpec);
 
         when(headersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(jsonResponse));
+        when(responseSpec.bodyToMono(NusDtos.NusBusStopsResponse.class))
+                .thenReturn(Mono.just(decode(jsonResponse, NusDtos.NusBusStopsResponse.class)));
 
 
         Flux<BusStop> busStopsFlux = service.getAllBusStops();
@@ -97,7 +100,8 @@ public class NusBusServiceProviderTest {
         when(headersSpec.header(anyString(), (String[]) any())).thenReturn(headersSpec);
 
         when(headersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(jsonResponse));
+        when(responseSpec.bodyToMono(NusDtos.NusArrivalsResponse.class))
+                .thenReturn(Mono.just(decode(jsonResponse, NusDtos.NusArrivalsResponse.class)));
 
         Flux<BusArrival> arrivalsFlux = service.getBusArrivals(busStopCode);
 
@@ -0,0 +1,110 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.service.implementation.ProviderCircuitBreakers;
+import com.example.springbackend.service.implementation.ProviderCircuitBreakers.CircuitOpenException;
+import com.example.springbackend.service.implementation.ProviderCircuitBreakers.State;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.*;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderCircuitBreakersTest {
+
+    private Instant now;
+    private SimpleMeterRegistry meterRegistry;
+    private ProviderCircuitBreakers breakers;
+
+    @BeforeEach
+    void setUp() {
+        now = Instant.parse("2025-01-01T00:00:00Z");
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        meterRegistry = new SimpleMeterRegistry();
+        breakers = new ProviderCircuitBreakers(meterRegistry,
+                Duration.ofMillis(50), Duration.ofMillis(200), Duration.ofSeconds(30), clock);
+    }
+
+    @Test
+    void opensAfterRepeatedFailuresAndFailsFast() {
+        failTimes(10);
+        assertEquals(State.OPEN, breakers.state("LTA"));
+
+        AtomicInteger calls = new AtomicInteger();
+        StepVerifier.create(breakers.protect("LTA", Mono.fromCallable(calls::incrementAndGet)))
+                .expectError(CircuitOpenException.class)
+                .verify();
+        assertEquals(0, calls.get());
+        assertEquals(1.0, meterRegistry.get("bus.provider.circuit.rejected").tag("provider", "LTA").counter().count());
+    }
+
+    @Test
+    void singleProbeAfterOpenDurationClosesOnSuccess() {
+        failTimes(10);
+        now = now.plus(Duration.ofSeconds(31));
+
+        StepVerifier.create(breakers.protect("LTA", Mono.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+        assertEquals(State.CLOSED, breakers.state("LTA"));
+    }
+
+    @Test
+    void failedProbeReopens() {
+        failTimes(10);
+        now = now.plus(Duration.ofSeconds(31));
+
+        StepVerifier.create(breakers.protect("LTA", Mono.error(new RuntimeException("still down"))))
+                .expectError(RuntimeException.class)
+                .verify();
+        assertEquals(State.OPEN, breakers.state("LTA"));
+    }
+
+    @Test
+    void clientErrorsDoNotOpenTheCircuit() {
+        for (int i = 0; i < 10; i++) {
+            breakers.protect("LTA", Mono.error(WebClientResponseException.create(
+                    HttpStatus.NOT_FOUND.value(), "Not Found", null, null, null)))
+                    .onErrorResume(e -> Mono.empty())
+                    .block();
+        }
+        assertEquals(State.CLOSED, breakers.state("LTA"));
+    }
+
+    @Test
+    void slowCallsAreCutOffAtTheTimeout() {
+        StepVerifier.create(breakers.protect("NUS", Mono.never()))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(2));
+    }
+
+    private void failTimes(int times) {
+        for (int i = 0; i < times; i++) {
+            breakers.protect("LTA", Mono.error(new RuntimeException("upstream down")))
+                    .onErrorResume(e -> Mono.empty())
+                    .block();
+        }
+    }
+}
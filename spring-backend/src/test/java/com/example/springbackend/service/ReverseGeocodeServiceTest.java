@@ -1,5 +1,6 @@
 package com.example.springbackend.service;
 
+import com.example.springbackend.dto.OneMapDtos;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,6 +15,7 @@ import reactor.test.StepVerifier;
 import java.util.List;
 import java.util.function.Function;
 
+import static com.example.springbackend.service.JsonFixtures.decode;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -72,7 +74,8 @@ class ReverseGeocodeServiceTest {
             }
             """;
 
-        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(jsonResponse));
+        when(responseSpec.bodyToMono(OneMapDtos.ReverseGeocodeResponse.class))
+                .thenReturn(Mono.just(decode(jsonResponse, OneMapDtos.ReverseGeocodeResponse.class)));
 
         StepVerifier.create(reverseGeocodeService.getCandidates("24291.97788882387", "31373.0117224489"))
                 .expectNextMatches(list -> list.size() == 1 &&
@@ -86,14 +89,15 @@ class ReverseGeocodeServiceTest {
         verify(requestHeadersUriSpec, times(1)).uri(any(Function.class));
         verify(requestHeadersSpec, times(1)).header(eq(HttpHeaders.AUTHORIZATION), anyString());
         verify(requestHeadersSpec, times(1)).retrieve();
-        verify(responseSpec, times(1)).bodyToMono(String.class);
+        verify(responseSpec, times(1)).bodyToMono(OneMapDtos.ReverseGeocodeResponse.class);
     }
 
     @Test
     void testGetCandidates_emptyResults() {
         String jsonResponse = "{\"GeocodeInfo\": []}";
 
-        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(jsonResponse));
+        when(responseSpec.bodyToMono(OneMapDtos.ReverseGeocodeResponse.class))
+                .thenReturn(Mono.just(decode(jsonResponse, OneMapDtos.ReverseGeocodeResponse.class)));
 
         StepVerifier.create(reverseGeocodeService.getCandidates("0", "0"))
                 .expectNextMatches(List::isEmpty)
@@ -102,7 +106,7 @@ class ReverseGeocodeServiceTest {
 
     @Test
     void testGetCandidates_apiError() {
-        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.error(new RuntimeException("API down")));
+        when(responseSpec.bodyToMono(OneMapDtos.ReverseGeocodeResponse.class)).thenReturn(Mono.error(new RuntimeException("API down")));
 
         StepVerifier.create(reverseGeocodeService.getCandidates("0", "0"))
                 .expectNextMatches(List::isEmpty)  // fallback returns empty list on error
@@ -0,0 +1,90 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.dto.llm.DirectionsResponseDTO.LegDTO;
+import com.example.springbackend.dto.llm.DirectionsResponseDTO.RouteDTO;
+import com.example.springbackend.model.BusArrival;
+import com.example.springbackend.model.BusStop;
+import com.example.springbackend.model.Coordinates;
+import com.example.springbackend.model.StopArrivals;
+import com.example.springbackend.service.implementation.BusService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteArrivalsEnricherTest {
+
+    private static final BusStop CLEMENTI = new BusStop("17009", "Clementi Int", 1.3150, 103.7650, "LTA");
+    private static final BusStop BUONA_VISTA = new BusStop("11369", "Buona Vista Stn", 1.3070, 103.7900, "LTA");
+    private static final BusArrival BUS_96 = BusArrival.ofEpochSeconds("96", "SBST", 1_736_121_900L);
+    private static final BusArrival BUS_7 = BusArrival.ofEpochSeconds("7", "SBST", 1_736_122_200L);
+
+    @Mock
+    private BusService busService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RouteArrivalsEnricher enricher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        enricher = new RouteArrivalsEnricher(busService, meterRegistry, Duration.ofMillis(300));
+        when(busService.resolveBoardingStop(eq("17009"), any(), any())).thenReturn(Mono.just(CLEMENTI));
+    }
+
+    @Test
+    void eachBusLegGetsItsOwnServiceAndEachStopIsFetchedOnce() {
+        when(busService.getStopArrivals(CLEMENTI)).thenReturn(Mono.just(arrivals(CLEMENTI, BUS_96, BUS_7)));
+        List<RouteDTO> routes = List.of(
+                new RouteDTO(30, List.of(walk(), bus("96", CLEMENTI)), "Bus 96"),
+                new RouteDTO(35, List.of(bus("7", CLEMENTI)), "Bus 7"));
+
+        List<RouteDTO> enriched = enricher.withArrivals(routes).block();
+
+        assertNull(enriched.get(0).legs().get(0).nextArrivals());
+        assertEquals(BUS_96, enriched.get(0).legs().get(1).nextArrivals());
+        assertEquals(BUS_7, enriched.get(1).legs().get(0).nextArrivals());
+        verify(busService, times(1)).getStopArrivals(any());
+        assertEquals(1.0, meterRegistry.get("routing.enrichment").tag("result", "complete").counter().count());
+    }
+
+    @Test
+    void stopsThatMissTheDeadlineAreLeftUnannotated() {
+        when(busService.resolveBoardingStop(eq("11369"), any(), any())).thenReturn(Mono.just(BUONA_VISTA));
+        when(busService.getStopArrivals(CLEMENTI)).thenReturn(Mono.just(arrivals(CLEMENTI, BUS_96)));
+        when(busService.getStopArrivals(BUONA_VISTA)).thenReturn(Mono.never());
+        List<RouteDTO> routes = List.of(new RouteDTO(40, List.of(bus("96", CLEMENTI), bus("74", BUONA_VISTA)), "Bus 96 → 74"));
+
+        List<RouteDTO> enriched = enricher.withArrivals(routes).block(Duration.ofSeconds(5));
+
+        assertEquals(BUS_96, enriched.get(0).legs().get(0).nextArrivals());
+        assertNull(enriched.get(0).legs().get(1).nextArrivals());
+        assertEquals(1.0, meterRegistry.get("routing.enrichment").tag("result", "partial").counter().count());
+    }
+
+    private static StopArrivals arrivals(BusStop stop, BusArrival... arrivals) {
+        return new StopArrivals(stop.sourceApi(), stop.code(), List.of(arrivals), Instant.now());
+    }
+
+    private static LegDTO bus(String serviceNo, BusStop from) {
+        return new LegDTO("BUS", 10, serviceNo, "BUS from " + from.name(), null,
+                List.of(new Coordinates(from.latitude(), from.longitude())), from.name(), from.code(), "Somewhere", "99999");
+    }
+
+    private static LegDTO walk() {
+        return new LegDTO("WALK", 3, null, "WALK", null, List.of(), "Origin", null, CLEMENTI.name(), CLEMENTI.code());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.dto.llm.DirectionsResponseDTO.RouteDTO;
+import com.example.springbackend.dto.response.RouteMatrixRow;
+import com.example.springbackend.dto.response.RouteMatrixRow.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteMatrixServiceTest {
+
+    private static final String CLEMENTI = "1.3150,103.7650";
+    private static final String ORCHARD = "1.3040,103.8318";
+    private static final String CHANGI = "1.3644,103.9915";
+
+    @Mock
+    private RoutingService routingService;
+
+    private RouteMatrixService matrixService;
+
+    @BeforeEach
+    void setUp() {
+        matrixService = new RouteMatrixService(routingService, 1000);
+    }
+
+    @Test
+    void repeatedPairsAreRoutedOnceAndFanOutToEveryIndex() {
+        when(routingService.getBusRoutes(eq(CLEMENTI), eq(ORCHARD), any(), any(), any()))
+                .thenReturn(Mono.just(List.of(new RouteDTO(40, List.of(), "Bus 7"), new RouteDTO(32, List.of(), "Bus 96 → 7"))));
+
+        List<RouteMatrixRow> rows = sorted(matrixService.getRouteMatrix(
+                List.of(CLEMENTI, " " + CLEMENTI + " "), List.of(ORCHARD), null).collectList().block());
+
+        assertEquals(List.of(
+                new RouteMatrixRow(0, 0, Status.OK, 32, "Bus 96 → 7"),
+                new RouteMatrixRow(1, 0, Status.OK, 32, "Bus 96 → 7")), rows);
+        verify(routingService, times(1)).getBusRoutes(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void failedPairsAreReportedWithoutFailingTheMatrix() {
+        when(routingService.getBusRoutes(eq(CLEMENTI), eq(ORCHARD), any(), any(), any()))
+                .thenReturn(Mono.just(Collections.emptyList()));
+        when(routingService.getBusRoutes(eq(CLEMENTI), eq(CHANGI), any(), any(), any()))
+                .thenReturn(Mono.error(new RuntimeException("OneMap unavailable")));
+        when(routingService.getBusRoutes(eq(CLEMENTI), eq("north pole"), any(), any(), any()))
+                .thenReturn(Mono.error(new IllegalArgumentException("Invalid coordinates")));
+
+        List<RouteMatrixRow> rows = sorted(matrixService.getRouteMatrix(
+                List.of(CLEMENTI), List.of(ORCHARD, CHANGI, "north pole", ""), null).collectList().block());
+
+        assertEquals(List.of(Status.NO_ROUTE, Status.ERROR, Status.INVALID, Status.INVALID),
+                rows.stream().map(RouteMatrixRow::status).toList());
+        verify(routingService, times(3)).getBusRoutes(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedMatrices() {
+        assertThrows(IllegalArgumentException.class,
+                () -> matrixService.getRouteMatrix(List.of(), List.of(ORCHARD), null));
+        List<String> many = Collections.nCopies(RouteMatrixService.MAX_PAIRS / 10 + 1, ORCHARD);
+        assertThrows(IllegalArgumentException.class,
+                () -> matrixService.getRouteMatrix(many, Collections.nCopies(10, CHANGI), null));
+        verifyNoInteractions(routingService);
+    }
+
+    private static List<RouteMatrixRow> sorted(List<RouteMatrixRow> rows) {
+        return rows.stream()
+                .sorted(Comparator.comparingInt(RouteMatrixRow::origin).thenComparingInt(RouteMatrixRow::destination))
+                .toList();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.dto.LtaDtos;
+import com.example.springbackend.dto.response.RouteShapeResponse;
+import com.example.springbackend.model.BusStop;
+import com.example.springbackend.model.Coordinates;
+import com.example.springbackend.model.Polyline;
+import com.example.springbackend.model.Trip;
+import com.example.springbackend.repository.TripRepository;
+import com.example.springbackend.service.implementation.BusRouteIndexManager;
+import com.example.springbackend.service.implementation.TransitNetwork;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteShapeServiceTest {
+
+    @Mock
+    BusRouteIndexManager routeIndexManager;
+
+    @Mock
+    TripRepository tripRepository;
+
+    SimpleMeterRegistry meterRegistry;
+    RouteShapeService service;
+
+    // Eleven stops a kilometre apart, zig-zagging about 33 m either side of a straight line
+    private final TransitNetwork network = TransitNetwork.build(
+            IntStream.rangeClosed(0, 10)
+                    .mapToObj(i -> new BusStop("S" + i, "Stop " + i, 1.3 + (i % 2) * 0.0003, 103.7 + i * 0.009, "LTA"))
+                    .toList(),
+            IntStream.rangeClosed(0, 10)
+                    .mapToObj(i -> new LtaDtos.BusRoute("10", 1, i + 1, "S" + i))
+                    .toList(),
+            List.of(),
+            Instant.parse("2025-01-01T00:00:00Z"));
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new RouteShapeService(routeIndexManager, tripRepository, meterRegistry, 10, Duration.ofHours(24));
+    }
+
+    @Test
+    void lowZoomLevelsDropDetailTheMapCannotShow() {
+        when(routeIndexManager.network()).thenReturn(network);
+
+        RouteShapeResponse overview = service.shape("bus-10-1", 9).block();
+        RouteShapeResponse street = service.shape("bus-10-1", 16).block();
+        RouteShapeResponse full = service.shape("bus-10-1", 20).block();
+
+        assertEquals(10, overview.zoom());
+        assertEquals(2, overview.points());
+        assertEquals(11, street.points());
+        assertEquals(18, full.zoom());
+        assertEquals(network.routeShape("10", 1).size(), Polyline.decode(full.polyline()).size());
+        assertNotEquals(overview.etag(), full.etag());
+        assertEquals(1.0, meterRegistry.get("routing.shapes").tag("result", "miss").counter().count());
+        assertEquals(2.0, meterRegistry.get("routing.shapes").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void tripLegShapesComeFromTheLegGeometry() {
+        String geometry = Polyline.encode(List.of(
+                new Coordinates(1.3, 103.70), new Coordinates(1.3, 103.71), new Coordinates(1.3, 103.72)));
+        Trip trip = Trip.builder().id("abc").route(Trip.TripRoute.builder()
+                .legs(List.of(Trip.TripLeg.builder().type("WALK").build(),
+                        Trip.TripLeg.builder().type("BUS").legGeometry(geometry).build()))
+                .build()).build();
+        when(tripRepository.findById("abc")).thenReturn(Mono.just(trip));
+
+        RouteShapeResponse shape = service.shape("trip-abc-1", 18).block();
+        service.shape("trip-abc-1", 12).block();
+
+        assertEquals(geometry, shape.polyline());
+        verify(tripRepository, times(1)).findById("abc");
+        StepVerifier.create(service.shape("trip-abc-0", 18)).verifyComplete();
+    }
+
+    @Test
+    void rejectsMalformedIdsAndZooms() {
+        StepVerifier.create(service.shape("route-10", 12)).expectError(IllegalArgumentException.class).verify();
+        StepVerifier.create(service.shape("bus-10-x", 12)).expectError(IllegalArgumentException.class).verify();
+        StepVerifier.create(service.shape("bus-10-1", 30)).expectError(IllegalArgumentException.class).verify();
+        verifyNoInteractions(routeIndexManager, tripRepository);
+    }
+}
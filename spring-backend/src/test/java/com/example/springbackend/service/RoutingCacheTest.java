@@ -0,0 +1,110 @@
+package com.example.springbackend.service;
+
+import com.example.springbackend.dto.llm.DirectionsResponseDTO;
+import com.example.springbackend.service.implementation.Geohash;
+import com.example.springbackend.service.implementation.RoutingCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.*;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingCacheTest {
+
+    private static final LocalDateTime EIGHT_AM = LocalDateTime.of(2025, 1, 6, 8, 0);
+    private static final List<DirectionsResponseDTO.RouteDTO> ROUTES =
+            List.of(new DirectionsResponseDTO.RouteDTO(20, List.of(), "Bus 95"));
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private RoutingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-06T00:00:00Z"));
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new RoutingCache(meterRegistry, 7, Duration.ofMinutes(5), Duration.ofMinutes(5), 2,
+                RoutingService.Strategy.ONEMAP, clock);
+    }
+
+    @Test
+    void geohashMatchesReferenceEncoding() {
+        assertEquals("u4pruydqqvj", Geohash.encode(57.64911, 10.40744, 11));
+        assertEquals("w21z", Geohash.encode(1.2966, 103.7764, 4));
+    }
+
+    @Test
+    void nearbyTripsInTheSameDepartureBucketShareOneCall() {
+        cache.get("1.29660,103.77640", "1.30420,103.83180", EIGHT_AM, this::load).block();
+        List<DirectionsResponseDTO.RouteDTO> nearby = cache.get("1.29661,103.77641", "1.30421,103.83181",
+                EIGHT_AM.plusMinutes(2), this::load).block();
+        cache.get("1.29660,103.77640", "1.30420,103.83180", EIGHT_AM.plusMinutes(6), this::load).block();
+
+        assertEquals(ROUTES, nearby);
+        assertEquals(2, calls.get());
+        assertEquals(1.0, meterRegistry.get("routing.onemap.calls.saved").tag("strategy", "onemap")
+                .functionCounter().count());
+    }
+
+    @Test
+    void localRoutingDoesNotReportSavedOneMapCalls() {
+        SimpleMeterRegistry localRegistry = new SimpleMeterRegistry();
+        RoutingCache local = new RoutingCache(localRegistry, 7, Duration.ofMinutes(5), Duration.ofMinutes(5), 2,
+                RoutingService.Strategy.LOCAL, clock);
+
+        local.get("1.3,103.8", "1.35,103.9", EIGHT_AM, this::load).block();
+        local.get("1.3,103.8", "1.35,103.9", EIGHT_AM, this::load).block();
+
+        assertNull(localRegistry.find("routing.onemap.calls.saved").functionCounter());
+        assertEquals(1.0, localRegistry.get("routing.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void concurrentMissesShareOneCall() {
+        Sinks.One<List<DirectionsResponseDTO.RouteDTO>> upstream = Sinks.one();
+        Mono<List<DirectionsResponseDTO.RouteDTO>> first =
+                cache.get("1.3,103.8", "1.35,103.9", EIGHT_AM, () -> { calls.incrementAndGet(); return upstream.asMono(); });
+        Mono<List<DirectionsResponseDTO.RouteDTO>> second = cache.get("1.3,103.8", "1.35,103.9", EIGHT_AM, this::load);
+
+        first.subscribe();
+        second.subscribe();
+        upstream.tryEmitValue(ROUTES);
+
+        assertEquals(1, calls.get());
+        assertEquals(1.0, meterRegistry.get("routing.cache").tag("result", "coalesced").counter().count());
+    }
+
+    @Test
+    void expiredAndLeastRecentlyUsedEntriesAreEvicted() {
+        cache.get("1.30,103.80", "1.35,103.90", EIGHT_AM, this::load).block();
+        cache.get("1.31,103.80", "1.35,103.90", EIGHT_AM, this::load).block();
+        cache.get("1.32,103.80", "1.35,103.90", EIGHT_AM, this::load).block();
+        assertEquals(1.0, meterRegistry.get("routing.cache.evictions").tag("cause", "size").counter().count());
+
+        clock.advance(Duration.ofMinutes(6));
+        cache.evictExpired();
+        assertEquals(2.0, meterRegistry.get("routing.cache.evictions").tag("cause", "expired").counter().count());
+        assertEquals(0.0, meterRegistry.get("routing.cache.size").gauge().value());
+    }
+
+    @Test
+    void emptyResultsAreNotCached() {
+        cache.get("1.3,103.8", "1.35,103.9", EIGHT_AM, () -> { calls.incrementAndGet(); return Mono.just(List.of()); })
+                .block();
+        cache.get("1.3,103.8", "1.35,103.9", EIGHT_AM, this::load).block();
+
+        assertEquals(2, calls.get());
+    }
+
+    private Mono<List<DirectionsResponseDTO.RouteDTO>> load() {
+        calls.incrementAndGet();
+        return Mono.just(ROUTES);
+    }
+}
@@ -2,8 +2,10 @@ package com.example.springbackend.service;
 
 import com.example.springbackend.dto.llm.DirectionsResponseDTO;
 import com.example.springbackend.service.implementation.NusService;
+import com.example.springbackend.service.implementation.RoutingCache;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.NonNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,10 +24,13 @@ import java.lang.reflect.Method;
 import java.net.URI;
 import java.time.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import static com.example.springbackend.service.JsonFixtures.decode;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -76,7 +81,7 @@ class RoutingServiceTest {
         lenient().when(requestHeadersUriSpec.uri(any(Function.class))).thenReturn(requestHeadersSpec);
         lenient().when(requestHeadersSpec.header(eq(HttpHeaders.AUTHORIZATION), anyString())).thenReturn(requestHeadersSpec);
         lenient().when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        lenient().when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just("some dummy json response"));
+        lenient().when(responseSpec.bodyToMono(JsonNode.class)).thenReturn(Mono.just(decode("{}", JsonNode.class)));
     }
 
     @Test
@@ -88,7 +93,7 @@ class RoutingServiceTest {
               }
             }
             """;
-        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(jsonResponse));
+        when(responseSpec.bodyToMono(JsonNode.class)).thenReturn(Mono.just(decode(jsonResponse, JsonNode.class)));
 
         StepVerifier.create(routingService.getBusRoutes("1.3521,103.8198", "1.290270,103.851959", null, null))
                 .expectNextCount(1)
@@ -393,6 +398,85 @@ class RoutingServiceTest {
         assertFalse(filtered.contains(route2));
     }
 
+    @Test
+    void arriveByProbesWorkBackFromTheDeadlineOnAFixedGrid() {
+        LocalDateTime earliest = LocalDateTime.of(2025, 1, 6, 7, 10);
+
+        assertEquals(List.of(earliest, earliest.withHour(8).withMinute(45), earliest.withHour(8).withMinute(30),
+                        earliest.withHour(8).withMinute(15), earliest.withHour(8).withMinute(0)),
+                RoutingService.probeDepartures(earliest, earliest.withHour(9).withMinute(0), Duration.ofMinutes(15), 4));
+        assertEquals(List.of(earliest, earliest.withMinute(15)),
+                RoutingService.probeDepartures(earliest, earliest.withMinute(20), Duration.ofMinutes(15), 4));
+        assertEquals(List.of(earliest),
+                RoutingService.probeDepartures(earliest, earliest.minusMinutes(5), Duration.ofMinutes(15), 4));
+    }
+
+    @Test
+    void arriveByKeepsTheLatestOnTimeDepartureOfEachItinerary() {
+        LocalDateTime deadline = LocalDateTime.of(2025, 1, 6, 9, 0);
+        DirectionsResponseDTO.RouteDTO bus95 = new DirectionsResponseDTO.RouteDTO(25, List.of(), "Bus 95");
+        DirectionsResponseDTO.RouteDTO bus151 = new DirectionsResponseDTO.RouteDTO(40, List.of(), "Bus 151");
+
+        List<DirectionsResponseDTO.RouteDTO> routes = RoutingService.latestOnTime(List.of(
+                Map.entry(deadline.minusMinutes(60), List.of(bus95, bus151)),
+                Map.entry(deadline.minusMinutes(30), List.of(bus95, bus151)),
+                Map.entry(deadline.minusMinutes(15), List.of(bus95, bus151))), deadline);
+
+        assertEquals(List.of(bus95.withDepartureTime("08:30"), bus151.withDepartureTime("08:00")), routes);
+    }
+
+    @Test
+    void arriveByFallsBackToTheEarliestDepartureWhenNothingIsOnTime() {
+        String jsonResponse = """
+            {"plan": {"itineraries": [{"duration": 3600, "legs": []}]}}
+            """;
+        when(responseSpec.bodyToMono(JsonNode.class)).thenReturn(Mono.just(decode(jsonResponse, JsonNode.class)));
+
+        StepVerifier.create(routingService.getBusRoutes("1.0,2.0", "3.0,4.0", LocalTime.of(8, 30), LocalTime.of(8, 0)))
+                .expectNextMatches(routes -> routes.size() == 1 && "08:00".equals(routes.get(0).departureTime()))
+                .verifyComplete();
+        // 08:00 plus the 08:15 grid probe
+        verify(webClient, times(2)).get();
+    }
+
+    @Test
+    void arriveByDeadlineBeforeTheDepartureIsOnTheNextDay() {
+        String jsonResponse = """
+            {"plan": {"itineraries": [{"duration": 600, "legs": []}]}}
+            """;
+        when(responseSpec.bodyToMono(JsonNode.class)).thenReturn(Mono.just(decode(jsonResponse, JsonNode.class)));
+
+        StepVerifier.create(routingService.getBusRoutes("1.0,2.0", "3.0,4.0", LocalTime.of(0, 30), LocalTime.of(23, 30)))
+                .expectNextMatches(routes -> routes.size() == 1 && "00:15".equals(routes.get(0).departureTime()))
+                .verifyComplete();
+        // 23:30 plus the 00:15, 00:00 and 23:45 grid probes
+        verify(webClient, times(4)).get();
+    }
+
+    @Test
+    void oneMapDelayIsOnlyAskedForWhenOneMapIsCalled() throws Exception {
+        RoutingService cached = new RoutingService(webClient, null,
+                new RoutingCache(new SimpleMeterRegistry(), 7, Duration.ofMinutes(5), Duration.ofMinutes(5), 10,
+                        RoutingService.Strategy.ONEMAP, Clock.systemUTC()), null, "onemap");
+        var field = RoutingService.class.getDeclaredField("oneMapToken");
+        field.setAccessible(true);
+        field.set(cached, "dummy-token");
+        when(responseSpec.bodyToMono(JsonNode.class)).thenReturn(Mono.just(decode("""
+            {"plan": {"itineraries": [{"duration": 1200, "legs": []}]}}
+            """, JsonNode.class)));
+        AtomicInteger delays = new AtomicInteger();
+        Supplier<Duration> delay = () -> {
+            delays.incrementAndGet();
+            return Duration.ofMillis(1);
+        };
+
+        cached.getBusRoutes("1.0,2.0", "3.0,4.0", null, LocalTime.of(8, 0), delay).block();
+        cached.getBusRoutes("1.0,2.0", "3.0,4.0", null, LocalTime.of(8, 0), delay).block();
+
+        assertEquals(1, delays.get());
+        verify(webClient, times(1)).get();
+    }
+
     // Your existing tests (invalid coordinate, api error, etc.) come below...
 
     @Test
@@ -429,10 +513,10 @@ class RoutingServiceTest {
 
     @Test
     void testParseRoutesOnly_handlesInvalidJson() throws Exception {
-        Method method = RoutingService.class.getDeclaredMethod("parseRoutesOnly", String.class);
+        Method method = RoutingService.class.getDeclaredMethod("parseRoutesOnly", JsonNode.class);
         method.setAccessible(true);
 
-        Object result = method.invoke(routingService, "{}");
+        Object result = method.invoke(routingService, decode("{}", JsonNode.class));
 
         assertNotNull(result);
         assertInstanceOf(List.class, result);
@@ -447,7 +531,7 @@ class RoutingServiceTest {
             }
             """;
 
-        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(jsonResponse));
+        when(responseSpec.bodyToMono(JsonNode.class)).thenReturn(Mono.just(decode(jsonResponse, JsonNode.class)));
 
         StepVerifier.create(routingService.getBusRoutes("1.0,2.0", "3.0,4.0", null, null))
                 .expectNextMatches(List::isEmpty)